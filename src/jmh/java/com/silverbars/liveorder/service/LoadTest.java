@@ -0,0 +1,88 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.engine.BlockingWaitStrategy;
+import com.silverbars.liveorder.service.engine.OrderEngine;
+import com.silverbars.liveorder.service.engine.RingFullPolicy;
+import com.silverbars.liveorder.service.load.LoadRunner;
+import com.silverbars.liveorder.service.load.PriceDistribution;
+import com.silverbars.liveorder.service.load.WorkloadFile;
+import com.silverbars.liveorder.service.load.WorkloadGenerator;
+import com.silverbars.liveorder.service.load.WorkloadSpec;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import com.silverbars.liveorder.service.repository.primitive.PrimitiveSilverBarOrderRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Records a generated workload to a file and replays a recorded workload against a service implementation,
+ * so that implementations are compared under exactly the same operations.
+ * Run with {@code java -cp <jmh runtime classpath> com.silverbars.liveorder.service.LoadTest record <file> [seed]
+ * [operationCount] [ratePerSecond] [UNIFORM|NORMAL|TOP_HEAVY] [bookDepth]} and
+ * {@code java -cp <jmh runtime classpath> com.silverbars.liveorder.service.LoadTest replay <file>
+ * [in-memory|primitive|sharded|engine] [clientThreads]}.
+ */
+public class LoadTest {
+
+    private static final int SHARD_COUNT = 4;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadTest record <file> [seed] [operationCount] [ratePerSecond] [priceDistribution] [bookDepth]");
+            System.err.println("       LoadTest replay <file> [in-memory|primitive|sharded|engine] [clientThreads]");
+            System.exit(1);
+        }
+        var file = Path.of(args[1]);
+        if (args[0].equals("record")) {
+            var spec = WorkloadSpec.builder()
+                    .seed(args.length > 2 ? Long.parseLong(args[2]) : 1)
+                    .operationCount(args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000)
+                    .ratePerSecond(args.length > 4 ? Double.parseDouble(args[4]) : 20_000)
+                    .priceDistribution(args.length > 5 ? PriceDistribution.valueOf(args[5]) : PriceDistribution.NORMAL)
+                    .bookDepth(args.length > 6 ? Integer.parseInt(args[6]) : 100)
+                    .registerWeight(55)
+                    .cancelWeight(44)
+                    .summaryPollWeight(1)
+                    .midPrice(new BigDecimal("1000.00"))
+                    .tickSize(new BigDecimal("0.25"))
+                    .userCount(1_000)
+                    .maxWeightInGrams(10_000)
+                    .build();
+            WorkloadFile.write(file, WorkloadGenerator.generate(spec));
+        } else {
+            var operations = WorkloadFile.read(file);
+            var implementation = args.length > 2 ? args[2] : "in-memory";
+            var clientThreads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+            var service = service(implementation);
+            try {
+                System.out.println(implementation + " with " + clientThreads + " client threads");
+                System.out.print(new LoadRunner(service, clientThreads).run(operations).format());
+            } finally {
+                if (service instanceof OrderEngine) {
+                    ((OrderEngine) service).close();
+                }
+            }
+        }
+    }
+
+    private static SilverBarOrderService service(String implementation) {
+        switch (implementation) {
+            case "primitive":
+                return new SilverBarOrderServiceImpl(new PrimitiveSilverBarOrderRepository());
+            case "sharded":
+                return new ShardedSilverBarOrderService(IntStream.range(0, SHARD_COUNT)
+                        .mapToObj(shard -> new InMemorySilverBarOrderRepository())
+                        .collect(Collectors.toList()));
+            case "engine":
+                return new OrderEngine(new SilverBarOrderServiceImpl(new InMemorySilverBarOrderRepository()), 1024,
+                        new BlockingWaitStrategy(), RingFullPolicy.BLOCK);
+            case "in-memory":
+                return new SilverBarOrderServiceImpl(new InMemorySilverBarOrderRepository());
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + implementation);
+        }
+    }
+}
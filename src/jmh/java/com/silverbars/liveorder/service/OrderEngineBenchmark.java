@@ -0,0 +1,95 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.engine.BlockingWaitStrategy;
+import com.silverbars.liveorder.service.engine.BusySpinWaitStrategy;
+import com.silverbars.liveorder.service.engine.OrderEngine;
+import com.silverbars.liveorder.service.engine.ParkingWaitStrategy;
+import com.silverbars.liveorder.service.engine.RingFullPolicy;
+import com.silverbars.liveorder.service.engine.WaitStrategy;
+import com.silverbars.liveorder.service.engine.YieldingWaitStrategy;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers and cancels orders through {@link OrderEngine}, compare with {@link SilverBarOrderServiceBenchmark}.
+ * Run with {@code ./gradlew jmh -PjmhInclude=OrderEngineBenchmark -PjmhThreads=4}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEngineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+
+        @Param({"busySpin", "yielding", "parking", "blocking"})
+        String waitStrategy;
+
+        @Param({"1024"})
+        int ringCapacity;
+
+        OrderEngine engine;
+        private BigDecimal[] prices;
+
+        @Setup(Level.Iteration)
+        public void startEngine() {
+            prices = new BigDecimal[100];
+            for (int level = 0; level < prices.length; level++) {
+                prices[level] = BigDecimal.valueOf(100_000 + level * 25L, 2);
+            }
+            var service = new SilverBarOrderServiceImpl(new InMemorySilverBarOrderRepository());
+            engine = new OrderEngine(service, ringCapacity, waitStrategy(), RingFullPolicy.BLOCK);
+        }
+
+        @TearDown(Level.Iteration)
+        public void closeEngine() {
+            engine.close();
+        }
+
+        private WaitStrategy waitStrategy() {
+            switch (waitStrategy) {
+                case "busySpin":
+                    return new BusySpinWaitStrategy();
+                case "yielding":
+                    return new YieldingWaitStrategy();
+                case "parking":
+                    return new ParkingWaitStrategy(Duration.ofNanos(50_000));
+                default:
+                    return new BlockingWaitStrategy();
+            }
+        }
+
+        SilverBarOrder someNewOrder() {
+            var random = ThreadLocalRandom.current();
+            return SilverBarOrder.builder()
+                    .userId("user-" + random.nextInt(1_000))
+                    .orderType(random.nextBoolean() ? OrderType.BUY : OrderType.SELL)
+                    .thousandGramsPrice(prices[random.nextInt(prices.length)])
+                    .weightInGrams(1 + random.nextInt(10_000))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public String registerOrder(Engine engine) {
+        return engine.engine.registerOrder(engine.someNewOrder());
+    }
+
+    /**
+     * Registers an order and cancels it, the board stays empty.
+     */
+    @Benchmark
+    public boolean registerAndCancelOrder(Engine engine) {
+        var orderId = engine.engine.registerOrder(engine.someNewOrder());
+        return engine.engine.cancelRegisteredOrder(orderId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Scaling of {@link ShardedSilverBarOrderService} with the number of shards on a prefilled board.
+ * Run with {@code ./gradlew jmh -PjmhInclude=ShardedSilverBarOrderServiceBenchmark -PjmhThreads=8}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedSilverBarOrderServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Board {
+
+        @Param({"1", "4", "16"})
+        int shardCount;
+
+        @Param({"100000"})
+        int orderCount;
+
+        ShardedSilverBarOrderService service;
+        Queue<String> liveOrderIds;
+        private BigDecimal[] prices;
+
+        @Setup(Level.Iteration)
+        public void fillBoard() {
+            prices = new BigDecimal[1_000];
+            for (int level = 0; level < prices.length; level++) {
+                prices[level] = BigDecimal.valueOf(100_000 + level * 25L, 2);
+            }
+            service = new ShardedSilverBarOrderService(IntStream.range(0, shardCount)
+                    .mapToObj(shard -> new InMemorySilverBarOrderRepository())
+                    .collect(Collectors.toList()));
+            liveOrderIds = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < orderCount; i++) {
+                liveOrderIds.add(service.registerOrder(someNewOrder()));
+            }
+        }
+
+        SilverBarOrder someNewOrder() {
+            var random = ThreadLocalRandom.current();
+            return SilverBarOrder.builder()
+                    .userId("user-" + random.nextInt(1_000))
+                    .orderType(random.nextBoolean() ? OrderType.BUY : OrderType.SELL)
+                    .thousandGramsPrice(prices[random.nextInt(prices.length)])
+                    .weightInGrams(1 + random.nextInt(10_000))
+                    .build();
+        }
+    }
+
+    /**
+     * Cancels the oldest live order and registers a replacement, which keeps the board at a steady size.
+     */
+    @Benchmark
+    public boolean cancelAndReplaceOrder(Board board) {
+        var orderId = board.liveOrderIds.poll();
+        var cancelled = orderId != null && board.service.cancelRegisteredOrder(orderId);
+        board.liveOrderIds.add(board.service.registerOrder(board.someNewOrder()));
+        return cancelled;
+    }
+
+    @Benchmark
+    public LiveOrderSummary getLiveOrderSummary(Board board) {
+        return board.service.getLiveOrderSummary();
+    }
+}
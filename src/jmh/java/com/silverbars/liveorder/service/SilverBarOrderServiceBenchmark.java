@@ -0,0 +1,96 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link SilverBarOrderServiceImpl} on a prefilled board.
+ * Run with {@code ./gradlew jmh -PjmhInclude=SilverBarOrderServiceBenchmark -PjmhThreads=4}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SilverBarOrderServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Board {
+
+        @Param({"1000", "100000"})
+        int orderCount;
+
+        @Param({"10", "1000"})
+        int priceLevels;
+
+        @Param({"50", "90"})
+        int buyPercentage;
+
+        SilverBarOrderServiceImpl service;
+        Queue<String> liveOrderIds;
+        private BigDecimal[] prices;
+
+        @Setup(Level.Iteration)
+        public void fillBoard() {
+            prices = new BigDecimal[priceLevels];
+            for (int level = 0; level < priceLevels; level++) {
+                prices[level] = BigDecimal.valueOf(100_000 + level * 25L, 2);
+            }
+            service = new SilverBarOrderServiceImpl(new InMemorySilverBarOrderRepository());
+            liveOrderIds = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < orderCount; i++) {
+                liveOrderIds.add(register(someNewOrder()));
+            }
+        }
+
+        String register(SilverBarOrder order) {
+            return service.registerOrder(order);
+        }
+
+        SilverBarOrder someNewOrder() {
+            var random = ThreadLocalRandom.current();
+            return SilverBarOrder.builder()
+                    .userId("user-" + random.nextInt(1_000))
+                    .orderType(random.nextInt(100) < buyPercentage ? OrderType.BUY : OrderType.SELL)
+                    .thousandGramsPrice(prices[random.nextInt(priceLevels)])
+                    .weightInGrams(1 + random.nextInt(10_000))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public String registerOrder(Board board) {
+        return board.register(board.someNewOrder());
+    }
+
+    /**
+     * Cancels the oldest live order and registers a replacement, which keeps the board at a steady size.
+     */
+    @Benchmark
+    public boolean cancelAndReplaceOrder(Board board) {
+        var orderId = board.liveOrderIds.poll();
+        var cancelled = orderId != null && board.service.cancelRegisteredOrder(orderId);
+        board.liveOrderIds.add(board.register(board.someNewOrder()));
+        return cancelled;
+    }
+
+    @Benchmark
+    public LiveOrderSummary getLiveOrderSummary(Board board) {
+        return board.service.getLiveOrderSummary();
+    }
+
+    @Benchmark
+    public LiveOrderLevelSummary getLiveOrderLevelSummary(Board board) {
+        return board.service.getLiveOrderLevelSummary();
+    }
+}
@@ -0,0 +1,64 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against parallel rebuild of the summary out of all orders.
+ * Run with {@code ./gradlew jmh -PjmhInclude=LiveOrderSummaryBuilderBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LiveOrderSummaryBuilderBenchmark {
+
+    @Param({"100000", "1000000"})
+    int orderCount;
+
+    @Param({"10", "10000"})
+    int priceLevels;
+
+    private List<SilverBarOrder> orders;
+    private LiveOrderSummaryBuilder sequentialBuilder;
+    private LiveOrderSummaryBuilder parallelBuilder;
+
+    @Setup
+    public void createOrders() {
+        var random = new Random(orderCount);
+        orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(SilverBarOrder.builder()
+                    .orderId(UUID.randomUUID().toString())
+                    .userId("user-" + random.nextInt(1_000))
+                    .orderType(random.nextBoolean() ? OrderType.BUY : OrderType.SELL)
+                    .thousandGramsPrice(BigDecimal.valueOf(100_000 + random.nextInt(priceLevels) * 25L, 2))
+                    .weightInGrams(1 + random.nextInt(10_000))
+                    .build());
+        }
+        sequentialBuilder = new LiveOrderSummaryBuilder(Integer.MAX_VALUE, ForkJoinPool.commonPool());
+        parallelBuilder = new LiveOrderSummaryBuilder(0, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public LiveOrderSummary buildSequentially() {
+        return sequentialBuilder.build(orders);
+    }
+
+    @Benchmark
+    public LiveOrderSummary buildInParallel() {
+        return parallelBuilder.build(orders);
+    }
+}
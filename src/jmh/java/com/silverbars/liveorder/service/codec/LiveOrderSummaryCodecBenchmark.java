@@ -0,0 +1,105 @@
+package com.silverbars.liveorder.service.codec;
+
+import com.silverbars.liveorder.service.book.LiveOrderBook;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of summaries with {@link LiveOrderSummaryCodec} against Java serialization.
+ * Run with {@code ./gradlew jmh -PjmhInclude=LiveOrderSummaryCodecBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LiveOrderSummaryCodecBenchmark {
+
+    @Param({"1000", "100000"})
+    int orderCount;
+
+    @Param({"100"})
+    int priceLevels;
+
+    private LiveOrderSummary summary;
+    private LiveOrderLevelSummary levelSummary;
+    private ByteBuffer buffer;
+    private ByteBuffer encodedSummary;
+    private byte[] serializedSummary;
+
+    @Setup
+    public void createSummary() throws IOException {
+        var random = new Random(orderCount);
+        var book = new LiveOrderBook();
+        for (int i = 0; i < orderCount; i++) {
+            book.addOrder(SilverBarOrder.builder()
+                    .orderId(UUID.randomUUID().toString())
+                    .userId("user-" + random.nextInt(1_000))
+                    .orderType(random.nextBoolean() ? OrderType.BUY : OrderType.SELL)
+                    .thousandGramsPrice(BigDecimal.valueOf(100_000 + random.nextInt(priceLevels) * 25L, 2))
+                    .weightInGrams(1 + random.nextInt(10_000))
+                    .build());
+        }
+        summary = book.getLiveOrderSummary();
+        levelSummary = book.getLiveOrderLevelSummary();
+        buffer = ByteBuffer.allocateDirect(orderCount * 128 + 1024);
+        encodedSummary = ByteBuffer.allocateDirect(buffer.capacity());
+        LiveOrderSummaryCodec.encode(summary, encodedSummary);
+        encodedSummary.flip();
+        serializedSummary = serialize(summary);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeSummary() {
+        buffer.clear();
+        LiveOrderSummaryCodec.encode(summary, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public LiveOrderSummary decodeSummary() {
+        return LiveOrderSummaryCodec.decodeSummary(encodedSummary.duplicate());
+    }
+
+    @Benchmark
+    public ByteBuffer encodeLevelSummary() {
+        buffer.clear();
+        LiveOrderSummaryCodec.encode(levelSummary, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] serializeSummary() throws IOException {
+        return serialize(summary);
+    }
+
+    @Benchmark
+    public Object deserializeSummary() throws IOException, ClassNotFoundException {
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(serializedSummary))) {
+            return input.readObject();
+        }
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,65 @@
+package com.silverbars.liveorder.service.expiry;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding orders due at a tick with the timer wheel against scanning expiry ticks of all orders, as a periodic sweep
+ * does. Every expired order is scheduled again a day later, so the number of live orders stays the same.
+ * Run with {@code ./gradlew jmh -PjmhInclude=TimerWheelBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TimerWheelBenchmark {
+
+    private static final long TICKS_PER_DAY = 8_640_000;
+
+    @Param({"100000", "1000000"})
+    int orderCount;
+
+    private TimerWheel<Integer> wheel;
+    private long wheelTick;
+    private long[] dueTicks;
+    private long scanTick;
+
+    @Setup
+    public void scheduleOrders() {
+        var random = new Random(orderCount);
+        wheel = new TimerWheel<>(0);
+        dueTicks = new long[orderCount];
+        for (int order = 0; order < orderCount; order++) {
+            dueTicks[order] = 1 + (long) (random.nextDouble() * TICKS_PER_DAY);
+            wheel.schedule(order, dueTicks[order]);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> advanceWheelByTick() {
+        var dueOrders = wheel.advance(++wheelTick);
+        for (var order : dueOrders) {
+            wheel.schedule(order, wheelTick + TICKS_PER_DAY);
+        }
+        return dueOrders;
+    }
+
+    @Benchmark
+    public List<Integer> scanAllOrdersForTick() {
+        var tick = ++scanTick;
+        var dueOrders = new ArrayList<Integer>();
+        for (int order = 0; order < dueTicks.length; order++) {
+            if (dueTicks[order] <= tick) {
+                dueOrders.add(order);
+                dueTicks[order] = tick + TICKS_PER_DAY;
+            }
+        }
+        return dueOrders;
+    }
+}
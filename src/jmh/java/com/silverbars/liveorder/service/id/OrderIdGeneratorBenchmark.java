@@ -0,0 +1,36 @@
+package com.silverbars.liveorder.service.id;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single order id, compared with the default {@link OrderIdGenerator#RANDOM_UUID} drawing from SecureRandom.
+ * Run with {@code ./gradlew jmh -PjmhInclude=OrderIdGeneratorBenchmark -PjmhThreads=4}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderIdGeneratorBenchmark {
+
+    private final OrderIdGenerator randomUuidGenerator = new RandomUuidOrderIdGenerator();
+    private final OrderIdGenerator snowflakeGenerator = new SnowflakeOrderIdGenerator(1);
+
+    @Benchmark
+    public String secureRandomUuid() {
+        return OrderIdGenerator.RANDOM_UUID.nextOrderId();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return randomUuidGenerator.nextOrderId();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return snowflakeGenerator.nextOrderId();
+    }
+}
@@ -0,0 +1,58 @@
+package com.silverbars.liveorder.service.repository;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.primitive.PrimitiveSilverBarOrderRepository;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compares retained heap of repository implementations holding the same orders.
+ * Orders get random UUID orderIds, which the primitive repository keeps as two longs. OrderIds of formats other than
+ * UUIDs and snowflake ids are kept as strings there, which costs about 75 more bytes per order.
+ * Run with {@code java -cp <jmh runtime classpath> <this class> [orderCount]}, the main class being given by its fully
+ * qualified name.
+ */
+public class RepositoryFootprint {
+
+    private static final int USER_COUNT = 10_000;
+    private static final int PRICE_LEVELS = 1_000;
+
+    public static void main(String[] args) {
+        var orderCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        report("InMemorySilverBarOrderRepository", orderCount, InMemorySilverBarOrderRepository::new);
+        report("PrimitiveSilverBarOrderRepository", orderCount, PrimitiveSilverBarOrderRepository::new);
+    }
+
+    private static void report(String name, int orderCount, Supplier<SilverBarOrderRepository> repositoryFactory) {
+        var heapBefore = usedHeapAfterGc();
+        var repository = repositoryFactory.get();
+        var random = new Random(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            repository.saveOrder(SilverBarOrder.builder()
+                    .orderId(UUID.randomUUID().toString())
+                    .userId("user-" + random.nextInt(USER_COUNT))
+                    .orderType(random.nextBoolean() ? OrderType.BUY : OrderType.SELL)
+                    .thousandGramsPrice(BigDecimal.valueOf(100_000 + random.nextInt(PRICE_LEVELS) * 25L, 2))
+                    .weightInGrams(1 + random.nextInt(10_000))
+                    .build());
+        }
+        var retainedBytes = usedHeapAfterGc() - heapBefore;
+        System.out.printf("%-36s %,d orders: %,d bytes retained, %,d bytes per order%n",
+                name, orderCount, retainedBytes, retainedBytes / orderCount);
+        if (repository.getAllOrders().size() != orderCount) {
+            throw new IllegalStateException("Repository lost orders");
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
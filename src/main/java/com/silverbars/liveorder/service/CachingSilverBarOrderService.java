@@ -0,0 +1,143 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves full summaries of the decorated service from cache for polling clients. Every register, cancel and
+ * expiry made through this service bumps a version which invalidates the cached summaries, so orders changed only
+ * through the decorated service directly are not noticed.
+ * <p>
+ * Cached summaries are shared between callers, the decorated service must return summaries which are not modified
+ * afterwards, as {@link SilverBarOrderServiceImpl} does.
+ */
+class CachingSilverBarOrderService implements SilverBarOrderService {
+
+    private SilverBarOrderService delegate;
+    private AtomicLong version = new AtomicLong();
+    private VersionedCache<LiveOrderSummary> summaryCache;
+    private VersionedCache<LiveOrderLevelSummary> levelSummaryCache;
+
+    public CachingSilverBarOrderService(SilverBarOrderService delegate) {
+        this(delegate, Duration.ZERO);
+    }
+
+    /**
+     * @param maxStaleness how long a cached summary may still be served after orders changed, zero to always
+     *                     reflect every change completed before the call
+     */
+    public CachingSilverBarOrderService(SilverBarOrderService delegate, Duration maxStaleness) {
+        if (maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("maxStaleness cannot be negative");
+        }
+        this.delegate = delegate;
+        this.summaryCache = new VersionedCache<>(delegate::getLiveOrderSummary, version::get, maxStaleness.toNanos());
+        this.levelSummaryCache = new VersionedCache<>(delegate::getLiveOrderLevelSummary, version::get, maxStaleness.toNanos());
+    }
+
+    @Override
+    public String registerOrder(SilverBarOrder order) {
+        try {
+            return delegate.registerOrder(order);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<OrderRegistrationResult> registerOrders(Collection<SilverBarOrder> orders) {
+        try {
+            return delegate.registerOrders(orders);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean cancelRegisteredOrder(String orderId) {
+        try {
+            return delegate.cancelRegisteredOrder(orderId);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<Boolean> cancelRegisteredOrders(Collection<String> orderIds) {
+        try {
+            return delegate.cancelRegisteredOrders(orderIds);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<String> cancelUserOrders(String userId) {
+        try {
+            return delegate.cancelUserOrders(userId);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<String> expireOrders(Instant now) {
+        try {
+            return delegate.expireOrders(now);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<SilverBarOrder> getUserOrders(String userId) {
+        return delegate.getUserOrders(userId);
+    }
+
+    @Override
+    public LiveOrderSummary getUserLiveOrderSummary(String userId) {
+        return delegate.getUserLiveOrderSummary(userId);
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary() {
+        return summaryCache.get();
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(int depth) {
+        return delegate.getLiveOrderSummary(depth);
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(BigDecimal minPrice, BigDecimal maxPrice) {
+        return delegate.getLiveOrderSummary(minPrice, maxPrice);
+    }
+
+    @Override
+    public LiveOrderLevelSummary getLiveOrderLevelSummary() {
+        return levelSummaryCache.get();
+    }
+
+    @Override
+    public List<SilverBarOrder> getLevelOrders(OrderType orderType, BigDecimal thousandGramsPrice) {
+        return delegate.getLevelOrders(orderType, thousandGramsPrice);
+    }
+
+    @Override
+    public Flow.Publisher<LevelUpdate> getLevelUpdates() {
+        return delegate.getLevelUpdates();
+    }
+}
@@ -0,0 +1,463 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevel;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.feed.MergingLevelUpdatePublisher;
+import com.silverbars.liveorder.service.id.OrderIdGenerator;
+import com.silverbars.liveorder.service.metrics.OrderServiceMetrics;
+import com.silverbars.liveorder.service.repository.SilverBarOrderRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Order service partitioned by hash of orderId into independent shards, each with its own repository and book,
+ * so that changes of orders in different shards never contend. Level updates of a shard are handed over to the
+ * level update executor, which merges them across shards, so a shard's writers never wait on merging.
+ * Summaries merge the sorted price levels of all shards, a merged level holds the weight of the level in every shard
+ * and its orders listed shard by shard, each shard's in order of registration.
+ * <p>
+ * Shards are read one after another, so a summary taken while orders change is not a snapshot of all shards
+ * at once, and a batch spanning several shards may be partly visible.
+ */
+class ShardedSilverBarOrderService implements SilverBarOrderService {
+
+    private static final int MAX_PENDING_LEVEL_UPDATES = 100_000;
+    private static final Comparator<BigDecimal> BUY_PRICE_ORDER = Comparator.naturalOrder();
+    private static final Comparator<BigDecimal> SELL_PRICE_ORDER = Comparator.reverseOrder();
+
+    private List<SilverBarOrderServiceImpl> shards;
+    private OrderIdGenerator orderIdGenerator;
+    private MergingLevelUpdatePublisher levelUpdatePublisher;
+    private OrderServiceMetrics metrics;
+
+    public ShardedSilverBarOrderService(List<? extends SilverBarOrderRepository> shardRepositories) {
+        this(shardRepositories, ForkJoinPool.commonPool(), OrderIdGenerator.RANDOM_UUID);
+    }
+
+    /**
+     * @param shardRepositories repository of every shard, orders already stored in one are expected to hash to it
+     * @param levelUpdateExecutor merges level updates of shards and delivers merged ones to subscribers
+     * @param orderIdGenerator assigns ids to registered orders, which decide their shard
+     */
+    public ShardedSilverBarOrderService(List<? extends SilverBarOrderRepository> shardRepositories, Executor levelUpdateExecutor,
+                                        OrderIdGenerator orderIdGenerator) {
+        this(shardRepositories, levelUpdateExecutor, orderIdGenerator, OrderServiceMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics records operations of all shards, its gauges sum up the books of all shards, so a price
+     *                present in several shards is counted as a level of each
+     */
+    public ShardedSilverBarOrderService(List<? extends SilverBarOrderRepository> shardRepositories, Executor levelUpdateExecutor,
+                                        OrderIdGenerator orderIdGenerator, OrderServiceMetrics metrics) {
+        if (shardRepositories.isEmpty()) {
+            throw new IllegalArgumentException("shardRepositories cannot be empty");
+        }
+        this.orderIdGenerator = orderIdGenerator;
+        this.metrics = metrics;
+        this.levelUpdatePublisher = new MergingLevelUpdatePublisher(shardRepositories.size(), levelUpdateExecutor, MAX_PENDING_LEVEL_UPDATES);
+        this.shards = new ArrayList<>(shardRepositories.size());
+        var shardMetrics = new ShardMetrics(metrics);
+        for (var repository : shardRepositories) {
+            var shard = new SilverBarOrderServiceImpl(repository, levelUpdateExecutor, orderIdGenerator, shardMetrics);
+            shard.getLevelUpdates().subscribe(levelUpdatePublisher.sourceSubscriber(shards.size()));
+            shards.add(shard);
+        }
+        metrics.bindGauges(sumOf(shardMetrics.liveOrders), sumOf(shardMetrics.buyLevels), sumOf(shardMetrics.sellLevels));
+    }
+
+    private static LongSupplier sumOf(List<LongSupplier> shardGauges) {
+        return () -> {
+            long sum = 0;
+            for (var gauge : shardGauges) {
+                sum += gauge.getAsLong();
+            }
+            return sum;
+        };
+    }
+
+    @Override
+    public String registerOrder(SilverBarOrder order) {
+        var orderId = orderIdGenerator.nextOrderId();
+        return shardOf(orderId).registerOrder(order, () -> orderId);
+    }
+
+    /**
+     * Registers orders of every shard as a separate batch, ids are generated up front to find the shard and
+     * a shard assigns the ids generated for it to its orders which are not rejected.
+     */
+    @Override
+    public List<OrderRegistrationResult> registerOrders(Collection<SilverBarOrder> orders) {
+        validateNotNull(orders, "orders are not present");
+        var shardOrders = new ShardBatches<SilverBarOrder>(orders.size());
+        var shardOrderIds = new ShardBatches<String>(orders.size());
+        for (var order : orders) {
+            var orderId = orderIdGenerator.nextOrderId();
+            var shardIndex = shardIndexOf(orderId);
+            shardOrders.add(shardIndex, order);
+            shardOrderIds.add(shardIndex, orderId);
+        }
+        var results = new OrderRegistrationResult[orders.size()];
+        for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+            if (shardOrders.isEmpty(shardIndex)) {
+                continue;
+            }
+            var orderIds = shardOrderIds.get(shardIndex).iterator();
+            var shardResults = shards.get(shardIndex).registerOrders(shardOrders.get(shardIndex), orderIds::next);
+            shardOrders.scatter(shardIndex, shardResults, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public boolean cancelRegisteredOrder(String orderId) {
+        validateNotNull(orderId, "orderId is not present");
+        return shardOf(orderId).cancelRegisteredOrder(orderId);
+    }
+
+    @Override
+    public List<Boolean> cancelRegisteredOrders(Collection<String> orderIds) {
+        validateNotNull(orderIds, "orderIds are not present");
+        orderIds.forEach(orderId -> validateNotNull(orderId, "orderId is not present"));
+        var shardOrderIds = new ShardBatches<String>(orderIds.size());
+        orderIds.forEach(orderId -> shardOrderIds.add(shardIndexOf(orderId), orderId));
+        var cancelled = new Boolean[orderIds.size()];
+        for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+            if (!shardOrderIds.isEmpty(shardIndex)) {
+                var shardCancelled = shards.get(shardIndex).cancelRegisteredOrders(shardOrderIds.get(shardIndex));
+                shardOrderIds.scatter(shardIndex, shardCancelled, cancelled);
+            }
+        }
+        return Arrays.asList(cancelled);
+    }
+
+    @Override
+    public List<String> cancelUserOrders(String userId) {
+        validateNotNull(userId, "userId is not present");
+        var cancelledOrderIds = new ArrayList<String>();
+        shards.forEach(shard -> cancelledOrderIds.addAll(shard.cancelUserOrders(userId)));
+        return cancelledOrderIds;
+    }
+
+    @Override
+    public List<String> expireOrders(Instant now) {
+        validateNotNull(now, "now is not present");
+        var expiredOrderIds = new ArrayList<String>();
+        shards.forEach(shard -> expiredOrderIds.addAll(shard.expireOrders(now)));
+        return expiredOrderIds;
+    }
+
+    @Override
+    public List<SilverBarOrder> getUserOrders(String userId) {
+        validateNotNull(userId, "userId is not present");
+        var userOrders = new ArrayList<SilverBarOrder>();
+        shards.forEach(shard -> userOrders.addAll(shard.getUserOrders(userId)));
+        return List.copyOf(userOrders);
+    }
+
+    @Override
+    public LiveOrderSummary getUserLiveOrderSummary(String userId) {
+        validateNotNull(userId, "userId is not present");
+        return mergeSummaries(shard -> shard.getUserLiveOrderSummary(userId));
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary() {
+        var startTime = metrics.startTime();
+        var summary = mergeSummaries(SilverBarOrderServiceImpl::getLiveOrderSummary);
+        metrics.summaryServed(startTime);
+        return summary;
+    }
+
+    /**
+     * The first depth levels of the merged book are made up of the first depth levels of the shards only.
+     */
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth cannot be negative");
+        }
+        var startTime = metrics.startTime();
+        var summary = mergeSummaries(shard -> shard.getLiveOrderSummary(depth));
+        var limitedSummary = LiveOrderSummary.builder()
+                .buyOrders(limit(summary.getBuyOrders(), depth))
+                .sellOrders(limit(summary.getSellOrders(), depth))
+                .build();
+        metrics.summaryServed(startTime);
+        return limitedSummary;
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(BigDecimal minPrice, BigDecimal maxPrice) {
+        validateNotNull(minPrice, "minPrice is not present");
+        validateNotNull(maxPrice, "maxPrice is not present");
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        var startTime = metrics.startTime();
+        var summary = mergeSummaries(shard -> shard.getLiveOrderSummary(minPrice, maxPrice));
+        metrics.summaryServed(startTime);
+        return summary;
+    }
+
+    @Override
+    public LiveOrderLevelSummary getLiveOrderLevelSummary() {
+        var startTime = metrics.startTime();
+        var buyLevels = new ArrayList<List<LiveOrderLevel>>(shards.size());
+        var sellLevels = new ArrayList<List<LiveOrderLevel>>(shards.size());
+        for (var shard : shards) {
+            var levelSummary = shard.getLiveOrderLevelSummary();
+            buyLevels.add(levelSummary.getBuyLevels());
+            sellLevels.add(levelSummary.getSellLevels());
+        }
+        var levelSummary = LiveOrderLevelSummary.builder()
+                .buyLevels(mergeLevels(buyLevels, LiveOrderLevel::getThousandGramsPrice, BUY_PRICE_ORDER, ShardedSilverBarOrderService::mergeLevel))
+                .sellLevels(mergeLevels(sellLevels, LiveOrderLevel::getThousandGramsPrice, SELL_PRICE_ORDER, ShardedSilverBarOrderService::mergeLevel))
+                .build();
+        metrics.summaryServed(startTime);
+        return levelSummary;
+    }
+
+    @Override
+    public List<SilverBarOrder> getLevelOrders(OrderType orderType, BigDecimal thousandGramsPrice) {
+        validateNotNull(orderType, "orderType is not present");
+        validateNotNull(thousandGramsPrice, "thousandGramsPrice is not present");
+        var levelOrders = new ArrayList<SilverBarOrder>();
+        shards.forEach(shard -> levelOrders.addAll(shard.getLevelOrders(orderType, thousandGramsPrice)));
+        return List.copyOf(levelOrders);
+    }
+
+    @Override
+    public Flow.Publisher<LevelUpdate> getLevelUpdates() {
+        return levelUpdatePublisher;
+    }
+
+    private SilverBarOrderServiceImpl shardOf(String orderId) {
+        return shards.get(shardIndexOf(orderId));
+    }
+
+    private int shardIndexOf(String orderId) {
+        var hash = orderId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    private LiveOrderSummary mergeSummaries(Function<SilverBarOrderServiceImpl, LiveOrderSummary> shardSummary) {
+        var buyRecords = new ArrayList<List<LiveOrderSummaryRecord>>(shards.size());
+        var sellRecords = new ArrayList<List<LiveOrderSummaryRecord>>(shards.size());
+        for (var shard : shards) {
+            var summary = shardSummary.apply(shard);
+            buyRecords.add(summary.getBuyOrders());
+            sellRecords.add(summary.getSellOrders());
+        }
+        return LiveOrderSummary.builder()
+                .buyOrders(mergeLevels(buyRecords, LiveOrderSummaryRecord::getThousandGramsPrice, BUY_PRICE_ORDER, ShardedSilverBarOrderService::mergeRecord))
+                .sellOrders(mergeLevels(sellRecords, LiveOrderSummaryRecord::getThousandGramsPrice, SELL_PRICE_ORDER, ShardedSilverBarOrderService::mergeRecord))
+                .build();
+    }
+
+    /**
+     * K-way merge of levels sorted by price in every shard, levels of equal price in several shards are merged
+     * into one, listed in shard order.
+     */
+    private static <T> List<T> mergeLevels(List<List<T>> shardLevels, Function<T, BigDecimal> price, Comparator<BigDecimal> priceOrder,
+                                           Function<List<T>, T> mergeLevel) {
+        if (shardLevels.size() == 1) {
+            return shardLevels.get(0);
+        }
+        var heads = new PriorityQueue<ShardCursor<T>>(shardLevels.size(),
+                Comparator.<ShardCursor<T>, BigDecimal>comparing(cursor -> price.apply(cursor.head()), priceOrder)
+                        .thenComparingInt(cursor -> cursor.shardIndex));
+        var levelCount = 0;
+        for (int shardIndex = 0; shardIndex < shardLevels.size(); shardIndex++) {
+            var levels = shardLevels.get(shardIndex);
+            levelCount += levels.size();
+            if (!levels.isEmpty()) {
+                heads.add(new ShardCursor<>(shardIndex, levels));
+            }
+        }
+        var mergedLevels = new ArrayList<T>(levelCount);
+        var samePriceLevels = new ArrayList<T>(shardLevels.size());
+        while (!heads.isEmpty()) {
+            var levelPrice = price.apply(heads.peek().head());
+            while (!heads.isEmpty() && price.apply(heads.peek().head()).compareTo(levelPrice) == 0) {
+                var cursor = heads.poll();
+                samePriceLevels.add(cursor.head());
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+            mergedLevels.add(samePriceLevels.size() == 1 ? samePriceLevels.get(0) : mergeLevel.apply(samePriceLevels));
+            samePriceLevels.clear();
+        }
+        return List.copyOf(mergedLevels);
+    }
+
+    private static LiveOrderSummaryRecord mergeRecord(List<LiveOrderSummaryRecord> records) {
+        var components = new ArrayList<SilverBarOrder>();
+        records.forEach(record -> components.addAll(record.getComponents()));
+        return LiveOrderSummaryRecord.builder()
+                .thousandGramsPrice(records.get(0).getThousandGramsPrice())
+                .weightInGrams(sum(records, LiveOrderSummaryRecord::getWeightInGrams))
+                .components(List.copyOf(components))
+                .build();
+    }
+
+    private static LiveOrderLevel mergeLevel(List<LiveOrderLevel> levels) {
+        return LiveOrderLevel.builder()
+                .thousandGramsPrice(levels.get(0).getThousandGramsPrice())
+                .weightInGrams(sum(levels, LiveOrderLevel::getWeightInGrams))
+                .orderCount(sum(levels, LiveOrderLevel::getOrderCount))
+                .build();
+    }
+
+    private static <T> int sum(List<T> levels, ToIntFunction<T> value) {
+        var sum = 0;
+        for (var level : levels) {
+            sum += value.applyAsInt(level);
+        }
+        return sum;
+    }
+
+    private static <T> List<T> limit(List<T> levels, int depth) {
+        return levels.size() <= depth ? levels : levels.subList(0, depth);
+    }
+
+    private void validateNotNull(Object fieldValue, String validationMessage) {
+        if (fieldValue == null) {
+            throw new IllegalArgumentException(validationMessage);
+        }
+    }
+
+    private static class ShardCursor<T> {
+
+        private final int shardIndex;
+        private final List<T> levels;
+        private int position;
+
+        ShardCursor(int shardIndex, List<T> levels) {
+            this.shardIndex = shardIndex;
+            this.levels = levels;
+        }
+
+        T head() {
+            return levels.get(position);
+        }
+
+        boolean advance() {
+            return ++position < levels.size();
+        }
+    }
+
+    /**
+     * Records changes of orders in every shard in the service's metrics, collecting gauges of the shards to be
+     * summed up. Summaries are recorded by the service once merged, not once per shard.
+     */
+    private static class ShardMetrics implements OrderServiceMetrics {
+
+        private final OrderServiceMetrics metrics;
+        private final List<LongSupplier> liveOrders = new ArrayList<>();
+        private final List<LongSupplier> buyLevels = new ArrayList<>();
+        private final List<LongSupplier> sellLevels = new ArrayList<>();
+
+        ShardMetrics(OrderServiceMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public long startTime() {
+            return metrics.startTime();
+        }
+
+        @Override
+        public void orderRegistered(long startTime) {
+            metrics.orderRegistered(startTime);
+        }
+
+        @Override
+        public void ordersRegistered(long startTime, int count) {
+            metrics.ordersRegistered(startTime, count);
+        }
+
+        @Override
+        public void orderRejected() {
+            metrics.orderRejected();
+        }
+
+        @Override
+        public void orderCancelled(long startTime, boolean known) {
+            metrics.orderCancelled(startTime, known);
+        }
+
+        @Override
+        public void ordersCancelled(long startTime, int cancelledCount, int unknownCount) {
+            metrics.ordersCancelled(startTime, cancelledCount, unknownCount);
+        }
+
+        @Override
+        public void bindGauges(LongSupplier liveOrders, LongSupplier buyLevels, LongSupplier sellLevels) {
+            this.liveOrders.add(liveOrders);
+            this.buyLevels.add(buyLevels);
+            this.sellLevels.add(sellLevels);
+        }
+    }
+
+    /**
+     * Elements of a batch grouped by shard, remembering their position in the batch.
+     */
+    private class ShardBatches<T> {
+
+        private final List<List<T>> elements = new ArrayList<>(shards.size());
+        private final List<List<Integer>> batchPositions = new ArrayList<>(shards.size());
+        private int batchSize;
+
+        ShardBatches(int expectedBatchSize) {
+            var expectedShardSize = expectedBatchSize / shards.size() + 1;
+            for (int shardIndex = 0; shardIndex < shards.size(); shardIndex++) {
+                elements.add(new ArrayList<>(expectedShardSize));
+                batchPositions.add(new ArrayList<>(expectedShardSize));
+            }
+        }
+
+        void add(int shardIndex, T element) {
+            elements.get(shardIndex).add(element);
+            batchPositions.get(shardIndex).add(batchSize++);
+        }
+
+        boolean isEmpty(int shardIndex) {
+            return elements.get(shardIndex).isEmpty();
+        }
+
+        List<T> get(int shardIndex) {
+            return elements.get(shardIndex);
+        }
+
+        /**
+         * Puts results of the shard's elements at positions of the elements in the batch.
+         */
+        <R> void scatter(int shardIndex, List<R> shardResults, R[] batchResults) {
+            var positions = batchPositions.get(shardIndex);
+            for (int i = 0; i < positions.size(); i++) {
+                batchResults[positions.get(i)] = shardResults.get(i);
+            }
+        }
+    }
+}
@@ -1,28 +1,127 @@
 package com.silverbars.liveorder.service;
 
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
 import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
+import com.silverbars.liveorder.service.domain.OrderType;
 import com.silverbars.liveorder.service.domain.SilverBarOrder;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Flow;
+
 public interface SilverBarOrderService {
 
     /**
      * Register new order
      *
-     * @param order an object representing the order to register, all fields except orderId are required.
-     * @return orderId
+     * @param order an object representing the order to register, all fields except orderId and expiresAt are required.
+     * @return orderId assigned to the registered order
      */
     String registerOrder(SilverBarOrder order);
 
+    /**
+     * Register a batch of new orders at once. Each order is validated on its own, valid orders are stored and
+     * appear in the summary together.
+     *
+     * @param orders required collection of orders to register, all fields of each except orderId and expiresAt are
+     * required.
+     * @return result for every order, in iteration order of the collection, holding its orderId or rejection reason
+     */
+    List<OrderRegistrationResult> registerOrders(Collection<SilverBarOrder> orders);
+
     /**
      * Cancel order with given orderId
      *
-     * @param orderId required parameter with order id, expected in UUID format.
+     * @param orderId required parameter with order id, as returned by registerOrder.
+     * @return true if the order has been cancelled, false if there is no live order with given orderId
+     */
+    boolean cancelRegisteredOrder(String orderId);
+
+    /**
+     * Cancel a batch of orders at once, cancelled orders disappear from the summary together.
+     *
+     * @param orderIds required collection of order ids, none of them can be null.
+     * @return for every orderId, in iteration order of the collection, whether its order has been cancelled
+     */
+    List<Boolean> cancelRegisteredOrders(Collection<String> orderIds);
+
+    /**
+     * Cancel all live orders of given user at once, eg. when the user disconnects.
+     *
+     * @param userId required id of the user
+     * @return ids of cancelled orders
+     */
+    List<String> cancelUserOrders(String userId);
+
+    /**
+     * Cancel all live orders expired at given time at once, eg. periodically with the current time.
+     * An order is never expired before its expiry time, but may be expired slightly after it.
+     *
+     * @param now required time to expire orders at
+     * @return ids of expired orders
      */
-    void cancelRegisteredOrder(String orderId);
+    List<String> expireOrders(Instant now);
+
+    /**
+     * Retrieve live orders of given user.
+     *
+     * @param userId required id of the user
+     * @return orders of the user, empty if there are none
+     */
+    List<SilverBarOrder> getUserOrders(String userId);
+
+    /**
+     * Retrieve live orders of given user grouped by orderType and sorted by price, as in the full summary.
+     * Orders of the same price level are listed in no particular order.
+     *
+     * @param userId required id of the user
+     * @return LiveOrderSummary aggregate object
+     */
+    LiveOrderSummary getUserLiveOrderSummary(String userId);
 
     /**
      * Retrieve all orders grouped by orderType and sorted by price.
      * @return LiveOrderSummary aggregate object
      */
     LiveOrderSummary getLiveOrderSummary();
+
+    /**
+     * Retrieve the first depth price levels of each orderType, in the same order as the full summary.
+     * @param depth maximum number of levels per orderType, cannot be negative
+     * @return LiveOrderSummary aggregate object
+     */
+    LiveOrderSummary getLiveOrderSummary(int depth);
+
+    /**
+     * Retrieve price levels of each orderType priced within given range, in the same order as the full summary.
+     * @param minPrice required lower bound of the price, inclusive
+     * @param maxPrice required upper bound of the price, inclusive
+     * @return LiveOrderSummary aggregate object
+     */
+    LiveOrderSummary getLiveOrderSummary(BigDecimal minPrice, BigDecimal maxPrice);
+
+    /**
+     * Retrieve aggregates of all price levels grouped by orderType and sorted by price, without orders making them up.
+     * @return LiveOrderLevelSummary aggregate object
+     */
+    LiveOrderLevelSummary getLiveOrderLevelSummary();
+
+    /**
+     * Retrieve orders making up a single price level.
+     * @param orderType required orderType of the level
+     * @param thousandGramsPrice required price of the level, compared ignoring scale
+     * @return orders in order of registration, empty if there is no such level
+     */
+    List<SilverBarOrder> getLevelOrders(OrderType orderType, BigDecimal thousandGramsPrice);
+
+    /**
+     * Stream of price level changes. Every subscriber first receives all live levels as ADDED updates, followed by
+     * changes made by register and cancel. Updates not yet delivered to a slow subscriber are conflated per level.
+     * @return publisher of LevelUpdate events
+     */
+    Flow.Publisher<LevelUpdate> getLevelUpdates();
 }
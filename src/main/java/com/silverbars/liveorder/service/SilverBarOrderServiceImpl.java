@@ -1,40 +1,195 @@
 package com.silverbars.liveorder.service;
 
+import com.silverbars.liveorder.service.book.LiveOrderBook;
+import com.silverbars.liveorder.service.book.LiveOrderSummaryBuilder;
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
 import com.silverbars.liveorder.service.domain.LiveOrderSummary;
-import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
 import com.silverbars.liveorder.service.domain.OrderType;
 import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.expiry.OrderExpiry;
+import com.silverbars.liveorder.service.feed.LevelUpdatePublisher;
+import com.silverbars.liveorder.service.id.OrderIdGenerator;
+import com.silverbars.liveorder.service.metrics.OrderServiceMetrics;
 import com.silverbars.liveorder.service.repository.SilverBarOrderRepository;
 
 import java.math.BigDecimal;
-import java.util.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 class SilverBarOrderServiceImpl implements SilverBarOrderService {
 
+    private static final int MAX_PENDING_LEVEL_UPDATES = 100_000;
+
     private SilverBarOrderRepository repository;
+    private LevelUpdatePublisher levelUpdatePublisher;
+    private LiveOrderBook book;
+    private LiveOrderSummaryBuilder summaryBuilder;
+    private OrderExpiry orderExpiry;
+    private OrderIdGenerator orderIdGenerator;
+    private OrderServiceMetrics metrics;
 
     public SilverBarOrderServiceImpl(SilverBarOrderRepository repository) {
+        this(repository, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param levelUpdateExecutor delivers level updates to subscribers
+     */
+    public SilverBarOrderServiceImpl(SilverBarOrderRepository repository, Executor levelUpdateExecutor) {
+        this(repository, levelUpdateExecutor, OrderIdGenerator.RANDOM_UUID);
+    }
+
+    /**
+     * @param levelUpdateExecutor delivers level updates to subscribers
+     * @param orderIdGenerator assigns ids to registered orders
+     */
+    public SilverBarOrderServiceImpl(SilverBarOrderRepository repository, Executor levelUpdateExecutor, OrderIdGenerator orderIdGenerator) {
+        this(repository, levelUpdateExecutor, orderIdGenerator, OrderServiceMetrics.NOOP);
+    }
+
+    /**
+     * @param levelUpdateExecutor delivers level updates to subscribers
+     * @param orderIdGenerator assigns ids to registered orders
+     * @param metrics records operations of the service, {@link OrderServiceMetrics#NOOP} to run without metrics
+     */
+    public SilverBarOrderServiceImpl(SilverBarOrderRepository repository, Executor levelUpdateExecutor, OrderIdGenerator orderIdGenerator,
+                                     OrderServiceMetrics metrics) {
+        this(repository, levelUpdateExecutor, orderIdGenerator, metrics, LiveOrderSummaryBuilder.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Orders stored in the repository are grouped into price levels by {@link LiveOrderSummaryBuilder} and the book
+     * is seeded with the levels in a single change.
+     *
+     * @param levelUpdateExecutor delivers level updates to subscribers
+     * @param orderIdGenerator assigns ids to registered orders
+     * @param metrics records operations of the service, {@link OrderServiceMetrics#NOOP} to run without metrics
+     * @param summaryParallelThreshold smallest number of orders grouped into levels in parallel, when seeding the book
+     *                                 or building a summary of user orders
+     */
+    public SilverBarOrderServiceImpl(SilverBarOrderRepository repository, Executor levelUpdateExecutor, OrderIdGenerator orderIdGenerator,
+                                     OrderServiceMetrics metrics, int summaryParallelThreshold) {
         this.repository = repository;
+        this.orderIdGenerator = orderIdGenerator;
+        this.metrics = metrics;
+        this.levelUpdatePublisher = new LevelUpdatePublisher(() -> book.getLevelSnapshot(), levelUpdateExecutor, MAX_PENDING_LEVEL_UPDATES);
+        this.book = new LiveOrderBook(levelUpdatePublisher::publish);
+        this.summaryBuilder = new LiveOrderSummaryBuilder(summaryParallelThreshold, ForkJoinPool.commonPool());
+        this.orderExpiry = new OrderExpiry();
+        var storedOrders = repository.getAllOrders();
+        book.addLevels(summaryBuilder.build(storedOrders));
+        storedOrders.forEach(this::scheduleExpiry);
+        metrics.bindGauges(book::getOrderCount, () -> book.getLevelCount(OrderType.BUY), () -> book.getLevelCount(OrderType.SELL));
     }
 
     @Override
     public String registerOrder(SilverBarOrder order) {
-        validateNewOrder(order);
-        repository.saveOrder(generatePersistingObject(order));
-        return order.getOrderId();
+        return registerOrder(order, orderIdGenerator);
     }
 
-    private SilverBarOrder generatePersistingObject(SilverBarOrder order) {
-        var orderId = UUID.randomUUID().toString();
+    /**
+     * Registers the order under an id taken from given generator instead of the service's own one.
+     * <p>
+     * The order is saved before it is added to the book, so a cancel finding it in the repository in between
+     * removes nothing from the book. The order is looked up again once it is in the book and taken out of it
+     * if it has been cancelled meanwhile, the same for orders registered in a batch.
+     */
+    String registerOrder(SilverBarOrder order, OrderIdGenerator orderIdGenerator) {
+        var startTime = metrics.startTime();
+        try {
+            validateNewOrder(order);
+        } catch (IllegalArgumentException e) {
+            metrics.orderRejected();
+            throw e;
+        }
+        var persistingOrder = generatePersistingObject(order, orderIdGenerator);
+        repository.saveOrder(persistingOrder);
+        book.addOrder(persistingOrder);
+        scheduleExpiry(persistingOrder);
+        if (!repository.containsOrder(persistingOrder.getOrderId())) {
+            book.removeOrder(persistingOrder.getOrderId());
+            cancelExpiry(persistingOrder);
+        }
+        metrics.orderRegistered(startTime);
+        return persistingOrder.getOrderId();
+    }
+
+    @Override
+    public List<OrderRegistrationResult> registerOrders(Collection<SilverBarOrder> orders) {
+        return registerOrders(orders, orderIdGenerator);
+    }
+
+    /**
+     * Registers the orders under ids taken from given generator, only for orders which are not rejected.
+     */
+    List<OrderRegistrationResult> registerOrders(Collection<SilverBarOrder> orders, OrderIdGenerator orderIdGenerator) {
+        validateNotNull(orders, "orders are not present");
+        var startTime = metrics.startTime();
+        var results = new ArrayList<OrderRegistrationResult>(orders.size());
+        var persistingOrders = new ArrayList<SilverBarOrder>(orders.size());
+        for (var order : orders) {
+            try {
+                validateNotNull(order, "order is not present");
+                validateNewOrder(order);
+            } catch (IllegalArgumentException e) {
+                metrics.orderRejected();
+                results.add(OrderRegistrationResult.builder().rejectionReason(e.getMessage()).build());
+                continue;
+            }
+            var persistingOrder = generatePersistingObject(order, orderIdGenerator);
+            persistingOrders.add(persistingOrder);
+            results.add(OrderRegistrationResult.builder().orderId(persistingOrder.getOrderId()).build());
+        }
+        repository.saveOrders(persistingOrders);
+        book.addOrders(persistingOrders);
+        persistingOrders.forEach(this::scheduleExpiry);
+        var cancelledOrders = persistingOrders.stream()
+                .filter(order -> !repository.containsOrder(order.getOrderId()))
+                .collect(Collectors.toList());
+        if (!cancelledOrders.isEmpty()) {
+            book.removeOrders(cancelledOrders.stream()
+                    .map(SilverBarOrder::getOrderId)
+                    .collect(Collectors.toList()));
+            cancelledOrders.forEach(this::cancelExpiry);
+        }
+        metrics.ordersRegistered(startTime, persistingOrders.size());
+        return results;
+    }
+
+    private static SilverBarOrder generatePersistingObject(SilverBarOrder order, OrderIdGenerator orderIdGenerator) {
         return SilverBarOrder.builder()
-                .orderId(orderId)
+                .orderId(orderIdGenerator.nextOrderId())
+                .userId(order.getUserId())
                 .orderType(order.getOrderType())
                 .thousandGramsPrice(order.getThousandGramsPrice())
                 .weightInGrams(order.getWeightInGrams())
+                .expiresAt(order.getExpiresAt())
                 .build();
     }
 
+    private void scheduleExpiry(SilverBarOrder order) {
+        if (order.getExpiresAt() != null) {
+            orderExpiry.schedule(order.getOrderId(), order.getExpiresAt());
+        }
+    }
+
+    /**
+     * Touches the expiry index, which is guarded by a single lock, only for orders which have been scheduled.
+     */
+    private void cancelExpiry(SilverBarOrder order) {
+        if (order.getExpiresAt() != null) {
+            orderExpiry.cancel(order.getOrderId());
+        }
+    }
+
     private void validateNewOrder(SilverBarOrder order) {
         if (order.getOrderId() != null) {
             throw new IllegalArgumentException("orderId cannot be present for the new record");
@@ -42,6 +197,7 @@ class SilverBarOrderServiceImpl implements SilverBarOrderService {
         validateNotNull(order.getUserId(), "userId is not present");
         validateNotNull(order.getOrderType(), "orderType is not present");
         validateNotNull(order.getThousandGramsPrice(), "thousandGramsPrice is not present");
+        repository.validateOrder(order);
     }
 
     private void validateNotNull(Object fieldValue, String validationMessage) {
@@ -51,67 +207,132 @@ class SilverBarOrderServiceImpl implements SilverBarOrderService {
     }
 
     @Override
-    public void cancelRegisteredOrder(String orderId) {
-        repository.cancelOrder(orderId);
+    public boolean cancelRegisteredOrder(String orderId) {
+        validateNotNull(orderId, "orderId is not present");
+        var startTime = metrics.startTime();
+        var cancelled = repository.cancelOrder(orderId);
+        book.removeOrder(orderId).ifPresent(this::cancelExpiry);
+        metrics.orderCancelled(startTime, cancelled);
+        return cancelled;
     }
 
     @Override
-    public LiveOrderSummary getLiveOrderSummary() {
-        Map<OrderType, List<SilverBarOrder>> ordersByOrderType = repository.getAllOrders().stream()
-                .collect(Collectors.groupingBy(SilverBarOrder::getOrderType));
+    public List<Boolean> cancelRegisteredOrders(Collection<String> orderIds) {
+        validateNotNull(orderIds, "orderIds are not present");
+        orderIds.forEach(orderId -> validateNotNull(orderId, "orderId is not present"));
+        var startTime = metrics.startTime();
+        var cancelled = repository.cancelOrders(orderIds);
+        book.removeOrders(orderIds).forEach(this::cancelExpiry);
+        var cancelledCount = (int) cancelled.stream().filter(Boolean::booleanValue).count();
+        metrics.ordersCancelled(startTime, cancelledCount, cancelled.size() - cancelledCount);
+        return cancelled;
+    }
 
-        return LiveOrderSummary.builder()
-                .buyOrders(getBuyRecords(ordersByOrderType))
-                .sellOrders(getSellRecords(ordersByOrderType)).build();
+    @Override
+    public List<String> cancelUserOrders(String userId) {
+        validateNotNull(userId, "userId is not present");
+        var startTime = metrics.startTime();
+        var orderIds = repository.findUserOrders(userId).stream()
+                .map(SilverBarOrder::getOrderId)
+                .collect(Collectors.toList());
+        var cancelledOrderIds = cancelOrders(orderIds);
+        metrics.ordersCancelled(startTime, cancelledOrderIds.size(), orderIds.size() - cancelledOrderIds.size());
+        return cancelledOrderIds;
     }
 
-    private List<LiveOrderSummaryRecord> getSellRecords(Map<OrderType, List<SilverBarOrder>> ordersByOrderType) {
-        var sellOrders = processOrderGroup(ordersByOrderType.getOrDefault(OrderType.SELL, Collections.emptyList()));
-        sellOrders.sort(Comparator.comparing(LiveOrderSummaryRecord::getThousandGramsPrice).reversed());
-        return sellOrders;
+    /**
+     * Expires orders through the same batch cancel as cancelUserOrders. Orders cancelled concurrently with
+     * their expiry are left out of the result, they are not reported as unknown to the metrics either.
+     */
+    @Override
+    public List<String> expireOrders(Instant now) {
+        validateNotNull(now, "now is not present");
+        var startTime = metrics.startTime();
+        var orderIds = orderExpiry.expire(now);
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        var expiredOrderIds = cancelOrders(orderIds);
+        metrics.ordersCancelled(startTime, expiredOrderIds.size(), 0);
+        return expiredOrderIds;
     }
 
-    private List<LiveOrderSummaryRecord> getBuyRecords(Map<OrderType, List<SilverBarOrder>> byOrderType) {
-        var buyOrders = processOrderGroup(byOrderType.getOrDefault(OrderType.BUY, Collections.emptyList()));
-        buyOrders.sort(Comparator.comparing(LiveOrderSummaryRecord::getThousandGramsPrice));
-        return buyOrders;
+    /**
+     * @return ids of orders which have been live
+     */
+    private List<String> cancelOrders(List<String> orderIds) {
+        var cancelled = repository.cancelOrders(orderIds);
+        book.removeOrders(orderIds).forEach(this::cancelExpiry);
+        var cancelledOrderIds = new ArrayList<String>(orderIds.size());
+        for (int i = 0; i < orderIds.size(); i++) {
+            if (cancelled.get(i)) {
+                cancelledOrderIds.add(orderIds.get(i));
+            }
+        }
+        return cancelledOrderIds;
     }
 
-    private List<LiveOrderSummaryRecord> processOrderGroup(List<SilverBarOrder> orderGroup) {
-        return orderGroup.stream()
-                .reduce(new HashMap<>(), this::addToSameValueBucketIgnoringScale, this::sameMapCombiner)
-                .entrySet()
-                .stream()
-                .map(this::toOrderSummaryRecord)
-                .collect(Collectors.toList());
+    @Override
+    public List<SilverBarOrder> getUserOrders(String userId) {
+        validateNotNull(userId, "userId is not present");
+        return List.copyOf(repository.findUserOrders(userId));
     }
 
-    private HashMap<BigDecimal, List<SilverBarOrder>> addToSameValueBucketIgnoringScale(HashMap<BigDecimal, List<SilverBarOrder>> ordersByPrice, SilverBarOrder order) {
-        var samePriceIgnoringScale = ordersByPrice.keySet().stream()
-                .filter(existingPrice -> existingPrice.compareTo(order.getThousandGramsPrice()) == 0)
-                .findFirst()
-                .orElse(order.getThousandGramsPrice());
-        ordersByPrice.computeIfAbsent(samePriceIgnoringScale, price -> new ArrayList<>())
-                .add(order);
-        return ordersByPrice;
+    @Override
+    public LiveOrderSummary getUserLiveOrderSummary(String userId) {
+        validateNotNull(userId, "userId is not present");
+        return summaryBuilder.build(repository.findUserOrders(userId));
     }
 
-    private HashMap<BigDecimal, List<SilverBarOrder>> sameMapCombiner(HashMap<BigDecimal, List<SilverBarOrder>> m1, HashMap<BigDecimal, List<SilverBarOrder>> m2) {
-        return m1;
+    @Override
+    public LiveOrderSummary getLiveOrderSummary() {
+        var startTime = metrics.startTime();
+        var summary = book.getLiveOrderSummary();
+        metrics.summaryServed(startTime);
+        return summary;
     }
 
-    private LiveOrderSummaryRecord toOrderSummaryRecord(Map.Entry<BigDecimal, List<SilverBarOrder>> ordersByPrice) {
-        return LiveOrderSummaryRecord.builder()
-                .components(ordersByPrice.getValue())
-                .thousandGramsPrice(ordersByPrice.getKey())
-                .weightInGrams(sumWeightInGrams(ordersByPrice.getValue()))
-                .build();
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth cannot be negative");
+        }
+        var startTime = metrics.startTime();
+        var summary = book.getLiveOrderSummary(depth);
+        metrics.summaryServed(startTime);
+        return summary;
     }
 
-    private int sumWeightInGrams(List<SilverBarOrder> orders) {
-        return orders.stream()
-                .map(SilverBarOrder::getWeightInGrams)
-                .reduce(Integer::sum)
-                .orElse(0);
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(BigDecimal minPrice, BigDecimal maxPrice) {
+        validateNotNull(minPrice, "minPrice is not present");
+        validateNotNull(maxPrice, "maxPrice is not present");
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        var startTime = metrics.startTime();
+        var summary = book.getLiveOrderSummary(minPrice, maxPrice);
+        metrics.summaryServed(startTime);
+        return summary;
+    }
+
+    @Override
+    public LiveOrderLevelSummary getLiveOrderLevelSummary() {
+        var startTime = metrics.startTime();
+        var levelSummary = book.getLiveOrderLevelSummary();
+        metrics.summaryServed(startTime);
+        return levelSummary;
+    }
+
+    @Override
+    public List<SilverBarOrder> getLevelOrders(OrderType orderType, BigDecimal thousandGramsPrice) {
+        validateNotNull(orderType, "orderType is not present");
+        validateNotNull(thousandGramsPrice, "thousandGramsPrice is not present");
+        return book.getLevelOrders(orderType, thousandGramsPrice);
+    }
+
+    @Override
+    public Flow.Publisher<LevelUpdate> getLevelUpdates() {
+        return levelUpdatePublisher;
     }
 }
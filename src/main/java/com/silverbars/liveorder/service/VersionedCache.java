@@ -0,0 +1,96 @@
+package com.silverbars.liveorder.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Value computed for a version of its source and reused until the version changes.
+ * Callers asking for the same version at once share a single computation: one of them computes while the others
+ * wait for its result. With a positive maxStaleness a value is additionally reused for that long after the version
+ * changed, bounding how often the value is recomputed under constant changes.
+ */
+class VersionedCache<T> {
+
+    private final Supplier<T> loader;
+    private final LongSupplier currentVersion;
+    private final long maxStalenessNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicReference<Entry<T>> entry = new AtomicReference<>();
+
+    VersionedCache(Supplier<T> loader, LongSupplier currentVersion, long maxStalenessNanos) {
+        this(loader, currentVersion, maxStalenessNanos, System::nanoTime);
+    }
+
+    VersionedCache(Supplier<T> loader, LongSupplier currentVersion, long maxStalenessNanos, LongSupplier nanoTime) {
+        this.loader = loader;
+        this.currentVersion = currentVersion;
+        this.maxStalenessNanos = maxStalenessNanos;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @return value computed no earlier than the version current at the time of the call was reached,
+     * or, within maxStaleness, a value computed for an earlier version
+     */
+    T get() {
+        var version = currentVersion.getAsLong();
+        while (true) {
+            var cached = entry.get();
+            if (cached != null && isUsable(cached, version)) {
+                return cached.join();
+            }
+            var loading = new Entry<T>(version, nanoTime.getAsLong());
+            if (entry.compareAndSet(cached, loading)) {
+                return load(loading, cached);
+            }
+        }
+    }
+
+    private boolean isUsable(Entry<T> cached, long version) {
+        if (cached.version >= version) {
+            return true;
+        }
+        return maxStalenessNanos > 0
+                && cached.value.isDone()
+                && !cached.value.isCompletedExceptionally()
+                && nanoTime.getAsLong() - cached.loadedAtNanos < maxStalenessNanos;
+    }
+
+    private T load(Entry<T> loading, Entry<T> previous) {
+        try {
+            var value = loader.get();
+            loading.value.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loading.value.completeExceptionally(e);
+            entry.compareAndSet(loading, previous);
+            throw e;
+        }
+    }
+
+    private static class Entry<T> {
+
+        private final long version;
+        private final long loadedAtNanos;
+        private final CompletableFuture<T> value = new CompletableFuture<>();
+
+        private Entry(long version, long loadedAtNanos) {
+            this.version = version;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+
+        private T join() {
+            try {
+                return value.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.LiveOrderLevel;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Price levels of one order type. Levels are found by normalized price key in constant time,
+ * the sorted view is only touched when a level appears or disappears.
+ * Changes of a level are serialized on its key, so writers of different price levels do not contend.
+ * Every change is reported to the listener as a {@link LevelUpdate} while the level is still held.
+ * An order marked removed before its level is held is not added, so a removal overtaking the addition of
+ * the same order cannot leave it in the level.
+ */
+class BookSide {
+
+    private final OrderType orderType;
+    private final ConcurrentHashMap<BigDecimal, PriceLevel> levelsByPrice = new ConcurrentHashMap<>();
+    private final Comparator<BigDecimal> priceOrder;
+    private final NavigableMap<BigDecimal, PriceLevel> sortedLevels;
+    private final AtomicLong updateSequence;
+    private final Consumer<LevelUpdate> levelUpdateListener;
+
+    BookSide(OrderType orderType, Comparator<BigDecimal> priceOrder, AtomicLong updateSequence, Consumer<LevelUpdate> levelUpdateListener) {
+        this.orderType = orderType;
+        this.priceOrder = priceOrder;
+        this.sortedLevels = new ConcurrentSkipListMap<>(priceOrder);
+        this.updateSequence = updateSequence;
+        this.levelUpdateListener = levelUpdateListener;
+    }
+
+    void addOrder(RestingOrder restingOrder) {
+        var price = restingOrder.getOrder().getThousandGramsPrice();
+        levelsByPrice.compute(priceKey(price), (priceKey, level) -> {
+            if (restingOrder.isRemoved()) {
+                return level;
+            }
+            var updateType = level == null ? LevelUpdateType.ADDED : LevelUpdateType.CHANGED;
+            if (level == null) {
+                level = new PriceLevel(price);
+                sortedLevels.put(priceKey, level);
+            }
+            level.addOrder(restingOrder);
+            publishUpdate(level, updateType);
+            return level;
+        });
+    }
+
+    void removeOrder(RestingOrder restingOrder) {
+        var price = restingOrder.getOrder().getThousandGramsPrice();
+        levelsByPrice.computeIfPresent(priceKey(price), (priceKey, level) -> {
+            if (!level.removeOrder(restingOrder)) {
+                return level;
+            }
+            if (level.isEmpty()) {
+                sortedLevels.remove(priceKey);
+                publishUpdate(level, LevelUpdateType.REMOVED);
+                return null;
+            }
+            publishUpdate(level, LevelUpdateType.CHANGED);
+            return level;
+        });
+    }
+
+    /**
+     * Applies changes level by level, holding each touched level once and publishing at most one update for it.
+     * Orders are added before removals, so an order both added and removed within the changes does not stay.
+     */
+    void applyChanges(Changes changes) {
+        changes.byPriceKey.forEach((levelKey, levelChanges) ->
+                levelsByPrice.compute(levelKey, (priceKey, level) -> {
+                    var isNewLevel = level == null;
+                    if (isNewLevel) {
+                        level = new PriceLevel(levelChanges.price);
+                    }
+                    var levelChanged = false;
+                    for (var restingOrder : levelChanges.added) {
+                        if (!restingOrder.isRemoved()) {
+                            level.addOrder(restingOrder);
+                            levelChanged = true;
+                        }
+                    }
+                    for (var restingOrder : levelChanges.removed) {
+                        levelChanged |= level.removeOrder(restingOrder);
+                    }
+                    if (!levelChanged) {
+                        return isNewLevel ? null : level;
+                    }
+                    if (level.isEmpty()) {
+                        if (!isNewLevel) {
+                            sortedLevels.remove(priceKey);
+                            publishUpdate(level, LevelUpdateType.REMOVED);
+                        }
+                        return null;
+                    }
+                    if (isNewLevel) {
+                        sortedLevels.put(priceKey, level);
+                    }
+                    publishUpdate(level, isNewLevel ? LevelUpdateType.ADDED : LevelUpdateType.CHANGED);
+                    return level;
+                }));
+    }
+
+    private void publishUpdate(PriceLevel level, LevelUpdateType updateType) {
+        level.setLastSequence(updateSequence.incrementAndGet());
+        levelUpdateListener.accept(level.toLevelUpdate(updateType, orderType));
+    }
+
+    List<LiveOrderSummaryRecord> toSummaryRecords() {
+        return toSummaryRecords(sortedLevels);
+    }
+
+    List<LiveOrderSummaryRecord> toSummaryRecords(int depth) {
+        return sortedLevels.values().stream()
+                .limit(depth)
+                .map(PriceLevel::toSummaryRecord)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    List<LiveOrderSummaryRecord> toSummaryRecords(BigDecimal minPrice, BigDecimal maxPrice) {
+        var minPriceKey = priceKey(minPrice);
+        var maxPriceKey = priceKey(maxPrice);
+        var levelsInRange = priceOrder.compare(minPriceKey, maxPriceKey) <= 0
+                ? sortedLevels.subMap(minPriceKey, true, maxPriceKey, true)
+                : sortedLevels.subMap(maxPriceKey, true, minPriceKey, true);
+        return toSummaryRecords(levelsInRange);
+    }
+
+    private List<LiveOrderSummaryRecord> toSummaryRecords(NavigableMap<BigDecimal, PriceLevel> levels) {
+        return levels.values().stream()
+                .map(PriceLevel::toSummaryRecord)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    List<LiveOrderLevel> toLiveOrderLevels() {
+        return sortedLevels.values().stream()
+                .map(PriceLevel::toLiveOrderLevel)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    List<SilverBarOrder> getLevelOrders(BigDecimal thousandGramsPrice) {
+        var level = levelsByPrice.get(priceKey(thousandGramsPrice));
+        return level == null ? List.of() : level.getOrders();
+    }
+
+    int getLevelCount() {
+        return levelsByPrice.size();
+    }
+
+    List<LevelUpdate> toLevelUpdates() {
+        return sortedLevels.values().stream()
+                .map(level -> level.toLevelUpdate(LevelUpdateType.ADDED, orderType))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Orders added to and removed from levels of one side, grouped by level.
+     */
+    static class Changes {
+
+        private final Map<BigDecimal, LevelChanges> byPriceKey = new LinkedHashMap<>();
+
+        void added(RestingOrder restingOrder) {
+            levelChangesOf(restingOrder).added.add(restingOrder);
+        }
+
+        void removed(RestingOrder restingOrder) {
+            levelChangesOf(restingOrder).removed.add(restingOrder);
+        }
+
+        /**
+         * Adds orders all priced the same, finding their level once.
+         */
+        void addedToLevel(BigDecimal price, List<RestingOrder> restingOrders) {
+            byPriceKey.computeIfAbsent(priceKey(price), priceKey -> new LevelChanges(price)).added.addAll(restingOrders);
+        }
+
+        private LevelChanges levelChangesOf(RestingOrder restingOrder) {
+            var price = restingOrder.getOrder().getThousandGramsPrice();
+            return byPriceKey.computeIfAbsent(priceKey(price), priceKey -> new LevelChanges(price));
+        }
+    }
+
+    private static class LevelChanges {
+
+        private final BigDecimal price;
+        private final List<RestingOrder> added = new ArrayList<>();
+        private final List<RestingOrder> removed = new ArrayList<>();
+
+        private LevelChanges(BigDecimal price) {
+            this.price = price;
+        }
+    }
+
+    /**
+     * Canonical form of the price, equal and with the same hash code for prices differing only in scale (eg. 10.0
+     * and 10.00).
+     */
+    static BigDecimal priceKey(BigDecimal thousandGramsPrice) {
+        return thousandGramsPrice.stripTrailingZeros();
+    }
+}
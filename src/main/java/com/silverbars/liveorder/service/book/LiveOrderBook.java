@@ -0,0 +1,227 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Price level book maintained incrementally on every order change, so that summary only walks already sorted levels.
+ * BUY levels are kept in ascending and SELL levels in descending price order.
+ * <p>
+ * The book is safe for concurrent use: writers of different price levels proceed in parallel
+ * and summary always reflects a consistent state of the whole book. An order removed between being indexed by
+ * orderId and reaching its level is marked removed first, so the level never takes it in.
+ */
+public class LiveOrderBook {
+
+    private final Map<String, RestingOrder> ordersById = new ConcurrentHashMap<>();
+    private final AtomicLong arrivalSequence = new AtomicLong();
+    private final AtomicLong updateSequence = new AtomicLong();
+    private final BookSide buySide;
+    private final BookSide sellSide;
+    private final SnapshotGuard snapshotGuard = new SnapshotGuard();
+
+    public LiveOrderBook() {
+        this(levelUpdate -> {
+        });
+    }
+
+    /**
+     * @param levelUpdateListener notified about every change of a price level, it must not block
+     */
+    public LiveOrderBook(Consumer<LevelUpdate> levelUpdateListener) {
+        this.buySide = new BookSide(OrderType.BUY, Comparator.naturalOrder(), updateSequence, levelUpdateListener);
+        this.sellSide = new BookSide(OrderType.SELL, Comparator.reverseOrder(), updateSequence, levelUpdateListener);
+    }
+
+    public void addOrder(SilverBarOrder order) {
+        var restingOrder = new RestingOrder(order, arrivalSequence.incrementAndGet());
+        snapshotGuard.write(() -> {
+            var replacedOrder = ordersById.put(order.getOrderId(), restingOrder);
+            if (replacedOrder != null) {
+                replacedOrder.markRemoved();
+                sideOf(replacedOrder).removeOrder(replacedOrder);
+            }
+            sideOf(restingOrder).addOrder(restingOrder);
+        });
+    }
+
+    public Optional<SilverBarOrder> removeOrder(String orderId) {
+        RestingOrder removedOrder = snapshotGuard.write(() -> {
+            var restingOrder = ordersById.remove(orderId);
+            if (restingOrder != null) {
+                restingOrder.markRemoved();
+                sideOf(restingOrder).removeOrder(restingOrder);
+            }
+            return restingOrder;
+        });
+        return Optional.ofNullable(removedOrder).map(RestingOrder::getOrder);
+    }
+
+    /**
+     * Adds all orders as a single change: readers see either none or all of them and every touched level
+     * is updated and reported once.
+     */
+    public void addOrders(Collection<SilverBarOrder> orders) {
+        var restingOrders = new ArrayList<RestingOrder>(orders.size());
+        for (var order : orders) {
+            restingOrders.add(new RestingOrder(order, arrivalSequence.incrementAndGet()));
+        }
+        snapshotGuard.write(() -> {
+            var buyChanges = new BookSide.Changes();
+            var sellChanges = new BookSide.Changes();
+            for (var restingOrder : restingOrders) {
+                var replacedOrder = ordersById.put(restingOrder.getOrder().getOrderId(), restingOrder);
+                if (replacedOrder != null) {
+                    replacedOrder.markRemoved();
+                    changesOf(replacedOrder, buyChanges, sellChanges).removed(replacedOrder);
+                }
+                changesOf(restingOrder, buyChanges, sellChanges).added(restingOrder);
+            }
+            buySide.applyChanges(buyChanges);
+            sellSide.applyChanges(sellChanges);
+        });
+    }
+
+    /**
+     * Adds orders of a summary built out of orders, eg. by {@link LiveOrderSummaryBuilder}, as a single change like
+     * {@link #addOrders(Collection)}, taking over their grouping into levels instead of grouping them again.
+     * Orders of a level arrive in the order of the level's components.
+     */
+    public void addLevels(LiveOrderSummary summary) {
+        snapshotGuard.write(() -> {
+            var buyChanges = new BookSide.Changes();
+            var sellChanges = new BookSide.Changes();
+            for (var record : summary.getBuyOrders()) {
+                addLevel(record, buyChanges, buyChanges, sellChanges);
+            }
+            for (var record : summary.getSellOrders()) {
+                addLevel(record, sellChanges, buyChanges, sellChanges);
+            }
+            buySide.applyChanges(buyChanges);
+            sellSide.applyChanges(sellChanges);
+        });
+    }
+
+    private void addLevel(LiveOrderSummaryRecord record, BookSide.Changes levelChanges, BookSide.Changes buyChanges,
+                          BookSide.Changes sellChanges) {
+        var restingOrders = new ArrayList<RestingOrder>(record.getComponents().size());
+        for (var order : record.getComponents()) {
+            var restingOrder = new RestingOrder(order, arrivalSequence.incrementAndGet());
+            var replacedOrder = ordersById.put(order.getOrderId(), restingOrder);
+            if (replacedOrder != null) {
+                replacedOrder.markRemoved();
+                changesOf(replacedOrder, buyChanges, sellChanges).removed(replacedOrder);
+            }
+            restingOrders.add(restingOrder);
+        }
+        levelChanges.addedToLevel(record.getThousandGramsPrice(), restingOrders);
+    }
+
+    /**
+     * Removes all orders as a single change: readers see either none or all of them removed and every touched level
+     * is updated and reported once.
+     *
+     * @return removed orders, unknown orderIds are skipped
+     */
+    public List<SilverBarOrder> removeOrders(Collection<String> orderIds) {
+        return snapshotGuard.write(() -> {
+            var buyChanges = new BookSide.Changes();
+            var sellChanges = new BookSide.Changes();
+            var removedOrders = new ArrayList<SilverBarOrder>();
+            for (var orderId : orderIds) {
+                var restingOrder = ordersById.remove(orderId);
+                if (restingOrder != null) {
+                    restingOrder.markRemoved();
+                    changesOf(restingOrder, buyChanges, sellChanges).removed(restingOrder);
+                    removedOrders.add(restingOrder.getOrder());
+                }
+            }
+            buySide.applyChanges(buyChanges);
+            sellSide.applyChanges(sellChanges);
+            return removedOrders;
+        });
+    }
+
+    public LiveOrderSummary getLiveOrderSummary() {
+        return snapshotGuard.read(() -> LiveOrderSummary.builder()
+                .buyOrders(buySide.toSummaryRecords())
+                .sellOrders(sellSide.toSummaryRecords())
+                .build());
+    }
+
+    /**
+     * @return summary of at most depth first levels of each side
+     */
+    public LiveOrderSummary getLiveOrderSummary(int depth) {
+        return snapshotGuard.read(() -> LiveOrderSummary.builder()
+                .buyOrders(buySide.toSummaryRecords(depth))
+                .sellOrders(sellSide.toSummaryRecords(depth))
+                .build());
+    }
+
+    /**
+     * @return summary of levels priced from minPrice to maxPrice inclusive
+     */
+    public LiveOrderSummary getLiveOrderSummary(BigDecimal minPrice, BigDecimal maxPrice) {
+        return snapshotGuard.read(() -> LiveOrderSummary.builder()
+                .buyOrders(buySide.toSummaryRecords(minPrice, maxPrice))
+                .sellOrders(sellSide.toSummaryRecords(minPrice, maxPrice))
+                .build());
+    }
+
+    /**
+     * @return aggregates of every live price level without orders making them up
+     */
+    public LiveOrderLevelSummary getLiveOrderLevelSummary() {
+        return snapshotGuard.read(() -> LiveOrderLevelSummary.builder()
+                .buyLevels(buySide.toLiveOrderLevels())
+                .sellLevels(sellSide.toLiveOrderLevels())
+                .build());
+    }
+
+    /**
+     * @return orders making up the level in order of arrival, empty if there is no such live level
+     */
+    public List<SilverBarOrder> getLevelOrders(OrderType orderType, BigDecimal thousandGramsPrice) {
+        var side = orderType == OrderType.BUY ? buySide : sellSide;
+        return side.getLevelOrders(thousandGramsPrice);
+    }
+
+    public int getOrderCount() {
+        return ordersById.size();
+    }
+
+    public int getLevelCount(OrderType orderType) {
+        var side = orderType == OrderType.BUY ? buySide : sellSide;
+        return side.getLevelCount();
+    }
+
+    /**
+     * @return every live price level as ADDED update carrying the sequence of the level's last change
+     */
+    public List<LevelUpdate> getLevelSnapshot() {
+        return snapshotGuard.read(() -> {
+            var levelUpdates = new ArrayList<>(buySide.toLevelUpdates());
+            levelUpdates.addAll(sellSide.toLevelUpdates());
+            return levelUpdates;
+        });
+    }
+
+    private BookSide sideOf(RestingOrder restingOrder) {
+        return restingOrder.getOrder().getOrderType() == OrderType.BUY ? buySide : sellSide;
+    }
+
+    private static BookSide.Changes changesOf(RestingOrder restingOrder, BookSide.Changes buyChanges, BookSide.Changes sellChanges) {
+        return restingOrder.getOrder().getOrderType() == OrderType.BUY ? buyChanges : sellChanges;
+    }
+}
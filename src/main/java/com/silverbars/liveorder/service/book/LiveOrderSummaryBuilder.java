@@ -0,0 +1,188 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds a summary from scratch out of a collection of orders without maintaining a book, eg. to group orders
+ * recovered from the repository into levels the book is seeded with, see {@link LiveOrderBook#addLevels}. The
+ * summary equals the one of a book the orders were added to in iteration order: levels sorted as in the book,
+ * orders of a level in iteration order.
+ * <p>
+ * Collections of at least parallelThreshold orders are aggregated on a fork-join pool: partitions of the orders
+ * are aggregated into price levels of each side separately and merged pairwise, keeping orders of the earlier
+ * partition first, then both sides are sorted in parallel.
+ */
+public class LiveOrderSummaryBuilder {
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 50_000;
+
+    private static final int MIN_PARTITION_SIZE = 4_096;
+    private static final Comparator<BigDecimal> BUY_PRICE_ORDER = Comparator.naturalOrder();
+    private static final Comparator<BigDecimal> SELL_PRICE_ORDER = Comparator.reverseOrder();
+
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public LiveOrderSummaryBuilder() {
+        this(DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param parallelThreshold smallest number of orders aggregated in parallel, {@link Integer#MAX_VALUE} to
+     *                          always aggregate on the calling thread
+     * @param pool runs the parallel aggregation
+     */
+    public LiveOrderSummaryBuilder(int parallelThreshold, ForkJoinPool pool) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("parallelThreshold cannot be negative");
+        }
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
+
+    public LiveOrderSummary build(Collection<SilverBarOrder> orders) {
+        var orderList = orders instanceof List && orders instanceof RandomAccess ? (List<SilverBarOrder>) orders : new ArrayList<>(orders);
+        if (orderList.size() < parallelThreshold || orderList.size() < 2) {
+            var levels = new SideLevels();
+            levels.addAll(orderList, 0, orderList.size());
+            return LiveOrderSummary.builder()
+                    .buyOrders(toSummaryRecords(levels.buyLevels, BUY_PRICE_ORDER))
+                    .sellOrders(toSummaryRecords(levels.sellLevels, SELL_PRICE_ORDER))
+                    .build();
+        }
+        var partitionSize = Math.max(MIN_PARTITION_SIZE, orderList.size() / (pool.getParallelism() * 4));
+        return pool.invoke(new BuildTask(orderList, partitionSize));
+    }
+
+    private static List<LiveOrderSummaryRecord> toSummaryRecords(Map<BigDecimal, Level> levels, Comparator<BigDecimal> priceOrder) {
+        var sortedLevels = new ArrayList<>(levels.entrySet());
+        sortedLevels.sort(Map.Entry.comparingByKey(priceOrder));
+        var records = new ArrayList<LiveOrderSummaryRecord>(sortedLevels.size());
+        for (var level : sortedLevels) {
+            records.add(level.getValue().toSummaryRecord());
+        }
+        return List.copyOf(records);
+    }
+
+    private static class BuildTask extends RecursiveTask<LiveOrderSummary> {
+
+        private final List<SilverBarOrder> orders;
+        private final int partitionSize;
+
+        BuildTask(List<SilverBarOrder> orders, int partitionSize) {
+            this.orders = orders;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected LiveOrderSummary compute() {
+            var levels = new AggregateTask(orders, 0, orders.size(), partitionSize).invoke();
+            var buyOrders = ForkJoinTask.adapt(() -> toSummaryRecords(levels.buyLevels, BUY_PRICE_ORDER)).fork();
+            var sellOrders = toSummaryRecords(levels.sellLevels, SELL_PRICE_ORDER);
+            return LiveOrderSummary.builder()
+                    .buyOrders(buyOrders.join())
+                    .sellOrders(sellOrders)
+                    .build();
+        }
+    }
+
+    private static class AggregateTask extends RecursiveTask<SideLevels> {
+
+        private final List<SilverBarOrder> orders;
+        private final int from;
+        private final int to;
+        private final int partitionSize;
+
+        AggregateTask(List<SilverBarOrder> orders, int from, int to, int partitionSize) {
+            this.orders = orders;
+            this.from = from;
+            this.to = to;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected SideLevels compute() {
+            if (to - from <= partitionSize) {
+                var levels = new SideLevels();
+                levels.addAll(orders, from, to);
+                return levels;
+            }
+            var middle = (from + to) >>> 1;
+            var laterPartition = new AggregateTask(orders, middle, to, partitionSize).fork();
+            var levels = new AggregateTask(orders, from, middle, partitionSize).compute();
+            levels.append(laterPartition.join());
+            return levels;
+        }
+    }
+
+    /**
+     * Price levels of both sides by normalized price key.
+     */
+    private static class SideLevels {
+
+        private final Map<BigDecimal, Level> buyLevels = new HashMap<>();
+        private final Map<BigDecimal, Level> sellLevels = new HashMap<>();
+
+        void addAll(List<SilverBarOrder> orders, int from, int to) {
+            for (int i = from; i < to; i++) {
+                var order = orders.get(i);
+                var levels = order.getOrderType() == OrderType.BUY ? buyLevels : sellLevels;
+                levels.computeIfAbsent(BookSide.priceKey(order.getThousandGramsPrice()), priceKey -> new Level(order.getThousandGramsPrice()))
+                        .add(order);
+            }
+        }
+
+        /**
+         * Merges levels of orders which come after the orders of these levels.
+         */
+        void append(SideLevels laterLevels) {
+            laterLevels.buyLevels.forEach((priceKey, level) -> buyLevels.merge(priceKey, level, Level::append));
+            laterLevels.sellLevels.forEach((priceKey, level) -> sellLevels.merge(priceKey, level, Level::append));
+        }
+    }
+
+    private static class Level {
+
+        private final BigDecimal thousandGramsPrice;
+        private final List<SilverBarOrder> orders = new ArrayList<>();
+        private int weightInGrams;
+
+        Level(BigDecimal thousandGramsPrice) {
+            this.thousandGramsPrice = thousandGramsPrice;
+        }
+
+        void add(SilverBarOrder order) {
+            orders.add(order);
+            weightInGrams += order.getWeightInGrams();
+        }
+
+        Level append(Level laterLevel) {
+            orders.addAll(laterLevel.orders);
+            weightInGrams += laterLevel.weightInGrams;
+            return this;
+        }
+
+        LiveOrderSummaryRecord toSummaryRecord() {
+            return LiveOrderSummaryRecord.builder()
+                    .components(List.copyOf(orders))
+                    .thousandGramsPrice(thousandGramsPrice)
+                    .weightInGrams(weightInGrams)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.LiveOrderLevel;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Aggregated orders of a single price. Mutated only by the owning {@link BookSide} while holding the level's key,
+ * while readers may walk it concurrently.
+ */
+class PriceLevel {
+
+    private final BigDecimal thousandGramsPrice;
+    private final NavigableMap<Long, SilverBarOrder> ordersByArrival = new ConcurrentSkipListMap<>();
+    private volatile int weightInGrams;
+    private volatile int orderCount;
+    private volatile long lastSequence;
+
+    PriceLevel(BigDecimal thousandGramsPrice) {
+        this.thousandGramsPrice = thousandGramsPrice;
+    }
+
+    void addOrder(RestingOrder restingOrder) {
+        ordersByArrival.put(restingOrder.getArrivalSequence(), restingOrder.getOrder());
+        weightInGrams += restingOrder.getOrder().getWeightInGrams();
+        orderCount++;
+    }
+
+    /**
+     * @return false if the order is not in the level
+     */
+    boolean removeOrder(RestingOrder restingOrder) {
+        if (ordersByArrival.remove(restingOrder.getArrivalSequence()) == null) {
+            return false;
+        }
+        weightInGrams -= restingOrder.getOrder().getWeightInGrams();
+        orderCount--;
+        return true;
+    }
+
+    void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    boolean isEmpty() {
+        return ordersByArrival.isEmpty();
+    }
+
+    LiveOrderSummaryRecord toSummaryRecord() {
+        return LiveOrderSummaryRecord.builder()
+                .components(getOrders())
+                .thousandGramsPrice(thousandGramsPrice)
+                .weightInGrams(weightInGrams)
+                .build();
+    }
+
+    LiveOrderLevel toLiveOrderLevel() {
+        return LiveOrderLevel.builder()
+                .thousandGramsPrice(thousandGramsPrice)
+                .weightInGrams(weightInGrams)
+                .orderCount(orderCount)
+                .build();
+    }
+
+    List<SilverBarOrder> getOrders() {
+        return List.copyOf(ordersByArrival.values());
+    }
+
+    LevelUpdate toLevelUpdate(LevelUpdateType updateType, OrderType orderType) {
+        return LevelUpdate.builder()
+                .sequence(lastSequence)
+                .updateType(updateType)
+                .orderType(orderType)
+                .thousandGramsPrice(thousandGramsPrice)
+                .weightInGrams(updateType == LevelUpdateType.REMOVED ? 0 : weightInGrams)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+/**
+ * Order held by the book together with its arrival sequence, which orders components within a price level.
+ * Once taken out of the book the order is marked removed, so that a level it has not reached yet never takes it in.
+ */
+class RestingOrder {
+
+    private final SilverBarOrder order;
+    private final long arrivalSequence;
+    private volatile boolean removed;
+
+    RestingOrder(SilverBarOrder order, long arrivalSequence) {
+        this.order = order;
+        this.arrivalSequence = arrivalSequence;
+    }
+
+    SilverBarOrder getOrder() {
+        return order;
+    }
+
+    long getArrivalSequence() {
+        return arrivalSequence;
+    }
+
+    void markRemoved() {
+        removed = true;
+    }
+
+    boolean isRemoved() {
+        return removed;
+    }
+}
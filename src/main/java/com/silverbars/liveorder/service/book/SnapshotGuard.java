@@ -0,0 +1,59 @@
+package com.silverbars.liveorder.service.book;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Lets readers take a consistent view of a structure changed concurrently by many writers without blocking them.
+ * A read is retried until no write started or was in progress while it ran. Only a reader which keeps losing
+ * that race falls back to briefly excluding writers, so that it cannot starve under constant write load.
+ */
+class SnapshotGuard {
+
+    private static final int OPTIMISTIC_READ_ATTEMPTS = 16;
+
+    private final AtomicLong startedWrites = new AtomicLong();
+    private final AtomicLong finishedWrites = new AtomicLong();
+    private final ReadWriteLock writersExclusion = new ReentrantReadWriteLock();
+
+    void write(Runnable mutation) {
+        write(() -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    <T> T write(Supplier<T> mutation) {
+        var writeSection = writersExclusion.readLock();
+        writeSection.lock();
+        startedWrites.incrementAndGet();
+        try {
+            return mutation.get();
+        } finally {
+            finishedWrites.incrementAndGet();
+            writeSection.unlock();
+        }
+    }
+
+    <T> T read(Supplier<T> reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_READ_ATTEMPTS; attempt++) {
+            var finished = finishedWrites.get();
+            if (startedWrites.get() == finished) {
+                var result = reader.get();
+                if (startedWrites.get() == finished) {
+                    return result;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        var exclusiveRead = writersExclusion.writeLock();
+        exclusiveRead.lock();
+        try {
+            return reader.get();
+        } finally {
+            exclusiveRead.unlock();
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.silverbars.liveorder.service.codec;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.LiveOrderLevel;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary wire format of summaries, level summaries, level updates and orders, written straight into
+ * and read straight from a caller's buffer, which can be reused from message to message.
+ * <p>
+ * Every message starts with its type. Numbers are varints, signed ones zigzag encoded, prices are fixed-point:
+ * the scale followed by the unscaled value, a long unless it does not fit one. Orders of a summary record take
+ * its type and price unless they differ, so a record of orders of equal price costs little more than their ids.
+ * Strings are UTF-8 prefixed by their length plus one, zero standing for null.
+ * <p>
+ * Decoding a truncated message fails with {@link BufferUnderflowException} if it ends within a number or a byte
+ * such as the message type, and with {@link IllegalArgumentException} if it ends within a list or string, whose
+ * count or length then exceeds the remaining bytes.
+ */
+public class LiveOrderSummaryCodec {
+
+    private static final byte SUMMARY = 1;
+    private static final byte LEVEL_SUMMARY = 2;
+    private static final byte LEVEL_UPDATE = 3;
+    private static final byte ORDER = 4;
+
+    private static final int OWN_PRICE = 1;
+    private static final int EXPIRES = 2;
+    private static final int ORDER_TYPE_SHIFT = 2;
+    private static final int BIG_UNSCALED_PRICE = 1;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final LevelUpdateType[] LEVEL_UPDATE_TYPES = LevelUpdateType.values();
+
+    private LiveOrderSummaryCodec() {
+    }
+
+    /**
+     * Writes the summary at buffer position and advances it.
+     *
+     * @throws BufferOverflowException if the summary does not fit, the buffer position is left untouched
+     */
+    public static void encode(LiveOrderSummary summary, ByteBuffer buffer) {
+        var start = buffer.position();
+        try {
+            buffer.put(SUMMARY);
+            putRecords(buffer, summary.getBuyOrders(), OrderType.BUY);
+            putRecords(buffer, summary.getSellOrders(), OrderType.SELL);
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes only aggregates of the levels at buffer position and advances it.
+     *
+     * @throws BufferOverflowException if the level summary does not fit, the buffer position is left untouched
+     */
+    public static void encode(LiveOrderLevelSummary levelSummary, ByteBuffer buffer) {
+        var start = buffer.position();
+        try {
+            buffer.put(LEVEL_SUMMARY);
+            putLevels(buffer, levelSummary.getBuyLevels());
+            putLevels(buffer, levelSummary.getSellLevels());
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the level update at buffer position and advances it.
+     *
+     * @throws BufferOverflowException if the level update does not fit, the buffer position is left untouched
+     */
+    public static void encode(LevelUpdate levelUpdate, ByteBuffer buffer) {
+        var start = buffer.position();
+        try {
+            buffer.put(LEVEL_UPDATE);
+            putVarLong(buffer, levelUpdate.getSequence());
+            buffer.put((byte) (levelUpdate.getUpdateType().ordinal() << 2 | levelUpdate.getOrderType().ordinal()));
+            putPrice(buffer, levelUpdate.getThousandGramsPrice());
+            putVarInt(buffer, levelUpdate.getWeightInGrams());
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the order at buffer position and advances it.
+     *
+     * @throws BufferOverflowException if the order does not fit, the buffer position is left untouched
+     */
+    public static void encode(SilverBarOrder order, ByteBuffer buffer) {
+        var start = buffer.position();
+        try {
+            buffer.put(ORDER);
+            putOrder(buffer, order, null, null);
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the summary at buffer position and advances it past the summary.
+     *
+     * @throws BufferUnderflowException if the message is cut short within a number or a byte
+     * @throws IllegalArgumentException if there is another message or malformed data at buffer position, eg. a count
+     * or string length exceeding the remaining bytes of a message cut short within a list or string
+     */
+    public static LiveOrderSummary decodeSummary(ByteBuffer buffer) {
+        expectMessage(buffer, SUMMARY);
+        return LiveOrderSummary.builder()
+                .buyOrders(getRecords(buffer, OrderType.BUY))
+                .sellOrders(getRecords(buffer, OrderType.SELL))
+                .build();
+    }
+
+    /**
+     * Reads the level summary at buffer position and advances it past the level summary.
+     *
+     * @throws BufferUnderflowException if the message is cut short within a number or a byte
+     * @throws IllegalArgumentException if there is another message or malformed data at buffer position, eg. a count
+     * or string length exceeding the remaining bytes of a message cut short within a list or string
+     */
+    public static LiveOrderLevelSummary decodeLevelSummary(ByteBuffer buffer) {
+        expectMessage(buffer, LEVEL_SUMMARY);
+        return LiveOrderLevelSummary.builder()
+                .buyLevels(getLevels(buffer))
+                .sellLevels(getLevels(buffer))
+                .build();
+    }
+
+    /**
+     * Reads the level update at buffer position and advances it past the level update.
+     *
+     * @throws BufferUnderflowException if the message is cut short within a number or a byte
+     * @throws IllegalArgumentException if there is another message or malformed data at buffer position
+     */
+    public static LevelUpdate decodeLevelUpdate(ByteBuffer buffer) {
+        expectMessage(buffer, LEVEL_UPDATE);
+        var sequence = getVarLong(buffer);
+        var types = buffer.get();
+        return LevelUpdate.builder()
+                .sequence(sequence)
+                .updateType(enumOf(LEVEL_UPDATE_TYPES, types >> 2))
+                .orderType(enumOf(ORDER_TYPES, types & 3))
+                .thousandGramsPrice(getPrice(buffer))
+                .weightInGrams(getVarInt(buffer))
+                .build();
+    }
+
+    /**
+     * Reads the order at buffer position and advances it past the order.
+     *
+     * @throws BufferUnderflowException if the message is cut short within a number or a byte
+     * @throws IllegalArgumentException if there is another message or malformed data at buffer position, eg. a count
+     * or string length exceeding the remaining bytes of a message cut short within a list or string
+     */
+    public static SilverBarOrder decodeOrder(ByteBuffer buffer) {
+        expectMessage(buffer, ORDER);
+        return getOrder(buffer, null, null);
+    }
+
+    private static void putRecords(ByteBuffer buffer, List<LiveOrderSummaryRecord> records, OrderType orderType) {
+        putCount(buffer, records.size());
+        for (var record : records) {
+            putPrice(buffer, record.getThousandGramsPrice());
+            putVarInt(buffer, record.getWeightInGrams());
+            putCount(buffer, record.getComponents().size());
+            for (var order : record.getComponents()) {
+                putOrder(buffer, order, orderType, record.getThousandGramsPrice());
+            }
+        }
+    }
+
+    private static List<LiveOrderSummaryRecord> getRecords(ByteBuffer buffer, OrderType orderType) {
+        var recordCount = getCount(buffer);
+        var records = new ArrayList<LiveOrderSummaryRecord>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            var price = getPrice(buffer);
+            var weightInGrams = getVarInt(buffer);
+            var components = new SilverBarOrder[getCount(buffer)];
+            for (int j = 0; j < components.length; j++) {
+                components[j] = getOrder(buffer, orderType, price);
+            }
+            records.add(LiveOrderSummaryRecord.builder()
+                    .thousandGramsPrice(price)
+                    .weightInGrams(weightInGrams)
+                    .components(List.of(components))
+                    .build());
+        }
+        return List.copyOf(records);
+    }
+
+    private static void putLevels(ByteBuffer buffer, List<LiveOrderLevel> levels) {
+        putCount(buffer, levels.size());
+        for (var level : levels) {
+            putPrice(buffer, level.getThousandGramsPrice());
+            putVarInt(buffer, level.getWeightInGrams());
+            putVarInt(buffer, level.getOrderCount());
+        }
+    }
+
+    private static List<LiveOrderLevel> getLevels(ByteBuffer buffer) {
+        var levels = new LiveOrderLevel[getCount(buffer)];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = LiveOrderLevel.builder()
+                    .thousandGramsPrice(getPrice(buffer))
+                    .weightInGrams(getVarInt(buffer))
+                    .orderCount(getVarInt(buffer))
+                    .build();
+        }
+        return List.of(levels);
+    }
+
+    /**
+     * Flags of the order tell whether it has a price of its own, whether it expires and its type, zero standing
+     * for null, an order of the record's type and price carries neither. Expiry time follows as epoch seconds
+     * and nanoseconds.
+     */
+    private static void putOrder(ByteBuffer buffer, SilverBarOrder order, OrderType recordOrderType, BigDecimal recordPrice) {
+        var price = order.getThousandGramsPrice();
+        var ownPrice = recordPrice == null || !recordPrice.equals(price);
+        var orderType = order.getOrderType();
+        var orderTypeCode = orderType == recordOrderType ? 0 : orderType == null ? ORDER_TYPES.length + 1 : orderType.ordinal() + 1;
+        var expiresAt = order.getExpiresAt();
+        buffer.put((byte) (orderTypeCode << ORDER_TYPE_SHIFT | (ownPrice ? OWN_PRICE : 0) | (expiresAt != null ? EXPIRES : 0)));
+        putString(buffer, order.getOrderId());
+        putString(buffer, order.getUserId());
+        putVarInt(buffer, order.getWeightInGrams());
+        if (ownPrice) {
+            putNullablePrice(buffer, price);
+        }
+        if (expiresAt != null) {
+            putVarLong(buffer, zigzag(expiresAt.getEpochSecond()));
+            putVarInt(buffer, expiresAt.getNano());
+        }
+    }
+
+    private static SilverBarOrder getOrder(ByteBuffer buffer, OrderType recordOrderType, BigDecimal recordPrice) {
+        var flags = buffer.get();
+        var orderTypeCode = flags >> ORDER_TYPE_SHIFT;
+        var orderType = orderTypeCode == 0 ? recordOrderType : orderTypeCode == ORDER_TYPES.length + 1 ? null : enumOf(ORDER_TYPES, orderTypeCode - 1);
+        var orderId = getString(buffer);
+        var userId = getString(buffer);
+        var weightInGrams = getVarInt(buffer);
+        var price = (flags & OWN_PRICE) != 0 ? getNullablePrice(buffer) : recordPrice;
+        return SilverBarOrder.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .orderType(orderType)
+                .thousandGramsPrice(price)
+                .weightInGrams(weightInGrams)
+                .expiresAt((flags & EXPIRES) != 0 ? Instant.ofEpochSecond(unzigzag(getVarLong(buffer)), getVarInt(buffer)) : null)
+                .build();
+    }
+
+    private static void putNullablePrice(ByteBuffer buffer, BigDecimal price) {
+        buffer.put((byte) (price == null ? 0 : 1));
+        if (price != null) {
+            putPrice(buffer, price);
+        }
+    }
+
+    private static BigDecimal getNullablePrice(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : getPrice(buffer);
+    }
+
+    private static void putPrice(ByteBuffer buffer, BigDecimal price) {
+        var unscaledPrice = price.unscaledValue();
+        var bigUnscaledPrice = unscaledPrice.bitLength() >= Long.SIZE;
+        putVarLong(buffer, zigzag(price.scale()) << 1 | (bigUnscaledPrice ? BIG_UNSCALED_PRICE : 0));
+        if (bigUnscaledPrice) {
+            var unscaledBytes = unscaledPrice.toByteArray();
+            putCount(buffer, unscaledBytes.length);
+            buffer.put(unscaledBytes);
+        } else {
+            putVarLong(buffer, zigzag(unscaledPrice.longValue()));
+        }
+    }
+
+    private static BigDecimal getPrice(ByteBuffer buffer) {
+        var header = getVarLong(buffer);
+        var scale = Math.toIntExact(unzigzag(header >>> 1));
+        if ((header & BIG_UNSCALED_PRICE) != 0) {
+            var unscaledBytes = new byte[getCount(buffer)];
+            buffer.get(unscaledBytes);
+            return new BigDecimal(new BigInteger(unscaledBytes), scale);
+        }
+        return BigDecimal.valueOf(unzigzag(getVarLong(buffer)), scale);
+    }
+
+    /**
+     * Writes UTF-8 of the string without an intermediate byte array, unpaired surrogates as '?' like
+     * {@link String#getBytes}.
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            putVarLong(buffer, 0);
+            return;
+        }
+        var length = value.length();
+        var utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (isSurrogatePair(value, i)) {
+                utf8Length += 4;
+                i++;
+            } else {
+                utf8Length += c < 0x80 || Character.isSurrogate(c) ? 1 : c < 0x800 ? 2 : 3;
+            }
+        }
+        putVarLong(buffer, utf8Length + 1L);
+        for (int i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (isSurrogatePair(value, i)) {
+                var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        var lengthPlusOne = getVarLong(buffer);
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        var length = checkedCount(buffer, lengthPlusOne - 1);
+        if (buffer.hasArray()) {
+            var value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        var utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void expectMessage(ByteBuffer buffer, byte messageType) {
+        if (!buffer.hasRemaining()) {
+            throw new BufferUnderflowException();
+        }
+        var actualMessageType = buffer.get(buffer.position());
+        if (actualMessageType != messageType) {
+            throw new IllegalArgumentException("Expected message type " + messageType + " but was " + actualMessageType);
+        }
+        buffer.get();
+    }
+
+    private static void putCount(ByteBuffer buffer, int count) {
+        putVarLong(buffer, count);
+    }
+
+    private static int getCount(ByteBuffer buffer) {
+        return checkedCount(buffer, getVarLong(buffer));
+    }
+
+    /**
+     * Every counted element takes at least one byte, so a larger count than remaining bytes is malformed.
+     */
+    private static int checkedCount(ByteBuffer buffer, long count) {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed count " + count + " with " + buffer.remaining() + " bytes remaining");
+        }
+        return (int) count;
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        putVarLong(buffer, zigzag(value));
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        return Math.toIntExact(unzigzag(getVarLong(buffer)));
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        var value = 0L;
+        for (int shift = 0; shift < MAX_VARINT_BYTES * 7; shift += 7) {
+            var b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint longer than " + MAX_VARINT_BYTES + " bytes");
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static <E> E enumOf(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Malformed enum ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
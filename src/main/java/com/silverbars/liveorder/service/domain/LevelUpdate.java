@@ -0,0 +1,27 @@
+package com.silverbars.liveorder.service.domain;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Change of a single price level. ADDED and CHANGED carry the new aggregated weight of the level, REMOVED means
+ * the level has no live orders anymore. Sequence grows with every change of the book, so an update with sequence
+ * not greater than the one already applied to the level is stale and should be skipped.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+public class LevelUpdate implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long sequence;
+    private LevelUpdateType updateType;
+    private OrderType orderType;
+    private BigDecimal thousandGramsPrice;
+    private int weightInGrams;
+}
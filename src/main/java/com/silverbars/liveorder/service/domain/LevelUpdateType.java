@@ -0,0 +1,8 @@
+package com.silverbars.liveorder.service.domain;
+
+public enum LevelUpdateType {
+
+    ADDED,
+    CHANGED,
+    REMOVED
+}
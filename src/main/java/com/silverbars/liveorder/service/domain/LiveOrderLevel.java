@@ -0,0 +1,20 @@
+package com.silverbars.liveorder.service.domain;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+public class LiveOrderLevel implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private BigDecimal thousandGramsPrice;
+    private int weightInGrams;
+    private int orderCount;
+}
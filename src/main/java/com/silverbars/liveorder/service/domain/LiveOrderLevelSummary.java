@@ -0,0 +1,19 @@
+package com.silverbars.liveorder.service.domain;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+public class LiveOrderLevelSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<LiveOrderLevel> buyLevels;
+    private List<LiveOrderLevel> sellLevels;
+}
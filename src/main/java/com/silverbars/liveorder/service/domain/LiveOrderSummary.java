@@ -4,12 +4,16 @@ import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+import java.io.Serializable;
 import java.util.List;
 
 @Getter
 @Builder
 @EqualsAndHashCode
-public class LiveOrderSummary {
+public class LiveOrderSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private List<LiveOrderSummaryRecord> buyOrders;
     private List<LiveOrderSummaryRecord> sellOrders;
 }
@@ -4,13 +4,16 @@ import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.List;
 
 @Getter
 @Builder
 @EqualsAndHashCode
-public class LiveOrderSummaryRecord {
+public class LiveOrderSummaryRecord implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private BigDecimal thousandGramsPrice;
     private int weightInGrams;
@@ -0,0 +1,21 @@
+package com.silverbars.liveorder.service.domain;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Outcome of registering a single order of a batch: either the generated orderId or the reason of rejection.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+public class OrderRegistrationResult {
+
+    private String orderId;
+    private String rejectionReason;
+
+    public boolean isRegistered() {
+        return orderId != null;
+    }
+}
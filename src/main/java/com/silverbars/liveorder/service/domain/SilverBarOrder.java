@@ -4,16 +4,24 @@ import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Getter
 @Builder
 @EqualsAndHashCode
-public class SilverBarOrder {
+public class SilverBarOrder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String orderId;
     private String userId;
     private OrderType orderType;
     private BigDecimal thousandGramsPrice;
     private int weightInGrams;
+    /**
+     * Optional time from which the order is no longer live, an order without it lives until cancelled.
+     */
+    private Instant expiresAt;
 }
@@ -0,0 +1,41 @@
+package com.silverbars.liveorder.service.engine;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sleeps on a condition until a producer signals it, using no CPU while idle at the cost of a lock taken
+ * by every producer.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition commandPublished = lock.newCondition();
+
+    @Override
+    public void waitFor(BooleanSupplier commandsAvailable) throws InterruptedException {
+        if (commandsAvailable.getAsBoolean()) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (!commandsAvailable.getAsBoolean()) {
+                commandPublished.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void commandPublished() {
+        lock.lock();
+        try {
+            commandPublished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
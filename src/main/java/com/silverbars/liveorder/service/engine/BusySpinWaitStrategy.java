@@ -0,0 +1,16 @@
+package com.silverbars.liveorder.service.engine;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Lowest latency, but burns a whole core while the engine is idle.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void waitFor(BooleanSupplier commandsAvailable) {
+        while (!commandsAvailable.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.silverbars.liveorder.service.engine;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * Producers claim a sequence by CAS, fill its slot and publish it by storing the sequence into the slot's marker,
+ * so the consumer takes only slots whose filling is complete and in sequence order.
+ */
+public class MpscRing<E> {
+
+    private final Object[] slots;
+    private final AtomicLongArray publishedSequences;
+    private final int mask;
+    private final AtomicLong claimedSequence = new AtomicLong();
+    private volatile long consumedSequence;
+
+    /**
+     * @param capacity number of slots, a power of two
+     */
+    public MpscRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two");
+        }
+        this.slots = new Object[capacity];
+        this.publishedSequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int slot = 0; slot < capacity; slot++) {
+            publishedSequences.set(slot, -1);
+        }
+    }
+
+    /**
+     * @return false if the ring is full
+     */
+    public boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = claimedSequence.get();
+            if (sequence - consumedSequence >= slots.length) {
+                return false;
+            }
+        } while (!claimedSequence.compareAndSet(sequence, sequence + 1));
+        var slot = (int) sequence & mask;
+        slots[slot] = element;
+        publishedSequences.setRelease(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Moves published elements, at most maxElements, to the list. Called by the consumer only.
+     *
+     * @return number of moved elements
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<? super E> elements, int maxElements) {
+        var sequence = consumedSequence;
+        var drained = 0;
+        while (drained < maxElements && publishedSequences.getAcquire((int) sequence & mask) == sequence) {
+            var slot = (int) sequence & mask;
+            elements.add((E) slots[slot]);
+            slots[slot] = null;
+            sequence++;
+            drained++;
+        }
+        consumedSequence = sequence;
+        return drained;
+    }
+
+    /**
+     * Called by the consumer only.
+     */
+    public boolean hasPublished() {
+        var sequence = consumedSequence;
+        return publishedSequences.getAcquire((int) sequence & mask) == sequence;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
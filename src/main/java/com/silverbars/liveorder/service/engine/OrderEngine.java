@@ -0,0 +1,388 @@
+package com.silverbars.liveorder.service.engine;
+
+import com.silverbars.liveorder.service.SilverBarOrderService;
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Engine mode of the order service: every change is submitted as a command to a bounded {@link MpscRing} and
+ * applied to the decorated service by a single writer thread, in the order of submission. Reads go straight to
+ * the decorated service.
+ * <p>
+ * The writer takes all commands waiting in the ring at once and applies consecutive registrations and consecutive
+ * cancels through the batch operations of the decorated service, so the busier the engine gets the larger batches
+ * it applies. Callers get a future completed once their command has been applied; the blocking methods of
+ * {@link SilverBarOrderService} wait for it.
+ * <p>
+ * Futures are completed on the writer thread, so their dependent stages run there unless added as async ones.
+ * Commands submitted from the writer thread bypass the ring, which might be full, and are applied right after
+ * the commands being applied. Blocking methods called on the writer thread cannot wait for it, so they apply their
+ * change to the decorated service right away.
+ */
+public class OrderEngine implements SilverBarOrderService, Closeable {
+
+    private static final long RING_FULL_PARK_NANOS = 1_000;
+
+    private final SilverBarOrderService delegate;
+    private final MpscRing<Command<?>> ring;
+    private final WaitStrategy waitStrategy;
+    private final RingFullPolicy ringFullPolicy;
+    private final Thread writer;
+    private final AtomicInteger activeSubmitters = new AtomicInteger();
+    private final List<Command<?>> writerSubmittedCommands = new ArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * @param ringCapacity maximum number of commands waiting for the writer, a power of two
+     */
+    public OrderEngine(SilverBarOrderService delegate, int ringCapacity, WaitStrategy waitStrategy, RingFullPolicy ringFullPolicy) {
+        this.delegate = delegate;
+        this.ring = new MpscRing<>(ringCapacity);
+        this.waitStrategy = waitStrategy;
+        this.ringFullPolicy = ringFullPolicy;
+        this.writer = new Thread(this::applyCommands, "order-engine-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<String> submitRegisterOrder(SilverBarOrder order) {
+        return submit(new RegisterCommand(order));
+    }
+
+    public CompletableFuture<Boolean> submitCancelRegisteredOrder(String orderId) {
+        if (orderId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("orderId is not present"));
+        }
+        return submit(new CancelCommand(orderId));
+    }
+
+    /**
+     * Applies any change to the decorated service on the writer thread, ordered with the other commands.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> change) {
+        return submit(new ChangeCommand<>(change));
+    }
+
+    private <T> CompletableFuture<T> submit(Command<T> command) {
+        if (Thread.currentThread() == writer) {
+            if (closed) {
+                rejectClosed(command);
+            } else {
+                writerSubmittedCommands.add(command);
+            }
+            return command.result;
+        }
+        activeSubmitters.incrementAndGet();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Order engine is closed"));
+            }
+            while (!ring.offer(command)) {
+                if (ringFullPolicy == RingFullPolicy.REJECT) {
+                    return CompletableFuture.failedFuture(new RejectedExecutionException("Order engine ring is full"));
+                }
+                LockSupport.parkNanos(RING_FULL_PARK_NANOS);
+            }
+        } finally {
+            activeSubmitters.decrementAndGet();
+        }
+        waitStrategy.commandPublished();
+        return command.result;
+    }
+
+    private void applyCommands() {
+        var commands = new ArrayList<Command<?>>(ring.capacity());
+        while (true) {
+            try {
+                waitStrategy.waitFor(ring::hasPublished);
+            } catch (InterruptedException e) {
+                closed = true;
+                break;
+            }
+            commands.clear();
+            ring.drainTo(commands, ring.capacity());
+            if (!applyWithWriterSubmitted(commands)) {
+                break;
+            }
+        }
+        rejectRemainingCommands();
+    }
+
+    private boolean applyWithWriterSubmitted(List<Command<?>> commands) {
+        var running = apply(commands);
+        while (!writerSubmittedCommands.isEmpty()) {
+            commands.clear();
+            commands.addAll(writerSubmittedCommands);
+            writerSubmittedCommands.clear();
+            if (running) {
+                running = apply(commands);
+            } else {
+                commands.forEach(OrderEngine::rejectClosed);
+            }
+        }
+        return running;
+    }
+
+    /**
+     * @return false once the stop command has been reached
+     */
+    private boolean apply(List<Command<?>> commands) {
+        int start = 0;
+        while (start < commands.size()) {
+            var first = commands.get(start);
+            if (first instanceof StopCommand) {
+                first.result.complete(null);
+                commands.subList(start + 1, commands.size()).forEach(OrderEngine::rejectClosed);
+                return false;
+            }
+            int end = start + 1;
+            while (end < commands.size() && commands.get(end).getClass() == first.getClass() && !(first instanceof ChangeCommand)) {
+                end++;
+            }
+            applyBatch(commands.subList(start, end));
+            start = end;
+        }
+        return true;
+    }
+
+    private void applyBatch(List<Command<?>> batch) {
+        try {
+            if (batch.get(0) instanceof RegisterCommand) {
+                applyRegistrations(batch);
+            } else if (batch.get(0) instanceof CancelCommand) {
+                applyCancels(batch);
+            } else {
+                ((ChangeCommand<?>) batch.get(0)).apply();
+            }
+        } catch (RuntimeException | Error e) {
+            batch.forEach(command -> command.result.completeExceptionally(e));
+        }
+    }
+
+    private void applyRegistrations(List<Command<?>> batch) {
+        var orders = new ArrayList<SilverBarOrder>(batch.size());
+        batch.forEach(command -> orders.add(((RegisterCommand) command).order));
+        var results = delegate.registerOrders(orders);
+        for (int i = 0; i < batch.size(); i++) {
+            var command = (RegisterCommand) batch.get(i);
+            var result = results.get(i);
+            if (result.isRegistered()) {
+                command.result.complete(result.getOrderId());
+            } else {
+                command.result.completeExceptionally(new IllegalArgumentException(result.getRejectionReason()));
+            }
+        }
+    }
+
+    private void applyCancels(List<Command<?>> batch) {
+        var orderIds = new ArrayList<String>(batch.size());
+        batch.forEach(command -> orderIds.add(((CancelCommand) command).orderId));
+        var cancelled = delegate.cancelRegisteredOrders(orderIds);
+        for (int i = 0; i < batch.size(); i++) {
+            ((CancelCommand) batch.get(i)).result.complete(cancelled.get(i));
+        }
+    }
+
+    /**
+     * Callers which passed the closed check before the engine closed may still be publishing commands,
+     * those are rejected until no such caller is left. Later callers are rejected on submission.
+     */
+    private void rejectRemainingCommands() {
+        var commands = new ArrayList<Command<?>>();
+        while (true) {
+            var submittersLeft = activeSubmitters.get() > 0;
+            ring.drainTo(commands, ring.capacity());
+            commands.forEach(OrderEngine::rejectClosed);
+            commands.clear();
+            if (!submittersLeft && !ring.hasPublished()) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void rejectClosed(Command<?> command) {
+        command.result.completeExceptionally(new RejectedExecutionException("Order engine is closed"));
+    }
+
+    @Override
+    public String registerOrder(SilverBarOrder order) {
+        return applyOrAwait(() -> delegate.registerOrder(order), () -> submitRegisterOrder(order));
+    }
+
+    @Override
+    public List<OrderRegistrationResult> registerOrders(Collection<SilverBarOrder> orders) {
+        return applyOrAwait(() -> delegate.registerOrders(orders));
+    }
+
+    @Override
+    public boolean cancelRegisteredOrder(String orderId) {
+        return applyOrAwait(() -> delegate.cancelRegisteredOrder(orderId), () -> submitCancelRegisteredOrder(orderId));
+    }
+
+    @Override
+    public List<Boolean> cancelRegisteredOrders(Collection<String> orderIds) {
+        return applyOrAwait(() -> delegate.cancelRegisteredOrders(orderIds));
+    }
+
+    @Override
+    public List<String> cancelUserOrders(String userId) {
+        return applyOrAwait(() -> delegate.cancelUserOrders(userId));
+    }
+
+    @Override
+    public List<String> expireOrders(Instant now) {
+        return applyOrAwait(() -> delegate.expireOrders(now));
+    }
+
+    @Override
+    public List<SilverBarOrder> getUserOrders(String userId) {
+        return delegate.getUserOrders(userId);
+    }
+
+    @Override
+    public LiveOrderSummary getUserLiveOrderSummary(String userId) {
+        return delegate.getUserLiveOrderSummary(userId);
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary() {
+        return delegate.getLiveOrderSummary();
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(int depth) {
+        return delegate.getLiveOrderSummary(depth);
+    }
+
+    @Override
+    public LiveOrderSummary getLiveOrderSummary(BigDecimal minPrice, BigDecimal maxPrice) {
+        return delegate.getLiveOrderSummary(minPrice, maxPrice);
+    }
+
+    @Override
+    public LiveOrderLevelSummary getLiveOrderLevelSummary() {
+        return delegate.getLiveOrderLevelSummary();
+    }
+
+    @Override
+    public List<SilverBarOrder> getLevelOrders(OrderType orderType, BigDecimal thousandGramsPrice) {
+        return delegate.getLevelOrders(orderType, thousandGramsPrice);
+    }
+
+    @Override
+    public Flow.Publisher<LevelUpdate> getLevelUpdates() {
+        return delegate.getLevelUpdates();
+    }
+
+    /**
+     * Waits for the change submitted as a command, unless called on the writer thread, which would wait for itself
+     * forever. There the change is applied at once, or rejected if the engine has been closed.
+     */
+    private <T> T applyOrAwait(Supplier<T> change) {
+        return applyOrAwait(change, () -> submit(change));
+    }
+
+    private <T> T applyOrAwait(Supplier<T> change, Supplier<CompletableFuture<T>> submission) {
+        if (Thread.currentThread() != writer) {
+            return await(submission.get());
+        }
+        if (closed) {
+            throw new RejectedExecutionException("Order engine is closed");
+        }
+        return change.get();
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies commands submitted so far and stops the writer, later commands are rejected.
+     */
+    @Override
+    public void close() {
+        if (Thread.currentThread() == writer) {
+            throw new IllegalStateException("Order engine cannot be closed from its writer thread");
+        }
+        if (closed) {
+            return;
+        }
+        closed = true;
+        var stop = new StopCommand();
+        while (!ring.offer(stop)) {
+            LockSupport.parkNanos(RING_FULL_PARK_NANOS);
+        }
+        waitStrategy.commandPublished();
+        stop.result.join();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private abstract static class Command<T> {
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+    }
+
+    private static class RegisterCommand extends Command<String> {
+
+        private final SilverBarOrder order;
+
+        private RegisterCommand(SilverBarOrder order) {
+            this.order = order;
+        }
+    }
+
+    private static class CancelCommand extends Command<Boolean> {
+
+        private final String orderId;
+
+        private CancelCommand(String orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    private static class ChangeCommand<T> extends Command<T> {
+
+        private final Supplier<T> change;
+
+        private ChangeCommand(Supplier<T> change) {
+            this.change = change;
+        }
+
+        private void apply() {
+            result.complete(change.get());
+        }
+    }
+
+    private static class StopCommand extends Command<Void> {
+    }
+}
@@ -0,0 +1,37 @@
+package com.silverbars.liveorder.service.engine;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins, then yields and finally parks for parkTime between checks, which bounds both CPU use when idle and
+ * the delay of picking up a command.
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+
+    private final long parkNanos;
+
+    public ParkingWaitStrategy(Duration parkTime) {
+        this.parkNanos = parkTime.toNanos();
+    }
+
+    @Override
+    public void waitFor(BooleanSupplier commandsAvailable) throws InterruptedException {
+        for (int tries = 0; !commandsAvailable.getAsBoolean(); tries++) {
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.silverbars.liveorder.service.engine;
+
+/**
+ * What a caller submitting a command to a full {@link OrderEngine} ring experiences.
+ */
+public enum RingFullPolicy {
+
+    /**
+     * The caller waits until the writer frees a slot.
+     */
+    BLOCK,
+
+    /**
+     * The command is not accepted, its future fails with RejectedExecutionException.
+     */
+    REJECT
+}
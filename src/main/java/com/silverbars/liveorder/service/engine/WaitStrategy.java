@@ -0,0 +1,20 @@
+package com.silverbars.liveorder.service.engine;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * How the writer of an {@link OrderEngine} waits for commands, trading latency of picking a command up for CPU use.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Returns once commandsAvailable holds.
+     */
+    void waitFor(BooleanSupplier commandsAvailable) throws InterruptedException;
+
+    /**
+     * Called by producers after publishing a command.
+     */
+    default void commandPublished() {
+    }
+}
@@ -0,0 +1,22 @@
+package com.silverbars.liveorder.service.engine;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins briefly and then yields the CPU to other threads between checks.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public void waitFor(BooleanSupplier commandsAvailable) {
+        for (int tries = 0; !commandsAvailable.getAsBoolean(); tries++) {
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+}
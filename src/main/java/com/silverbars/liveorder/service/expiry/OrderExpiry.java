@@ -0,0 +1,67 @@
+package com.silverbars.liveorder.service.expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Expiry times of live orders kept in a {@link TimerWheel} of fixed-length ticks. An order is due at the end of
+ * the tick its expiry time falls in, so it is never expired early and at most one tick late.
+ */
+public class OrderExpiry {
+
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+
+    private static final Instant MIN_MILLIS_INSTANT = Instant.ofEpochMilli(Long.MIN_VALUE);
+    private static final Instant MAX_MILLIS_INSTANT = Instant.ofEpochMilli(Long.MAX_VALUE);
+
+    private final long tickMillis;
+    private final TimerWheel<String> wheel;
+
+    public OrderExpiry() {
+        this(DEFAULT_TICK, Instant.now());
+    }
+
+    /**
+     * @param tick length of a tick, at least a millisecond
+     * @param start time to start from, orders expiring before it are expired by the first {@link #expire(Instant)}
+     */
+    public OrderExpiry(Duration tick, Instant start) {
+        if (tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("tick must be at least a millisecond");
+        }
+        this.tickMillis = tick.toMillis();
+        this.wheel = new TimerWheel<>(Math.floorDiv(epochMillis(start), tickMillis));
+    }
+
+    public synchronized void schedule(String orderId, Instant expiresAt) {
+        var expiryMillis = epochMillis(expiresAt);
+        if (expiresAt.getNano() % 1_000_000 != 0 && expiryMillis != Long.MAX_VALUE) {
+            expiryMillis++;
+        }
+        var dueTick = Math.floorDiv(expiryMillis, tickMillis) + (Math.floorMod(expiryMillis, tickMillis) == 0 ? 0 : 1);
+        wheel.schedule(orderId, dueTick);
+    }
+
+    public synchronized void cancel(String orderId) {
+        wheel.cancel(orderId);
+    }
+
+    /**
+     * @return ids of orders expired at given time, each returned once
+     */
+    public synchronized List<String> expire(Instant now) {
+        return wheel.advance(Math.floorDiv(epochMillis(now), tickMillis));
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    private static long epochMillis(Instant instant) {
+        if (instant.isBefore(MIN_MILLIS_INSTANT)) {
+            return Long.MIN_VALUE;
+        }
+        return instant.isAfter(MAX_MILLIS_INSTANT) ? Long.MAX_VALUE : instant.toEpochMilli();
+    }
+}
@@ -0,0 +1,50 @@
+package com.silverbars.liveorder.service.expiry;
+
+import com.silverbars.liveorder.service.SilverBarOrderService;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires orders of the service at the current time of the clock every interval on a background thread until closed.
+ */
+public class ScheduledOrderExpiry implements Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(ScheduledOrderExpiry.class.getName());
+
+    private final SilverBarOrderService service;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    public ScheduledOrderExpiry(SilverBarOrderService service, Duration interval) {
+        this(service, interval, Clock.systemUTC());
+    }
+
+    public ScheduledOrderExpiry(SilverBarOrderService service, Duration interval, Clock clock) {
+        this.service = service;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "order-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::expire, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void expire() {
+        try {
+            service.expireOrders(clock.instant());
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Order expiry failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,184 @@
+package com.silverbars.liveorder.service.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timer wheel of keys due at a tick. Level 0 has a slot for each of the next 64 ticks, each further
+ * level a slot for every 64 slots of the level below. Timers of a higher level slot are cascaded to lower levels
+ * once the wheel reaches the slot, so a timer moves at most once per level before it is due.
+ * Scheduling and cancelling take constant time, advancing touches only ticks at which slots are processed,
+ * skipping ahead over levels which are empty.
+ * <p>
+ * Timers further ahead than the wheel spans wait in its last slot and are cascaded again until they fit.
+ * Not thread safe.
+ */
+public class TimerWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final long MAX_DELAY = (1L << SLOT_BITS * LEVELS) - 1;
+
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private final Timer<K>[][] slots;
+    private final int[] levelSizes = new int[LEVELS];
+    private long currentTick;
+
+    /**
+     * @param startTick first tick the wheel processes, timers due before it are due at it
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long startTick) {
+        this.slots = (Timer<K>[][]) new Timer<?>[LEVELS][SLOTS];
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Schedules the key to be due at given tick, replacing its earlier timer if any.
+     */
+    public void schedule(K key, long dueTick) {
+        var timer = timers.get(key);
+        if (timer == null) {
+            timer = new Timer<>(key);
+            timers.put(key, timer);
+        } else {
+            unlink(timer);
+        }
+        timer.dueTick = dueTick;
+        link(timer);
+    }
+
+    /**
+     * @return true if the key had a timer which has been cancelled
+     */
+    public boolean cancel(K key) {
+        var timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Processes all ticks up to and including given tick.
+     *
+     * @return keys of timers due at processed ticks, in order of the tick they were due at
+     */
+    public List<K> advance(long tick) {
+        var dueKeys = new ArrayList<K>();
+        while (currentTick <= tick) {
+            var nextTick = nextProcessedTick();
+            if (nextTick > tick) {
+                currentTick = tick + 1;
+                break;
+            }
+            currentTick = nextTick;
+            cascade();
+            expire(dueKeys);
+            currentTick++;
+        }
+        return dueKeys;
+    }
+
+    /**
+     * Ticks before the next level 0 slot or cascade of the lowest non-empty level have nothing to process.
+     */
+    private long nextProcessedTick() {
+        for (int level = 0; level < LEVELS; level++) {
+            if (levelSizes[level] > 0) {
+                var levelTicks = 1L << SLOT_BITS * level;
+                return (currentTick + levelTicks - 1) & -levelTicks;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & (1L << SLOT_BITS * level) - 1) == 0 && levelSizes[level] > 0) {
+                var slot = slotOf(currentTick, level);
+                var timer = slots[level][slot];
+                slots[level][slot] = null;
+                while (timer != null) {
+                    var next = timer.next;
+                    levelSizes[level]--;
+                    link(timer);
+                    timer = next;
+                }
+            }
+        }
+    }
+
+    private void expire(List<K> dueKeys) {
+        var slot = slotOf(currentTick, 0);
+        var timer = slots[0][slot];
+        slots[0][slot] = null;
+        while (timer != null) {
+            levelSizes[0]--;
+            timers.remove(timer.key);
+            dueKeys.add(timer.key);
+            timer = timer.next;
+        }
+    }
+
+    /**
+     * Links the timer to the slot of the lowest level which spans its delay from the current tick.
+     */
+    private void link(Timer<K> timer) {
+        var delay = Math.min(Math.max(timer.dueTick - currentTick, 0), MAX_DELAY);
+        var level = 0;
+        while (delay >= 1L << SLOT_BITS * (level + 1)) {
+            level++;
+        }
+        var slot = slotOf(currentTick + delay, level);
+        var head = slots[level][slot];
+        timer.level = level;
+        timer.slot = slot;
+        timer.previous = null;
+        timer.next = head;
+        if (head != null) {
+            head.previous = timer;
+        }
+        slots[level][slot] = timer;
+        levelSizes[level]++;
+    }
+
+    private void unlink(Timer<K> timer) {
+        if (timer.previous == null) {
+            slots[timer.level][timer.slot] = timer.next;
+        } else {
+            timer.previous.next = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        levelSizes[timer.level]--;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) (tick >>> SLOT_BITS * level) & SLOT_MASK;
+    }
+
+    private static class Timer<K> {
+
+        private final K key;
+        private long dueTick;
+        private int level;
+        private int slot;
+        private Timer<K> previous;
+        private Timer<K> next;
+
+        Timer(K key) {
+            this.key = key;
+        }
+    }
+}
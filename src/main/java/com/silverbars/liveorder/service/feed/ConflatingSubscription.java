@@ -0,0 +1,171 @@
+package com.silverbars.liveorder.service.feed;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Buffers at most one update per price level for a single subscriber and delivers them on the executor
+ * as the subscriber requests them. Signals to the subscriber are never concurrent.
+ * <p>
+ * Nothing is delivered until the level snapshot has been offered, so of a snapshot level and an update of the same
+ * level racing with it only the newer one by sequence reaches the subscriber.
+ */
+class ConflatingSubscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super LevelUpdate> subscriber;
+    private final Executor deliveryExecutor;
+    private final int maxPendingLevels;
+    private final Consumer<ConflatingSubscription> onTermination;
+
+    private final Map<LevelKey, LevelUpdate> pendingUpdates = new LinkedHashMap<>();
+    private long demand;
+    private boolean snapshotOffered;
+    private boolean delivering;
+    private boolean terminated;
+    private Throwable failure;
+
+    ConflatingSubscription(Flow.Subscriber<? super LevelUpdate> subscriber, Executor deliveryExecutor, int maxPendingLevels,
+                           Consumer<ConflatingSubscription> onTermination) {
+        this.subscriber = subscriber;
+        this.deliveryExecutor = deliveryExecutor;
+        this.maxPendingLevels = maxPendingLevels;
+        this.onTermination = onTermination;
+    }
+
+    void offer(LevelUpdate levelUpdate) {
+        synchronized (this) {
+            if (terminated || failure != null) {
+                return;
+            }
+            var levelKey = new LevelKey(levelUpdate.getOrderType(), levelUpdate.getThousandGramsPrice());
+            if (!pendingUpdates.containsKey(levelKey) && pendingUpdates.size() >= maxPendingLevels) {
+                pendingUpdates.clear();
+                failure = new IllegalStateException("Subscriber fell behind by more than " + maxPendingLevels + " price levels");
+            } else {
+                pendingUpdates.merge(levelKey, levelUpdate, ConflatingSubscription::conflate);
+            }
+        }
+        scheduleDelivery();
+    }
+
+    /**
+     * Drops pending updates and signals the failure to the subscriber instead, unless terminated already.
+     */
+    void fail(Throwable failure) {
+        synchronized (this) {
+            if (terminated || this.failure != null) {
+                return;
+            }
+            pendingUpdates.clear();
+            this.failure = failure;
+        }
+        scheduleDelivery();
+    }
+
+    /**
+     * Offers every live level, then starts delivering updates offered so far and from now on.
+     */
+    void offerSnapshot(List<LevelUpdate> levelSnapshot) {
+        levelSnapshot.forEach(this::offer);
+        synchronized (this) {
+            snapshotOffered = true;
+        }
+        scheduleDelivery();
+    }
+
+    private static LevelUpdate conflate(LevelUpdate pending, LevelUpdate offered) {
+        var older = offered.getSequence() < pending.getSequence() ? offered : pending;
+        var newer = older == offered ? pending : offered;
+        if (older.getUpdateType() == LevelUpdateType.ADDED && newer.getUpdateType() == LevelUpdateType.CHANGED) {
+            return LevelUpdate.builder()
+                    .sequence(newer.getSequence())
+                    .updateType(LevelUpdateType.ADDED)
+                    .orderType(newer.getOrderType())
+                    .thousandGramsPrice(newer.getThousandGramsPrice())
+                    .weightInGrams(newer.getWeightInGrams())
+                    .build();
+        }
+        return newer;
+    }
+
+    @Override
+    public void request(long n) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            if (n <= 0) {
+                pendingUpdates.clear();
+                failure = new IllegalArgumentException("Requested number of updates must be positive, was " + n);
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+        }
+        scheduleDelivery();
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (this) {
+            terminated = true;
+            pendingUpdates.clear();
+        }
+        onTermination.accept(this);
+    }
+
+    private void scheduleDelivery() {
+        synchronized (this) {
+            if (delivering || terminated || !snapshotOffered || (failure == null && (demand == 0 || pendingUpdates.isEmpty()))) {
+                return;
+            }
+            delivering = true;
+        }
+        deliveryExecutor.execute(this::deliver);
+    }
+
+    private void deliver() {
+        while (true) {
+            LevelUpdate levelUpdate;
+            Throwable terminalFailure = null;
+            synchronized (this) {
+                if (!terminated && failure != null) {
+                    terminated = true;
+                    terminalFailure = failure;
+                }
+                if (terminalFailure == null && (terminated || demand == 0 || pendingUpdates.isEmpty())) {
+                    delivering = false;
+                    return;
+                }
+                levelUpdate = terminalFailure == null ? pollPendingUpdate() : null;
+            }
+            if (terminalFailure != null) {
+                onTermination.accept(this);
+                subscriber.onError(terminalFailure);
+                return;
+            }
+            try {
+                subscriber.onNext(levelUpdate);
+            } catch (RuntimeException e) {
+                cancel();
+                subscriber.onError(e);
+                return;
+            }
+        }
+    }
+
+    private LevelUpdate pollPendingUpdate() {
+        var iterator = pendingUpdates.values().iterator();
+        var levelUpdate = iterator.next();
+        iterator.remove();
+        demand--;
+        return levelUpdate;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.silverbars.liveorder.service.feed;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Identifies a price level of a side, prices differing only in scale share the level.
+ */
+class LevelKey {
+
+    private final OrderType orderType;
+    private final BigDecimal priceKey;
+
+    LevelKey(OrderType orderType, BigDecimal thousandGramsPrice) {
+        this.orderType = orderType;
+        this.priceKey = thousandGramsPrice.stripTrailingZeros();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof LevelKey)) {
+            return false;
+        }
+        var levelKey = (LevelKey) other;
+        return orderType == levelKey.orderType && priceKey.equals(levelKey.priceKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderType, priceKey);
+    }
+}
@@ -0,0 +1,65 @@
+package com.silverbars.liveorder.service.feed;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * Publishes price level changes to any number of subscribers. A new subscriber first receives every live level,
+ * then the changes that follow, so it can rebuild the board without polling the summary.
+ * <p>
+ * The subscription is registered before the level snapshot is taken, so no change is missed, and delivery starts
+ * once the snapshot has been buffered, so a change published meanwhile and a snapshot level it makes obsolete are
+ * conflated by sequence and a subscriber never receives a snapshot level after a newer update of that level.
+ * <p>
+ * Publishing never blocks: each subscriber has its own buffer holding at most one pending update per price level,
+ * where a newer update of a level replaces the older one. A subscriber whose buffer still exceeds
+ * maxPendingLevels is failed and dropped.
+ */
+public class LevelUpdatePublisher implements Flow.Publisher<LevelUpdate> {
+
+    private final Supplier<List<LevelUpdate>> levelSnapshot;
+    private final Executor deliveryExecutor;
+    private final int maxPendingLevels;
+    private final Set<ConflatingSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private volatile Throwable failure;
+
+    public LevelUpdatePublisher(Supplier<List<LevelUpdate>> levelSnapshot, Executor deliveryExecutor, int maxPendingLevels) {
+        this.levelSnapshot = levelSnapshot;
+        this.deliveryExecutor = deliveryExecutor;
+        this.maxPendingLevels = maxPendingLevels;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LevelUpdate> subscriber) {
+        var subscription = new ConflatingSubscription(subscriber, deliveryExecutor, maxPendingLevels, subscriptions::remove);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        var publisherFailure = failure;
+        if (publisherFailure != null) {
+            subscription.fail(publisherFailure);
+        }
+        subscription.offerSnapshot(levelSnapshot.get());
+    }
+
+    /**
+     * Fails every subscriber, as well as those subscribing later, eg. once updates cannot be published any more.
+     */
+    public void fail(Throwable failure) {
+        this.failure = failure;
+        for (ConflatingSubscription subscription : subscriptions) {
+            subscription.fail(failure);
+        }
+    }
+
+    public void publish(LevelUpdate levelUpdate) {
+        for (ConflatingSubscription subscription : subscriptions) {
+            subscription.offer(levelUpdate);
+        }
+    }
+}
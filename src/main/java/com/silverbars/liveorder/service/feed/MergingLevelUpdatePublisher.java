@@ -0,0 +1,164 @@
+package com.silverbars.liveorder.service.feed;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.OrderType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes price levels summed over several sources of level updates, eg. shards of the book each holding part
+ * of the orders. A merged level is ADDED when it appears in the first source and REMOVED when it disappears from
+ * the last one, other changes of its weight are CHANGED updates. Once any source fails, merged levels can no
+ * longer be trusted, so all subscribers are failed with its error.
+ * <p>
+ * Updates are merged on the threads delivering them from the sources, updates of the same price level one at
+ * a time. Sources should deliver on an executor rather than on the threads changing them, so that those never
+ * wait for each other here.
+ */
+public class MergingLevelUpdatePublisher implements Flow.Publisher<LevelUpdate> {
+
+    private final int sourceCount;
+    private final ConcurrentHashMap<LevelKey, MergedLevel> levels = new ConcurrentHashMap<>();
+    private final AtomicLong updateSequence = new AtomicLong();
+    private final LevelUpdatePublisher publisher;
+
+    public MergingLevelUpdatePublisher(int sourceCount, Executor deliveryExecutor, int maxPendingLevels) {
+        this.sourceCount = sourceCount;
+        this.publisher = new LevelUpdatePublisher(this::getLevelSnapshot, deliveryExecutor, maxPendingLevels);
+    }
+
+    /**
+     * @param sourceIndex index of the source, from zero to sourceCount exclusive
+     * @return subscriber to subscribe to the source, it requests all updates
+     */
+    public Flow.Subscriber<LevelUpdate> sourceSubscriber(int sourceIndex) {
+        Objects.checkIndex(sourceIndex, sourceCount);
+        return new SourceSubscriber(sourceIndex);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LevelUpdate> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    private List<LevelUpdate> getLevelSnapshot() {
+        return levels.values().stream()
+                .map(level -> level.toLevelUpdate(LevelUpdateType.ADDED))
+                .collect(Collectors.toList());
+    }
+
+    private void merge(int sourceIndex, LevelUpdate sourceUpdate) {
+        levels.compute(new LevelKey(sourceUpdate.getOrderType(), sourceUpdate.getThousandGramsPrice()), (levelKey, level) -> {
+            var mergedLevel = level == null ? new MergedLevel(sourceUpdate, sourceCount) : level;
+            if (!mergedLevel.isNewerUpdate(sourceIndex, sourceUpdate)) {
+                return level;
+            }
+            var updatedLevel = mergedLevel.withSourceUpdate(sourceIndex, sourceUpdate, updateSequence.incrementAndGet());
+            if (level == null && !updatedLevel.isLive()) {
+                return null;
+            }
+            var updateType = level == null ? LevelUpdateType.ADDED : updatedLevel.isLive() ? LevelUpdateType.CHANGED : LevelUpdateType.REMOVED;
+            publisher.publish(updatedLevel.toLevelUpdate(updateType));
+            return updatedLevel.isLive() ? updatedLevel : null;
+        });
+    }
+
+    private class SourceSubscriber implements Flow.Subscriber<LevelUpdate> {
+
+        private final int sourceIndex;
+
+        SourceSubscriber(int sourceIndex) {
+            this.sourceIndex = sourceIndex;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(LevelUpdate levelUpdate) {
+            merge(sourceIndex, levelUpdate);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            publisher.fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Immutable state of a merged level: latest weight and sequence reported by every source, a weight of -1
+     * meaning the level is not live in the source.
+     */
+    private static class MergedLevel {
+
+        private final OrderType orderType;
+        private final BigDecimal thousandGramsPrice;
+        private final int[] sourceWeights;
+        private final long[] sourceSequences;
+        private final long sequence;
+
+        MergedLevel(LevelUpdate firstUpdate, int sourceCount) {
+            this(firstUpdate.getOrderType(), firstUpdate.getThousandGramsPrice(), new int[sourceCount], new long[sourceCount], 0);
+            Arrays.fill(sourceWeights, -1);
+            Arrays.fill(sourceSequences, -1);
+        }
+
+        private MergedLevel(OrderType orderType, BigDecimal thousandGramsPrice, int[] sourceWeights, long[] sourceSequences, long sequence) {
+            this.orderType = orderType;
+            this.thousandGramsPrice = thousandGramsPrice;
+            this.sourceWeights = sourceWeights;
+            this.sourceSequences = sourceSequences;
+            this.sequence = sequence;
+        }
+
+        boolean isNewerUpdate(int sourceIndex, LevelUpdate sourceUpdate) {
+            return sourceUpdate.getSequence() > sourceSequences[sourceIndex];
+        }
+
+        MergedLevel withSourceUpdate(int sourceIndex, LevelUpdate sourceUpdate, long sequence) {
+            var weights = sourceWeights.clone();
+            var sequences = sourceSequences.clone();
+            weights[sourceIndex] = sourceUpdate.getUpdateType() == LevelUpdateType.REMOVED ? -1 : sourceUpdate.getWeightInGrams();
+            sequences[sourceIndex] = sourceUpdate.getSequence();
+            return new MergedLevel(orderType, thousandGramsPrice, weights, sequences, sequence);
+        }
+
+        boolean isLive() {
+            for (int weight : sourceWeights) {
+                if (weight >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        LevelUpdate toLevelUpdate(LevelUpdateType updateType) {
+            var weightInGrams = 0;
+            for (int weight : sourceWeights) {
+                weightInGrams += Math.max(weight, 0);
+            }
+            return LevelUpdate.builder()
+                    .sequence(sequence)
+                    .updateType(updateType)
+                    .orderType(orderType)
+                    .thousandGramsPrice(thousandGramsPrice)
+                    .weightInGrams(weightInGrams)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.silverbars.liveorder.service.id;
+
+import java.util.UUID;
+
+/**
+ * Source of ids assigned to newly registered orders. Implementations must be safe for concurrent use
+ * and never return the same id twice.
+ */
+public interface OrderIdGenerator {
+
+    /**
+     * Random UUIDs drawn from {@link java.security.SecureRandom} by {@link UUID#randomUUID()}, so that orderIds
+     * cannot be guessed. Used unless the service is given another generator.
+     */
+    OrderIdGenerator RANDOM_UUID = () -> UUID.randomUUID().toString();
+
+    String nextOrderId();
+}
@@ -0,0 +1,26 @@
+package com.silverbars.liveorder.service.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates random (version 4) UUIDs. Unlike {@link UUID#randomUUID()} it draws bits from {@link ThreadLocalRandom},
+ * so it never blocks on entropy nor contends on a shared SecureRandom.
+ * Ids are unique with overwhelming probability but, not coming from a secure source, they are guessable. It is
+ * therefore never a default, only for services given it explicitly where orderIds need not be secret.
+ */
+public class RandomUuidOrderIdGenerator implements OrderIdGenerator {
+
+    private static final long VERSION_MASK = 0xf000L;
+    private static final long VERSION_4 = 0x4000L;
+    private static final long VARIANT_MASK = 0xc000000000000000L;
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+
+    @Override
+    public String nextOrderId() {
+        var random = ThreadLocalRandom.current();
+        var mostSignificantBits = random.nextLong() & ~VERSION_MASK | VERSION_4;
+        var leastSignificantBits = random.nextLong() & ~VARIANT_MASK | VARIANT_IETF;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+}
@@ -0,0 +1,134 @@
+package com.silverbars.liveorder.service.id;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates 64-bit time-ordered ids laid out as
+ * <pre>
+ * | 0 | 41 bits milliseconds since 2020-01-01 | 10 bits node id | 2 bits partition | 10 bits sequence |
+ * </pre>
+ * Ids are unique across up to 1024 nodes as long as every node is configured with its own node id.
+ * <p>
+ * Threads are spread over 4 partitions, each with its own timestamp and sequence updated by CAS, so that threads
+ * registering orders in parallel rarely contend. Within a partition ids grow strictly, even if the clock goes back.
+ * When a partition exhausts the 1024 ids of a millisecond it borrows the next millisecond instead of waiting for it,
+ * so only a node restarted while running ahead of its clock this way could repeat ids.
+ * <p>
+ * Ids are rendered as 13 characters of Crockford's base32, whose lexicographic order is the numeric order of ids.
+ */
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+
+    static final long EPOCH_MILLIS = 1_577_836_800_000L;
+    static final int NODE_ID_BITS = 10;
+    static final int PARTITION_BITS = 2;
+    static final int SEQUENCE_BITS = 10;
+    static final int MAX_NODE_ID = (1 << NODE_ID_BITS) - 1;
+
+    private static final int PARTITIONS = 1 << PARTITION_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + PARTITION_BITS + SEQUENCE_BITS;
+    private static final int ID_CHARS = 13;
+    private static final char[] BASE32_DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DIGIT_VALUES = new byte['Z' + 1];
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int digit = 0; digit < BASE32_DIGITS.length; digit++) {
+            DIGIT_VALUES[BASE32_DIGITS[digit]] = (byte) digit;
+        }
+    }
+
+    private final long nodeBits;
+    private final LongSupplier currentTimeMillis;
+    /**
+     * Last issued (timestamp, sequence) of every partition, packed as {@code timestamp << SEQUENCE_BITS | sequence}.
+     */
+    private final AtomicLongArray lastIssued = new AtomicLongArray(PARTITIONS);
+    private final AtomicInteger assignedPartitions = new AtomicInteger();
+    private final ThreadLocal<Integer> threadPartition =
+            ThreadLocal.withInitial(() -> assignedPartitions.getAndIncrement() & (PARTITIONS - 1));
+
+    public SnowflakeOrderIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeOrderIdGenerator(int nodeId, LongSupplier currentTimeMillis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << (PARTITION_BITS + SEQUENCE_BITS);
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public String nextOrderId() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        int partition = threadPartition.get();
+        while (true) {
+            var previous = lastIssued.get(partition);
+            var previousTimestamp = previous >>> SEQUENCE_BITS;
+            var timestamp = Math.max(currentTimeMillis.getAsLong() - EPOCH_MILLIS, previousTimestamp);
+            var sequence = timestamp == previousTimestamp ? (previous & MAX_SEQUENCE) + 1 : 0;
+            if (sequence > MAX_SEQUENCE) {
+                timestamp++;
+                sequence = 0;
+            }
+            var issued = timestamp << SEQUENCE_BITS | sequence;
+            if (lastIssued.compareAndSet(partition, previous, issued)) {
+                return timestamp << TIMESTAMP_SHIFT | nodeBits | (long) partition << SEQUENCE_BITS | sequence;
+            }
+        }
+    }
+
+    /**
+     * @return id rendered as 13 characters of Crockford's base32
+     */
+    public static String format(long id) {
+        var chars = new char[ID_CHARS];
+        for (int i = ID_CHARS - 1; i >= 0; i--) {
+            chars[i] = BASE32_DIGITS[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return numeric value of a snowflake id, as rendered by {@link #format(long)}
+     */
+    public static long parse(String orderId) {
+        if (!isSnowflakeId(orderId)) {
+            throw new IllegalArgumentException("orderId " + orderId + " is not a snowflake id");
+        }
+        long id = 0;
+        for (int i = 0; i < ID_CHARS; i++) {
+            id = id << 5 | indexOfDigit(orderId.charAt(i));
+        }
+        return id;
+    }
+
+    /**
+     * @return whether the orderId is exactly the rendering of some 64-bit id, so parsing and formatting it
+     * gives back the same string
+     */
+    public static boolean isSnowflakeId(String orderId) {
+        if (orderId.length() != ID_CHARS || indexOfDigit(orderId.charAt(0)) >= 1 << (Long.SIZE - 5 * (ID_CHARS - 1))) {
+            return false;
+        }
+        for (int i = 0; i < ID_CHARS; i++) {
+            if (indexOfDigit(orderId.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfDigit(char c) {
+        return c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+    }
+}
@@ -0,0 +1,53 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.metrics.LatencySnapshot;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Outcome of running a workload. Response time of an operation is measured from the time it was scheduled at,
+ * so it includes waiting for a client thread still busy with earlier operations, service time only the call itself.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+public class LoadReport {
+
+    private long operationCount;
+    private long failedOperations;
+    private long durationNanos;
+    private Map<OperationType, LatencySnapshot> responseTimes;
+    private Map<OperationType, LatencySnapshot> serviceTimes;
+
+    public double getThroughputPerSecond() {
+        return durationNanos == 0 ? 0 : operationCount * 1_000_000_000d / durationNanos;
+    }
+
+    /**
+     * @return human readable table of throughput and latency percentiles in microseconds
+     */
+    public String format() {
+        var report = new StringBuilder();
+        report.append(String.format("operations %d, failed %d, duration %.3f s, throughput %.1f ops/s%n",
+                operationCount, failedOperations, durationNanos / 1e9, getThroughputPerSecond()));
+        report.append(String.format("%-13s %-8s %10s %10s %10s %10s %10s %10s%n", "operation", "latency", "count", "p50 us", "p90 us",
+                "p99 us", "p99.9 us", "max us"));
+        for (var type : OperationType.values()) {
+            appendRow(report, type, "response", responseTimes.get(type));
+            appendRow(report, type, "service", serviceTimes.get(type));
+        }
+        return report.toString();
+    }
+
+    private static void appendRow(StringBuilder report, OperationType type, String latency, LatencySnapshot snapshot) {
+        if (snapshot == null || snapshot.getCount() == 0) {
+            return;
+        }
+        report.append(String.format("%-13s %-8s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", type, latency, snapshot.getCount(),
+                snapshot.getP50Nanos() / 1e3, snapshot.getP90Nanos() / 1e3, snapshot.getP99Nanos() / 1e3,
+                snapshot.getP999Nanos() / 1e3, snapshot.getMaxNanos() / 1e3));
+    }
+}
@@ -0,0 +1,176 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.SilverBarOrderService;
+import com.silverbars.liveorder.service.metrics.LatencyHistogram;
+import com.silverbars.liveorder.service.metrics.LatencySnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs workload operations open-loop against a service: every operation starts at the time it is scheduled at,
+ * or right away if its client thread is behind schedule, regardless of how long earlier operations took.
+ * <p>
+ * Operations are spread over client threads by the register operation they belong to, so a cancel runs on the
+ * thread which registered its order, after the register completed. Summary polls are spread round robin.
+ */
+public class LoadRunner {
+
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final SilverBarOrderService service;
+    private final int clientThreads;
+
+    public LoadRunner(SilverBarOrderService service, int clientThreads) {
+        if (clientThreads <= 0) {
+            throw new IllegalArgumentException("clientThreads must be positive");
+        }
+        this.service = service;
+        this.clientThreads = clientThreads;
+    }
+
+    /**
+     * Runs the operations and waits until all of them complete.
+     *
+     * @throws InterruptedException if interrupted while waiting, client threads are interrupted as well
+     */
+    public LoadReport run(List<WorkloadOperation> operations) throws InterruptedException {
+        var run = new Run(operations);
+        var clients = new ArrayList<Thread>(clientThreads);
+        var startNanos = System.nanoTime() + START_DELAY_NANOS;
+        for (int client = 0; client < clientThreads; client++) {
+            var clientOperations = clientOperations(operations, client);
+            var thread = new Thread(() -> run.runClient(clientOperations, startNanos), "load-client-" + client);
+            clients.add(thread);
+            thread.start();
+        }
+        try {
+            for (var client : clients) {
+                client.join();
+            }
+        } catch (InterruptedException e) {
+            clients.forEach(Thread::interrupt);
+            throw e;
+        }
+        return run.report(Math.max(0, System.nanoTime() - startNanos));
+    }
+
+    private int[] clientOperations(List<WorkloadOperation> operations, int client) {
+        var indexes = new int[operations.size()];
+        var count = 0;
+        for (int index = 0; index < operations.size(); index++) {
+            var operation = operations.get(index);
+            var routingIndex = operation.getType() == OperationType.CANCEL ? operation.getTargetOperation() : index;
+            if (Math.floorMod(routingIndex, clientThreads) == client) {
+                indexes[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    private class Run {
+
+        private final List<WorkloadOperation> operations;
+        private final String[] orderIds;
+        private final Map<OperationType, LatencyHistogram> responseTimes = new EnumMap<>(OperationType.class);
+        private final Map<OperationType, LatencyHistogram> serviceTimes = new EnumMap<>(OperationType.class);
+        private final AtomicLong completedOperations = new AtomicLong();
+        private final AtomicLong failedOperations = new AtomicLong();
+
+        Run(List<WorkloadOperation> operations) {
+            this.operations = operations;
+            this.orderIds = new String[operations.size()];
+            for (var type : OperationType.values()) {
+                responseTimes.put(type, new LatencyHistogram());
+                serviceTimes.put(type, new LatencyHistogram());
+            }
+        }
+
+        /**
+         * Order ids of registers are written and read by the client thread running both the register and its cancels.
+         */
+        void runClient(int[] clientOperations, long startNanos) {
+            for (var index : clientOperations) {
+                var operation = operations.get(index);
+                var scheduledNanos = startNanos + operation.getScheduledNanos();
+                if (!awaitSchedule(scheduledNanos)) {
+                    return;
+                }
+                var serviceStartNanos = System.nanoTime();
+                try {
+                    apply(index, operation);
+                } catch (RuntimeException e) {
+                    failedOperations.incrementAndGet();
+                }
+                var endNanos = System.nanoTime();
+                responseTimes.get(operation.getType()).record(endNanos - scheduledNanos);
+                serviceTimes.get(operation.getType()).record(endNanos - serviceStartNanos);
+                completedOperations.incrementAndGet();
+            }
+        }
+
+        private void apply(int index, WorkloadOperation operation) {
+            switch (operation.getType()) {
+                case REGISTER:
+                    orderIds[index] = service.registerOrder(operation.getOrder());
+                    break;
+                case CANCEL:
+                    var target = operation.getTargetOperation();
+                    var orderId = target >= 0 && target < orderIds.length ? orderIds[target] : null;
+                    if (orderId == null) {
+                        throw new IllegalStateException("Operation " + index + " cancels an order which has not been registered");
+                    }
+                    service.cancelRegisteredOrder(orderId);
+                    break;
+                case SUMMARY_POLL:
+                    service.getLiveOrderSummary();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation type " + operation.getType());
+            }
+        }
+
+        /**
+         * Parks until shortly before the scheduled time and spins for the rest, to start operations on time.
+         *
+         * @return false if interrupted
+         */
+        private boolean awaitSchedule(long scheduledNanos) {
+            long remainingNanos;
+            while ((remainingNanos = scheduledNanos - System.nanoTime()) > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                if (remainingNanos > SPIN_NANOS) {
+                    LockSupport.parkNanos(remainingNanos - SPIN_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+            return !Thread.currentThread().isInterrupted();
+        }
+
+        LoadReport report(long durationNanos) {
+            return LoadReport.builder()
+                    .operationCount(completedOperations.get())
+                    .failedOperations(failedOperations.get())
+                    .durationNanos(durationNanos)
+                    .responseTimes(snapshots(responseTimes))
+                    .serviceTimes(snapshots(serviceTimes))
+                    .build();
+        }
+
+        private Map<OperationType, LatencySnapshot> snapshots(Map<OperationType, LatencyHistogram> histograms) {
+            var snapshots = new EnumMap<OperationType, LatencySnapshot>(OperationType.class);
+            histograms.forEach((type, histogram) -> snapshots.put(type, histogram.snapshot()));
+            return snapshots;
+        }
+    }
+}
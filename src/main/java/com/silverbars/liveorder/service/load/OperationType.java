@@ -0,0 +1,7 @@
+package com.silverbars.liveorder.service.load;
+
+public enum OperationType {
+    REGISTER,
+    CANCEL,
+    SUMMARY_POLL
+}
@@ -0,0 +1,43 @@
+package com.silverbars.liveorder.service.load;
+
+import java.util.Random;
+
+/**
+ * How prices of generated orders spread over the levels of the book, level 0 being closest to the mid price.
+ * Only {@link StrictMath} is used, so the same seed produces the same levels on every platform.
+ */
+public enum PriceDistribution {
+
+    UNIFORM {
+        @Override
+        int levelOf(Random random, int bookDepth) {
+            return random.nextInt(bookDepth);
+        }
+    },
+
+    /**
+     * Half-normal distance from the mid price, two thirds of orders within the first third of the book.
+     */
+    NORMAL {
+        @Override
+        int levelOf(Random random, int bookDepth) {
+            return clamp(StrictMath.abs(random.nextGaussian()) * bookDepth / 3, bookDepth);
+        }
+    },
+
+    /**
+     * Exponentially decaying distance from the mid price, crowding orders at the top of the book.
+     */
+    TOP_HEAVY {
+        @Override
+        int levelOf(Random random, int bookDepth) {
+            return clamp(-StrictMath.log(1 - random.nextDouble()) * bookDepth / 8, bookDepth);
+        }
+    };
+
+    abstract int levelOf(Random random, int bookDepth);
+
+    private static int clamp(double level, int bookDepth) {
+        return (int) StrictMath.min(level, bookDepth - 1);
+    }
+}
@@ -0,0 +1,127 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file of recorded workload operations: header with the format version and number of operations,
+ * the operations in order and CRC32 of everything before it. Every operation has a single encoding, so writing
+ * the operations read from a file reproduces the file byte for byte.
+ */
+public class WorkloadFile {
+
+    private static final int WORKLOAD_MAGIC = 0x53424c57;
+    private static final int FORMAT_VERSION = 1;
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+
+    private WorkloadFile() {
+    }
+
+    public static void write(Path path, List<WorkloadOperation> operations) throws IOException {
+        var crc = new CRC32();
+        try (var output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(path)), crc))) {
+            output.writeInt(WORKLOAD_MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(operations.size());
+            for (var operation : operations) {
+                writeOperation(output, operation);
+            }
+            output.writeLong(crc.getValue());
+        }
+    }
+
+    /**
+     * @throws IOException if the file is not an intact workload file of this format version
+     */
+    public static List<WorkloadOperation> read(Path path) throws IOException {
+        var crc = new CRC32();
+        try (var input = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path)), crc))) {
+            if (input.readInt() != WORKLOAD_MAGIC) {
+                throw new IOException(path + " is not a workload file");
+            }
+            var formatVersion = input.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(path + " has unsupported format version " + formatVersion);
+            }
+            var operationCount = input.readInt();
+            var operations = new ArrayList<WorkloadOperation>(Math.max(0, Math.min(operationCount, 1 << 20)));
+            for (int i = 0; i < operationCount; i++) {
+                operations.add(readOperation(input, path));
+            }
+            var expectedCrc = crc.getValue();
+            if (input.readLong() != expectedCrc || input.read() != -1) {
+                throw new IOException(path + " is corrupted");
+            }
+            return operations;
+        } catch (EOFException e) {
+            throw new IOException(path + " is truncated", e);
+        }
+    }
+
+    private static void writeOperation(DataOutputStream output, WorkloadOperation operation) throws IOException {
+        output.writeByte(operation.getType().ordinal());
+        output.writeLong(operation.getScheduledNanos());
+        if (operation.getType() == OperationType.REGISTER) {
+            var order = operation.getOrder();
+            var unscaledPrice = order.getThousandGramsPrice().unscaledValue().toByteArray();
+            output.writeUTF(order.getUserId());
+            output.writeByte(order.getOrderType().ordinal());
+            output.writeInt(order.getThousandGramsPrice().scale());
+            output.writeShort(unscaledPrice.length);
+            output.write(unscaledPrice);
+            output.writeInt(order.getWeightInGrams());
+        } else if (operation.getType() == OperationType.CANCEL) {
+            output.writeInt(operation.getTargetOperation());
+        }
+    }
+
+    private static WorkloadOperation readOperation(DataInputStream input, Path path) throws IOException {
+        var typeOrdinal = input.readUnsignedByte();
+        if (typeOrdinal >= OPERATION_TYPES.length) {
+            throw new IOException(path + " is corrupted");
+        }
+        var operation = WorkloadOperation.builder()
+                .type(OPERATION_TYPES[typeOrdinal])
+                .scheduledNanos(input.readLong())
+                .targetOperation(WorkloadOperation.NO_TARGET);
+        if (OPERATION_TYPES[typeOrdinal] == OperationType.REGISTER) {
+            var userId = input.readUTF();
+            var orderTypeOrdinal = input.readUnsignedByte();
+            if (orderTypeOrdinal >= ORDER_TYPES.length) {
+                throw new IOException(path + " is corrupted");
+            }
+            var scale = input.readInt();
+            var unscaledPrice = new byte[input.readUnsignedShort()];
+            input.readFully(unscaledPrice);
+            if (unscaledPrice.length == 0) {
+                throw new IOException(path + " is corrupted");
+            }
+            operation.order(SilverBarOrder.builder()
+                    .userId(userId)
+                    .orderType(ORDER_TYPES[orderTypeOrdinal])
+                    .thousandGramsPrice(new BigDecimal(new BigInteger(unscaledPrice), scale))
+                    .weightInGrams(input.readInt())
+                    .build());
+        } else if (OPERATION_TYPES[typeOrdinal] == OperationType.CANCEL) {
+            operation.targetOperation(input.readInt());
+        }
+        return operation.build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the operations of a workload out of its spec. All choices are drawn from a single {@link Random}
+ * seeded with the seed of the spec, so a spec always generates the same operations.
+ * <p>
+ * A cancel targets a random order registered earlier and not cancelled yet, a cancel drawn while there is
+ * no such order becomes a register instead.
+ */
+public class WorkloadGenerator {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private WorkloadGenerator() {
+    }
+
+    public static List<WorkloadOperation> generate(WorkloadSpec spec) {
+        validate(spec);
+        var random = new Random(spec.getSeed());
+        var totalWeight = spec.getRegisterWeight() + spec.getCancelWeight() + spec.getSummaryPollWeight();
+        var operations = new ArrayList<WorkloadOperation>(spec.getOperationCount());
+        var liveRegisters = new LiveRegisters();
+        var scheduledSeconds = 0d;
+        for (int index = 0; index < spec.getOperationCount(); index++) {
+            scheduledSeconds += -StrictMath.log(1 - random.nextDouble()) / spec.getRatePerSecond();
+            var scheduledNanos = (long) (scheduledSeconds * NANOS_PER_SECOND);
+            var draw = random.nextInt(totalWeight);
+            if (draw < spec.getRegisterWeight() || draw < spec.getRegisterWeight() + spec.getCancelWeight() && liveRegisters.isEmpty()) {
+                operations.add(WorkloadOperation.builder()
+                        .scheduledNanos(scheduledNanos)
+                        .type(OperationType.REGISTER)
+                        .order(newOrder(spec, random))
+                        .targetOperation(WorkloadOperation.NO_TARGET)
+                        .build());
+                liveRegisters.add(index);
+            } else if (draw < spec.getRegisterWeight() + spec.getCancelWeight()) {
+                operations.add(WorkloadOperation.builder()
+                        .scheduledNanos(scheduledNanos)
+                        .type(OperationType.CANCEL)
+                        .targetOperation(liveRegisters.removeRandom(random))
+                        .build());
+            } else {
+                operations.add(WorkloadOperation.builder()
+                        .scheduledNanos(scheduledNanos)
+                        .type(OperationType.SUMMARY_POLL)
+                        .targetOperation(WorkloadOperation.NO_TARGET)
+                        .build());
+            }
+        }
+        return operations;
+    }
+
+    private static SilverBarOrder newOrder(WorkloadSpec spec, Random random) {
+        var orderType = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+        var ticksFromMid = BigDecimal.valueOf(spec.getPriceDistribution().levelOf(random, spec.getBookDepth()) + 1);
+        var priceOffset = spec.getTickSize().multiply(ticksFromMid);
+        return SilverBarOrder.builder()
+                .userId("user-" + random.nextInt(spec.getUserCount()))
+                .orderType(orderType)
+                .thousandGramsPrice(orderType == OrderType.BUY ? spec.getMidPrice().subtract(priceOffset) : spec.getMidPrice().add(priceOffset))
+                .weightInGrams(1 + random.nextInt(spec.getMaxWeightInGrams()))
+                .build();
+    }
+
+    private static void validate(WorkloadSpec spec) {
+        if (spec.getOperationCount() < 0) {
+            throw new IllegalArgumentException("operationCount cannot be negative");
+        }
+        if (!(spec.getRatePerSecond() > 0)) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+        if (spec.getRegisterWeight() < 0 || spec.getCancelWeight() < 0 || spec.getSummaryPollWeight() < 0) {
+            throw new IllegalArgumentException("operation weights cannot be negative");
+        }
+        if (spec.getRegisterWeight() + spec.getCancelWeight() + spec.getSummaryPollWeight() <= 0) {
+            throw new IllegalArgumentException("operation weights must add up to a positive number");
+        }
+        if (spec.getPriceDistribution() == null) {
+            throw new IllegalArgumentException("priceDistribution is not present");
+        }
+        if (spec.getMidPrice() == null) {
+            throw new IllegalArgumentException("midPrice is not present");
+        }
+        if (spec.getTickSize() == null) {
+            throw new IllegalArgumentException("tickSize is not present");
+        }
+        if (spec.getBookDepth() <= 0) {
+            throw new IllegalArgumentException("bookDepth must be positive");
+        }
+        if (spec.getUserCount() <= 0) {
+            throw new IllegalArgumentException("userCount must be positive");
+        }
+        if (spec.getMaxWeightInGrams() <= 0) {
+            throw new IllegalArgumentException("maxWeightInGrams must be positive");
+        }
+    }
+
+    /**
+     * Indexes of register operations whose orders are not cancelled yet, picked at random in constant time.
+     */
+    private static class LiveRegisters {
+
+        private int[] indexes = new int[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int index) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+
+        int removeRandom(Random random) {
+            var position = random.nextInt(size);
+            var index = indexes[position];
+            indexes[position] = indexes[--size];
+            return index;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Operation of a workload due scheduledNanos after the start of the run. A register carries the new order,
+ * a cancel the index of the register operation whose order it cancels.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+public class WorkloadOperation {
+
+    public static final int NO_TARGET = -1;
+
+    private long scheduledNanos;
+    private OperationType type;
+    private SilverBarOrder order;
+    private int targetOperation;
+}
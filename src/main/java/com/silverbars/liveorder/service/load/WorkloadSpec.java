@@ -0,0 +1,31 @@
+package com.silverbars.liveorder.service.load;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Parameters of a generated workload. Operations arrive at ratePerSecond on average, as a Poisson process, and are
+ * drawn in proportion to their weights. Buy orders are priced below and sell orders above the mid price, a whole
+ * number of ticks up to bookDepth away from it.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+public class WorkloadSpec {
+
+    private long seed;
+    private int operationCount;
+    private double ratePerSecond;
+    private int registerWeight;
+    private int cancelWeight;
+    private int summaryPollWeight;
+    private PriceDistribution priceDistribution;
+    private BigDecimal midPrice;
+    private BigDecimal tickSize;
+    private int bookDepth;
+    private int userCount;
+    private int maxWeightInGrams;
+}
@@ -0,0 +1,82 @@
+package com.silverbars.liveorder.service.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exposes metrics through the platform MBean server. Every attribute read takes a fresh snapshot.
+ */
+public class JmxOrderServiceMetrics implements OrderServiceMetricsMXBean {
+
+    public static final String DEFAULT_OBJECT_NAME = "com.silverbars.liveorder:type=OrderServiceMetrics";
+
+    private final RecordingOrderServiceMetrics metrics;
+
+    JmxOrderServiceMetrics(RecordingOrderServiceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return name the metrics were registered under, to unregister them later
+     */
+    public static ObjectName register(RecordingOrderServiceMetrics metrics, String objectName) {
+        try {
+            var name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new JmxOrderServiceMetrics(metrics), name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register order service metrics as " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getRegisteredOrders() {
+        return metrics.snapshot().getRegisteredOrders();
+    }
+
+    @Override
+    public long getRejectedOrders() {
+        return metrics.snapshot().getRejectedOrders();
+    }
+
+    @Override
+    public long getCancelledOrders() {
+        return metrics.snapshot().getCancelledOrders();
+    }
+
+    @Override
+    public long getUnknownOrderCancels() {
+        return metrics.snapshot().getUnknownOrderCancels();
+    }
+
+    @Override
+    public long getLiveOrders() {
+        return metrics.snapshot().getLiveOrders();
+    }
+
+    @Override
+    public long getBuyLevels() {
+        return metrics.snapshot().getBuyLevels();
+    }
+
+    @Override
+    public long getSellLevels() {
+        return metrics.snapshot().getSellLevels();
+    }
+
+    @Override
+    public LatencySnapshot getRegisterLatency() {
+        return metrics.snapshot().getRegisterLatency();
+    }
+
+    @Override
+    public LatencySnapshot getCancelLatency() {
+        return metrics.snapshot().getCancelLatency();
+    }
+
+    @Override
+    public LatencySnapshot getSummaryLatency() {
+        return metrics.snapshot().getSummaryLatency();
+    }
+}
@@ -0,0 +1,97 @@
+package com.silverbars.liveorder.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent log-linear histogram of latencies in nanoseconds, in the spirit of HdrHistogram.
+ * Every power of two range is split into 32 linear buckets, so a recorded value is known within about 3%.
+ * Recording is allocation-free: it only increments preallocated counters. Values above an hour are counted
+ * in the last bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_TRACKED_NANOS = 3_600_000_000_000L;
+    private static final int BUCKETS = bucketOf(MAX_TRACKED_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * Records the same value count times at the cost of recording it once.
+     */
+    public void record(long nanos, long count) {
+        var value = Math.max(nanos, 0);
+        counts.addAndGet(bucketOf(Math.min(value, MAX_TRACKED_NANOS)), count);
+        totalNanos.addAndGet(value * count);
+        if (value < minNanos.get()) {
+            minNanos.accumulateAndGet(value, Math::min);
+        }
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Percentiles are reported as the highest value of the bucket they fall in. Values recorded concurrently
+     * with taking the snapshot may be only partially reflected.
+     */
+    public LatencySnapshot snapshot() {
+        var bucketCounts = new long[BUCKETS];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            bucketCounts[bucket] = counts.get(bucket);
+            count += bucketCounts[bucket];
+        }
+        if (count == 0) {
+            return LatencySnapshot.builder().build();
+        }
+        return LatencySnapshot.builder()
+                .count(count)
+                .minNanos(minNanos.get())
+                .maxNanos(maxNanos.get())
+                .meanNanos((double) totalNanos.get() / count)
+                .p50Nanos(percentile(bucketCounts, count, 50))
+                .p90Nanos(percentile(bucketCounts, count, 90))
+                .p99Nanos(percentile(bucketCounts, count, 99))
+                .p999Nanos(percentile(bucketCounts, count, 99.9))
+                .build();
+    }
+
+    private static long percentile(long[] bucketCounts, long count, double percentile) {
+        var rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank) {
+                return highestValueOf(bucket);
+            }
+        }
+        return highestValueOf(bucketCounts.length - 1);
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        var shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (int) (shift * SUB_BUCKETS + (value >>> shift));
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        var shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
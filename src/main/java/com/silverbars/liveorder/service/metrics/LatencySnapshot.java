@@ -0,0 +1,20 @@
+package com.silverbars.liveorder.service.metrics;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+public class LatencySnapshot {
+
+    private long count;
+    private long minNanos;
+    private long maxNanos;
+    private double meanNanos;
+    private long p50Nanos;
+    private long p90Nanos;
+    private long p99Nanos;
+    private long p999Nanos;
+}
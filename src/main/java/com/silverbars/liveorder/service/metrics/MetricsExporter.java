@@ -0,0 +1,9 @@
+package com.silverbars.liveorder.service.metrics;
+
+/**
+ * Pushes metrics to a monitoring system, called periodically by {@link ScheduledMetricsExport}.
+ */
+public interface MetricsExporter {
+
+    void export(OrderServiceMetricsSnapshot snapshot);
+}
@@ -0,0 +1,50 @@
+package com.silverbars.liveorder.service.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Instrumentation points of the order service. Operations pass the value of {@link #startTime()} taken when they
+ * began, so that an implementation which does not measure latency does not even read the clock.
+ */
+public interface OrderServiceMetrics {
+
+    /**
+     * Discards everything, for services running without metrics.
+     */
+    OrderServiceMetrics NOOP = new OrderServiceMetrics() {
+    };
+
+    default long startTime() {
+        return 0;
+    }
+
+    default void orderRegistered(long startTime) {
+    }
+
+    /**
+     * Orders registered in a batch, the latency of the batch being spread evenly over its orders.
+     */
+    default void ordersRegistered(long startTime, int count) {
+    }
+
+    default void orderRejected() {
+    }
+
+    /**
+     * @param known false if there was no live order with cancelled orderId
+     */
+    default void orderCancelled(long startTime, boolean known) {
+    }
+
+    /**
+     * Orders cancelled in a batch, the latency of the batch being spread evenly over its cancels.
+     */
+    default void ordersCancelled(long startTime, int cancelledCount, int unknownCount) {
+    }
+
+    default void summaryServed(long startTime) {
+    }
+
+    default void bindGauges(LongSupplier liveOrders, LongSupplier buyLevels, LongSupplier sellLevels) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.silverbars.liveorder.service.metrics;
+
+/**
+ * JMX view of order service metrics, latencies are exposed as composite data.
+ */
+public interface OrderServiceMetricsMXBean {
+
+    long getRegisteredOrders();
+
+    long getRejectedOrders();
+
+    long getCancelledOrders();
+
+    long getUnknownOrderCancels();
+
+    long getLiveOrders();
+
+    long getBuyLevels();
+
+    long getSellLevels();
+
+    LatencySnapshot getRegisterLatency();
+
+    LatencySnapshot getCancelLatency();
+
+    LatencySnapshot getSummaryLatency();
+}
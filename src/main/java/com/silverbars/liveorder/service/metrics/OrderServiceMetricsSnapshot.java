@@ -0,0 +1,22 @@
+package com.silverbars.liveorder.service.metrics;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+public class OrderServiceMetricsSnapshot {
+
+    private long registeredOrders;
+    private long rejectedOrders;
+    private long cancelledOrders;
+    private long unknownOrderCancels;
+    private long liveOrders;
+    private long buyLevels;
+    private long sellLevels;
+    private LatencySnapshot registerLatency;
+    private LatencySnapshot cancelLatency;
+    private LatencySnapshot summaryLatency;
+}
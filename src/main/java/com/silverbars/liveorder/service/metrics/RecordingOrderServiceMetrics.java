@@ -0,0 +1,91 @@
+package com.silverbars.liveorder.service.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts operations in {@link LongAdder}s and records their latencies in {@link LatencyHistogram}s,
+ * neither of which allocates when recording. Every order of a batch is recorded with the latency of the batch
+ * divided by its size, so that batched operations show in the same histograms as single ones.
+ */
+public class RecordingOrderServiceMetrics implements OrderServiceMetrics {
+
+    private final LongAdder registeredOrders = new LongAdder();
+    private final LongAdder rejectedOrders = new LongAdder();
+    private final LongAdder cancelledOrders = new LongAdder();
+    private final LongAdder unknownOrderCancels = new LongAdder();
+    private final LatencyHistogram registerLatency = new LatencyHistogram();
+    private final LatencyHistogram cancelLatency = new LatencyHistogram();
+    private final LatencyHistogram summaryLatency = new LatencyHistogram();
+    private volatile LongSupplier liveOrders = () -> 0;
+    private volatile LongSupplier buyLevels = () -> 0;
+    private volatile LongSupplier sellLevels = () -> 0;
+
+    @Override
+    public long startTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void orderRegistered(long startTime) {
+        registeredOrders.increment();
+        registerLatency.record(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void ordersRegistered(long startTime, int count) {
+        registeredOrders.add(count);
+        recordAmortized(registerLatency, startTime, count);
+    }
+
+    @Override
+    public void orderRejected() {
+        rejectedOrders.increment();
+    }
+
+    @Override
+    public void orderCancelled(long startTime, boolean known) {
+        (known ? cancelledOrders : unknownOrderCancels).increment();
+        cancelLatency.record(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void ordersCancelled(long startTime, int cancelledCount, int unknownCount) {
+        cancelledOrders.add(cancelledCount);
+        unknownOrderCancels.add(unknownCount);
+        recordAmortized(cancelLatency, startTime, cancelledCount + unknownCount);
+    }
+
+    private static void recordAmortized(LatencyHistogram latency, long startTime, int count) {
+        if (count > 0) {
+            latency.record((System.nanoTime() - startTime) / count, count);
+        }
+    }
+
+    @Override
+    public void summaryServed(long startTime) {
+        summaryLatency.record(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void bindGauges(LongSupplier liveOrders, LongSupplier buyLevels, LongSupplier sellLevels) {
+        this.liveOrders = liveOrders;
+        this.buyLevels = buyLevels;
+        this.sellLevels = sellLevels;
+    }
+
+    public OrderServiceMetricsSnapshot snapshot() {
+        return OrderServiceMetricsSnapshot.builder()
+                .registeredOrders(registeredOrders.sum())
+                .rejectedOrders(rejectedOrders.sum())
+                .cancelledOrders(cancelledOrders.sum())
+                .unknownOrderCancels(unknownOrderCancels.sum())
+                .liveOrders(liveOrders.getAsLong())
+                .buyLevels(buyLevels.getAsLong())
+                .sellLevels(sellLevels.getAsLong())
+                .registerLatency(registerLatency.snapshot())
+                .cancelLatency(cancelLatency.snapshot())
+                .summaryLatency(summaryLatency.snapshot())
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.silverbars.liveorder.service.metrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes a snapshot of metrics to the exporter every interval on a background thread until closed.
+ */
+public class ScheduledMetricsExport implements Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(ScheduledMetricsExport.class.getName());
+
+    private final RecordingOrderServiceMetrics metrics;
+    private final MetricsExporter exporter;
+    private final ScheduledExecutorService scheduler;
+
+    public ScheduledMetricsExport(RecordingOrderServiceMetrics metrics, MetricsExporter exporter, Duration interval) {
+        this.metrics = metrics;
+        this.exporter = exporter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "order-metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::export, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void export() {
+        try {
+            exporter.export(metrics.snapshot());
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Order service metrics export failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+}
@@ -3,29 +3,82 @@ package com.silverbars.liveorder.service.repository;
 import com.silverbars.liveorder.service.domain.SilverBarOrder;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.function.Predicate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Orders are additionally indexed by userId. An order is added to the index before it becomes visible by orderId
+ * and removed from it only if the index still holds that very instance, so concurrent changes of the same orderId
+ * leave exactly the live order indexed.
+ */
 public class InMemorySilverBarOrderRepository implements SilverBarOrderRepository {
 
-    private HashSet<SilverBarOrder> orders = new HashSet<>();
+    private Map<String, SilverBarOrder> ordersById = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Map<String, SilverBarOrder>> ordersByUserId = new ConcurrentHashMap<>();
 
     @Override
     public void saveOrder(SilverBarOrder order) {
-        orders.add(order);
+        ordersById.compute(order.getOrderId(), (orderId, replacedOrder) -> {
+            if (replacedOrder != null) {
+                removeFromUserIndex(replacedOrder);
+            }
+            addToUserIndex(order);
+            return order;
+        });
     }
 
     @Override
-    public void cancelOrder(String orderId) {
-        orders.removeIf(orderWithGivenId(orderId));
+    public boolean cancelOrder(String orderId) {
+        var order = ordersById.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        removeFromUserIndex(order);
+        return true;
     }
 
-    private Predicate<SilverBarOrder> orderWithGivenId(String orderId) {
-        return order -> order.getOrderId().equals(orderId);
+    private void addToUserIndex(SilverBarOrder order) {
+        if (order.getUserId() != null) {
+            ordersByUserId.compute(order.getUserId(), (userId, userOrders) -> {
+                if (userOrders == null) {
+                    userOrders = new ConcurrentHashMap<>();
+                }
+                userOrders.put(order.getOrderId(), order);
+                return userOrders;
+            });
+        }
+    }
+
+    private void removeFromUserIndex(SilverBarOrder order) {
+        if (order.getUserId() != null) {
+            ordersByUserId.computeIfPresent(order.getUserId(), (userId, userOrders) -> {
+                userOrders.computeIfPresent(order.getOrderId(), (orderId, indexedOrder) -> indexedOrder == order ? null : indexedOrder);
+                return userOrders.isEmpty() ? null : userOrders;
+            });
+        }
+    }
+
+    @Override
+    public Optional<SilverBarOrder> findOrder(String orderId) {
+        return Optional.ofNullable(ordersById.get(orderId));
+    }
+
+    @Override
+    public boolean containsOrder(String orderId) {
+        return ordersById.containsKey(orderId);
+    }
+
+    @Override
+    public Collection<SilverBarOrder> findUserOrders(String userId) {
+        var userOrders = ordersByUserId.get(userId);
+        return userOrders == null ? List.of() : List.copyOf(userOrders.values());
     }
 
     @Override
     public Collection<SilverBarOrder> getAllOrders() {
-        return orders;
+        return Collections.unmodifiableCollection(ordersById.values());
     }
 }
@@ -3,12 +3,66 @@ package com.silverbars.liveorder.service.repository;
 import com.silverbars.liveorder.service.domain.SilverBarOrder;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public interface SilverBarOrderRepository {
 
+    /**
+     * Checks up front that the order can be saved, so that a batch can reject such an order alone.
+     *
+     * @throws IllegalArgumentException if the order cannot be saved in this repository
+     */
+    default void validateOrder(SilverBarOrder order) {
+    }
+
     void saveOrder(SilverBarOrder order);
 
-    void cancelOrder(String orderId);
+    /**
+     * @return true if order with given orderId existed and has been removed, false for unknown orderId
+     */
+    boolean cancelOrder(String orderId);
+
+    /**
+     * Saves all orders at once, implementations may apply the batch at a lower cost than order by order.
+     */
+    default void saveOrders(Collection<SilverBarOrder> orders) {
+        orders.forEach(this::saveOrder);
+    }
+
+    /**
+     * @return result of {@link #cancelOrder(String)} for every orderId, in the same order
+     */
+    default List<Boolean> cancelOrders(Collection<String> orderIds) {
+        return orderIds.stream()
+                .map(this::cancelOrder)
+                .collect(Collectors.toList());
+    }
+
+    Optional<SilverBarOrder> findOrder(String orderId);
+
+    /**
+     * @return true if order with given orderId is live, implementations answer without creating the order's view
+     */
+    default boolean containsOrder(String orderId) {
+        return findOrder(orderId).isPresent();
+    }
+
+    /**
+     * @return live orders of given user, found in time proportional to their number
+     */
+    Collection<SilverBarOrder> findUserOrders(String userId);
 
     Collection<SilverBarOrder> getAllOrders();
+
+    /**
+     * Passes every live order to the consumer, implementations may walk orders without holding writers off until
+     * the walk ends. The walk is weakly consistent: orders not changed meanwhile are passed exactly once, orders
+     * changed meanwhile may be passed in any of their versions, more than once or not at all.
+     */
+    default void forEachOrder(Consumer<SilverBarOrder> consumer) {
+        getAllOrders().forEach(consumer);
+    }
 }
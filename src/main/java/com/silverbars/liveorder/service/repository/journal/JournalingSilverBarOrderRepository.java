@@ -0,0 +1,269 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.SilverBarOrderRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Makes orders of the decorated repository survive restarts. Every change is written to the {@link OrderJournal}
+ * and on creation the decorated repository is restored from the latest snapshot and the journal tail after it.
+ * <p>
+ * A change is written to the journal and only then applied to the decorated repository, both under a single lock,
+ * so the journal holds changes in the order they were applied and a change failing to be journaled is never applied.
+ * Writers wait for durability outside of the lock and still share fsyncs.
+ * <p>
+ * A snapshot takes the journal position under the same lock and copies live orders after releasing it, so writers
+ * are not held off by the copy. The snapshot holds every change positioned before it and possibly some positioned
+ * after, which is harmless, as replaying the journal tail from the snapshot's position applies each of them again
+ * in order and the last change of every order wins.
+ */
+public class JournalingSilverBarOrderRepository implements SilverBarOrderRepository, Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(JournalingSilverBarOrderRepository.class.getName());
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final SilverBarOrderRepository delegate;
+    private final Path journalDirectory;
+    private final OrderJournal journal;
+    private final Object changeLock = new Object();
+    private final Object snapshotLock = new Object();
+    private ScheduledExecutorService snapshotScheduler;
+
+    public JournalingSilverBarOrderRepository(SilverBarOrderRepository delegate, Path journalDirectory, long segmentSizeBytes) {
+        this(delegate, journalDirectory, segmentSizeBytes, FileChannel::open);
+    }
+
+    JournalingSilverBarOrderRepository(SilverBarOrderRepository delegate, Path journalDirectory, long segmentSizeBytes,
+                                       OrderJournal.SegmentOpener segmentOpener) {
+        this.delegate = delegate;
+        this.journalDirectory = journalDirectory;
+        var listener = replayingListener(delegate);
+        var snapshotPosition = loadLatestSnapshot(listener);
+        this.journal = OrderJournal.open(journalDirectory, segmentSizeBytes, snapshotPosition, listener, segmentOpener);
+    }
+
+    /**
+     * Additionally takes a snapshot in the background every snapshotInterval.
+     */
+    public JournalingSilverBarOrderRepository(SilverBarOrderRepository delegate, Path journalDirectory, long segmentSizeBytes, Duration snapshotInterval) {
+        this(delegate, journalDirectory, segmentSizeBytes);
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "order-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::takeScheduledSnapshot,
+                snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static OrderJournalListener replayingListener(SilverBarOrderRepository repository) {
+        return new OrderJournalListener() {
+            @Override
+            public void orderSaved(SilverBarOrder order) {
+                repository.saveOrder(order);
+            }
+
+            @Override
+            public void orderCancelled(String orderId) {
+                repository.cancelOrder(orderId);
+            }
+        };
+    }
+
+    @Override
+    public void validateOrder(SilverBarOrder order) {
+        delegate.validateOrder(order);
+    }
+
+    /**
+     * The order is validated by the decorated repository before it is journaled, so that replay can always apply it.
+     */
+    @Override
+    public void saveOrder(SilverBarOrder order) {
+        delegate.validateOrder(order);
+        long position;
+        synchronized (changeLock) {
+            position = journal.writeOrderSaved(order);
+            delegate.saveOrder(order);
+        }
+        journal.awaitDurable(position);
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+        long position;
+        synchronized (changeLock) {
+            if (!delegate.containsOrder(orderId)) {
+                return false;
+            }
+            position = journal.writeOrderCancelled(orderId);
+            delegate.cancelOrder(orderId);
+        }
+        journal.awaitDurable(position);
+        return true;
+    }
+
+    /**
+     * Journals the whole batch with a single fsync. The journal writes a batch all or nothing, so if journaling fails,
+     * none of the orders is saved, neither here nor after a restart.
+     */
+    @Override
+    public void saveOrders(Collection<SilverBarOrder> orders) {
+        orders.forEach(delegate::validateOrder);
+        long position;
+        synchronized (changeLock) {
+            position = journal.writeOrdersSaved(orders);
+            delegate.saveOrders(orders);
+        }
+        journal.awaitDurable(position);
+    }
+
+    /**
+     * Journals cancellations of the whole batch with a single fsync. The journal writes a batch all or nothing, so if
+     * journaling fails, none of the orders is cancelled, neither here nor after a restart.
+     */
+    @Override
+    public List<Boolean> cancelOrders(Collection<String> orderIds) {
+        var orderIdList = List.copyOf(orderIds);
+        List<Boolean> results;
+        long position;
+        synchronized (changeLock) {
+            var liveOrderIds = orderIdList.stream()
+                    .filter(delegate::containsOrder)
+                    .collect(Collectors.toList());
+            position = journal.writeOrdersCancelled(liveOrderIds);
+            results = delegate.cancelOrders(orderIdList);
+        }
+        journal.awaitDurable(position);
+        return results;
+    }
+
+    @Override
+    public Optional<SilverBarOrder> findOrder(String orderId) {
+        return delegate.findOrder(orderId);
+    }
+
+    @Override
+    public boolean containsOrder(String orderId) {
+        return delegate.containsOrder(orderId);
+    }
+
+    @Override
+    public Collection<SilverBarOrder> findUserOrders(String userId) {
+        return delegate.findUserOrders(userId);
+    }
+
+    @Override
+    public Collection<SilverBarOrder> getAllOrders() {
+        return delegate.getAllOrders();
+    }
+
+    @Override
+    public void forEachOrder(Consumer<SilverBarOrder> consumer) {
+        delegate.forEachOrder(consumer);
+    }
+
+    /**
+     * Writes live orders to a snapshot file, holding writes off only while the journal position is taken. Orders are
+     * copied by {@link SilverBarOrderRepository#forEachOrder(Consumer)} of the decorated repository, keeping the last
+     * version of an order passed more than once. Afterwards the two latest snapshots are kept, together with journal
+     * segments needed to replay the older of them, should the latest one turn out corrupted.
+     */
+    public void takeSnapshot() {
+        synchronized (snapshotLock) {
+            try {
+                long position;
+                synchronized (changeLock) {
+                    position = journal.position();
+                }
+                var ordersById = new LinkedHashMap<String, SilverBarOrder>();
+                delegate.forEachOrder(order -> ordersById.put(order.getOrderId(), order));
+                journal.awaitDurable(journal.position());
+                OrderSnapshotFile.write(snapshotPath(position), position, ordersById.values());
+                var snapshotPositions = listSnapshotPositions();
+                if (snapshotPositions.size() > 1) {
+                    journal.deleteSegmentsBefore(snapshotPositions.get(1));
+                    for (var obsoletePosition : snapshotPositions.subList(2, snapshotPositions.size())) {
+                        Files.delete(snapshotPath(obsoletePosition));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot take order snapshot in " + journalDirectory, e);
+            }
+        }
+    }
+
+    private void takeScheduledSnapshot() {
+        try {
+            takeSnapshot();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Scheduled order snapshot failed", e);
+        }
+    }
+
+    private long loadLatestSnapshot(OrderJournalListener listener) {
+        try {
+            for (var position : listSnapshotPositions()) {
+                var snapshotPosition = OrderSnapshotFile.read(snapshotPath(position), listener);
+                if (snapshotPosition.isPresent()) {
+                    return snapshotPosition.getAsLong();
+                }
+                LOGGER.log(System.Logger.Level.WARNING, "Skipping corrupted order snapshot " + snapshotPath(position));
+            }
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load order snapshot from " + journalDirectory, e);
+        }
+    }
+
+    /**
+     * @return positions of snapshots in the journal directory, latest first
+     */
+    private List<Long> listSnapshotPositions() throws IOException {
+        if (!Files.isDirectory(journalDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(SNAPSHOT_SUFFIX))
+                    .map(fileName -> Long.parseLong(fileName.substring(0, fileName.length() - SNAPSHOT_SUFFIX.length())))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path snapshotPath(long position) {
+        return journalDirectory.resolve(String.format("%020d%s", position, SNAPSHOT_SUFFIX));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            try {
+                snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,393 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary journal of order events split into segment files.
+ * <p>
+ * Every append returns once the event is durable. Appends waiting for durability at the same time share a single
+ * fsync (group commit): one of them forces the segment while the others wait for its result.
+ * Segments are addressed by their start position in the whole journal, which is also their file name.
+ * On open the journal is replayed through memory-mapped segments and a torn record left at the tail by a crash
+ * is truncated.
+ * <p>
+ * Events appended together are written all or nothing. A batch is never split across segments, a segment is rolled
+ * before a batch not fitting in it, so a batch larger than a segment fills one alone. If writing fails, the segment is
+ * truncated back to where the batch started and later appends continue from there. Should even that fail,
+ * or should a segment fail to roll, the journal rejects every further append, as appending after a torn record would
+ * lose it on replay.
+ */
+public class OrderJournal implements Closeable {
+
+    private static final int SEGMENT_MAGIC = 0x53424f4a;
+    private static final int SEGMENT_HEADER_BYTES = Integer.BYTES;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * Opens channels of segments being appended to.
+     */
+    interface SegmentOpener {
+
+        FileChannel open(Path path, OpenOption... options) throws IOException;
+    }
+
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final SegmentOpener segmentOpener;
+
+    private final Object appendLock = new Object();
+    private FileChannel segment;
+    private long segmentStart;
+    private long appendedPosition;
+    private IOException appendFailure;
+
+    private final Object syncMonitor = new Object();
+    private long durablePosition;
+    private boolean syncInProgress;
+
+    private OrderJournal(Path directory, long segmentSizeBytes, SegmentOpener segmentOpener) {
+        if (segmentSizeBytes <= SEGMENT_HEADER_BYTES || segmentSizeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSizeBytes must be between " + SEGMENT_HEADER_BYTES + " and " + Integer.MAX_VALUE);
+        }
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.segmentOpener = segmentOpener;
+    }
+
+    /**
+     * Opens journal in given directory, creating it if needed, and replays all journaled events to the listener.
+     */
+    public static OrderJournal open(Path directory, long segmentSizeBytes, OrderJournalListener listener) {
+        return open(directory, segmentSizeBytes, 0, listener);
+    }
+
+    /**
+     * Opens journal in given directory, creating it if needed, and replays events journaled from given position on.
+     */
+    public static OrderJournal open(Path directory, long segmentSizeBytes, long fromPosition, OrderJournalListener listener) {
+        return open(directory, segmentSizeBytes, fromPosition, listener, FileChannel::open);
+    }
+
+    static OrderJournal open(Path directory, long segmentSizeBytes, long fromPosition, OrderJournalListener listener,
+                             SegmentOpener segmentOpener) {
+        var journal = new OrderJournal(directory, segmentSizeBytes, segmentOpener);
+        try {
+            Files.createDirectories(directory);
+            journal.replay(fromPosition, listener);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open order journal in " + directory, e);
+        }
+        return journal;
+    }
+
+    /**
+     * @return position right after the last appended event
+     */
+    public long position() {
+        synchronized (appendLock) {
+            return appendedPosition;
+        }
+    }
+
+    /**
+     * Deletes segments holding only events positioned before given position, which are no longer needed for replay.
+     */
+    public void deleteSegmentsBefore(long position) {
+        try {
+            var segmentStarts = listSegmentStarts();
+            for (int i = 0; i + 1 < segmentStarts.size() && segmentStarts.get(i + 1) <= position; i++) {
+                Files.delete(segmentPath(segmentStarts.get(i)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete order journal segments in " + directory, e);
+        }
+    }
+
+    public void appendOrderSaved(SilverBarOrder order) {
+        awaitDurable(writeOrderSaved(order));
+    }
+
+    public void appendOrderCancelled(String orderId) {
+        awaitDurable(writeOrderCancelled(orderId));
+    }
+
+    /**
+     * Appends events of all orders and returns once the last of them is durable, paying for a single fsync.
+     */
+    public void appendOrdersSaved(Collection<SilverBarOrder> orders) {
+        awaitDurable(writeOrdersSaved(orders));
+    }
+
+    /**
+     * Appends events of all orderIds and returns once the last of them is durable, paying for a single fsync.
+     */
+    public void appendOrdersCancelled(Collection<String> orderIds) {
+        awaitDurable(writeOrdersCancelled(orderIds));
+    }
+
+    /**
+     * Appends the event without waiting for it to become durable, see {@link #awaitDurable(long)}.
+     *
+     * @return position right after the event
+     */
+    public long writeOrderSaved(SilverBarOrder order) {
+        return write(List.of(OrderJournalCodec.encodeOrderSaved(order)));
+    }
+
+    /**
+     * Appends the event without waiting for it to become durable, see {@link #awaitDurable(long)}.
+     *
+     * @return position right after the event
+     */
+    public long writeOrderCancelled(String orderId) {
+        return write(List.of(OrderJournalCodec.encodeOrderCancelled(orderId)));
+    }
+
+    /**
+     * Appends events of all orders without waiting for them to become durable, see {@link #awaitDurable(long)}.
+     *
+     * @return position right after the last event, 0 if there are no orders
+     */
+    public long writeOrdersSaved(Collection<SilverBarOrder> orders) {
+        return write(orders.stream()
+                .map(OrderJournalCodec::encodeOrderSaved)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Appends events of all orderIds without waiting for them to become durable, see {@link #awaitDurable(long)}.
+     *
+     * @return position right after the last event, 0 if there are no orderIds
+     */
+    public long writeOrdersCancelled(Collection<String> orderIds) {
+        return write(orderIds.stream()
+                .map(OrderJournalCodec::encodeOrderCancelled)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns once every event positioned before given position is durable, sharing the fsync with other threads
+     * waiting at the same time.
+     */
+    public void awaitDurable(long position) {
+        try {
+            syncUpTo(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync order journal in " + directory, e);
+        }
+    }
+
+    private long write(List<ByteBuffer> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        synchronized (appendLock) {
+            if (appendFailure != null) {
+                throw new UncheckedIOException("Order journal in " + directory + " rejects appends after a failed write", appendFailure);
+            }
+            var batchBytes = records.stream().mapToLong(ByteBuffer::remaining).sum();
+            if (appendedPosition - segmentStart + batchBytes > segmentSizeBytes
+                    && appendedPosition - segmentStart > SEGMENT_HEADER_BYTES) {
+                rollSegment();
+            }
+            try {
+                for (var record : records) {
+                    writeFully(segment, record);
+                }
+            } catch (IOException e) {
+                discardBatch(e);
+                throw new UncheckedIOException("Cannot append to order journal in " + directory, e);
+            }
+            appendedPosition += batchBytes;
+            return appendedPosition;
+        }
+    }
+
+    /**
+     * Truncates whatever part of the batch has been written, appendedPosition still points where the batch started.
+     */
+    private void discardBatch(IOException writeFailure) {
+        try {
+            segment.truncate(appendedPosition - segmentStart);
+            segment.position(appendedPosition - segmentStart);
+        } catch (IOException e) {
+            writeFailure.addSuppressed(e);
+            appendFailure = writeFailure;
+        }
+    }
+
+    private void syncUpTo(long position) throws IOException {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (durablePosition < position && syncInProgress) {
+                    waitForSync();
+                }
+                if (durablePosition >= position) {
+                    return;
+                }
+                syncInProgress = true;
+            }
+            syncAppended();
+        }
+    }
+
+    private void syncAppended() throws IOException {
+        long syncedPosition = 0;
+        try {
+            FileChannel segmentToSync;
+            synchronized (appendLock) {
+                segmentToSync = segment;
+                syncedPosition = appendedPosition;
+            }
+            try {
+                segmentToSync.force(false);
+            } catch (ClosedChannelException e) {
+                // segment rolled meanwhile, rolling forces it before closing
+            }
+        } finally {
+            synchronized (syncMonitor) {
+                durablePosition = Math.max(durablePosition, syncedPosition);
+                syncInProgress = false;
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void waitForSync() throws InterruptedIOException {
+        try {
+            syncMonitor.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for order journal sync");
+        }
+    }
+
+    /**
+     * Forces and closes the current segment and starts a new one at appendedPosition. A failure leaves no segment
+     * to append to, so it fails the journal.
+     */
+    private void rollSegment() {
+        try {
+            segment.force(false);
+            segment.close();
+            synchronized (syncMonitor) {
+                durablePosition = Math.max(durablePosition, appendedPosition);
+                syncMonitor.notifyAll();
+            }
+            createSegment(appendedPosition);
+        } catch (IOException e) {
+            appendFailure = e;
+            throw new UncheckedIOException("Cannot roll order journal segment in " + directory, e);
+        }
+    }
+
+    private void createSegment(long start) throws IOException {
+        segment = segmentOpener.open(segmentPath(start), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        writeFully(segment, ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(0, SEGMENT_MAGIC));
+        segmentStart = start;
+        appendedPosition = start + SEGMENT_HEADER_BYTES;
+    }
+
+    private void replay(long fromPosition, OrderJournalListener listener) throws IOException {
+        var segmentStarts = listSegmentStarts();
+        if (!segmentStarts.isEmpty() && segmentStarts.get(0) > fromPosition) {
+            throw new IllegalStateException("Order journal in " + directory + " does not reach back to position " + fromPosition);
+        }
+        for (int i = 0; i < segmentStarts.size(); i++) {
+            var start = segmentStarts.get(i);
+            var isLastSegment = i == segmentStarts.size() - 1;
+            if (!isLastSegment && segmentStarts.get(i + 1) <= fromPosition) {
+                continue;
+            }
+            var validEnd = replaySegment(start, Math.max(fromPosition - start, SEGMENT_HEADER_BYTES), listener);
+            if (isLastSegment) {
+                reopenForAppend(start, validEnd);
+            } else if (validEnd < Files.size(segmentPath(start))) {
+                throw new IllegalStateException("Corrupted order journal segment: " + segmentPath(start));
+            }
+        }
+        if (segment == null) {
+            createSegment(fromPosition);
+        }
+        durablePosition = appendedPosition;
+    }
+
+    /**
+     * @return offset right after the last intact record of the segment
+     */
+    private long replaySegment(long start, long fromOffset, OrderJournalListener listener) throws IOException {
+        var path = segmentPath(start);
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < SEGMENT_HEADER_BYTES) {
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != SEGMENT_MAGIC) {
+                throw new IllegalStateException("Not an order journal segment: " + path);
+            }
+            buffer.position((int) Math.min(fromOffset, channel.size()));
+            while (OrderJournalCodec.decode(buffer, listener)) {
+                // decode passes each event to the listener
+            }
+            return buffer.position();
+        }
+    }
+
+    private void reopenForAppend(long start, long validEnd) throws IOException {
+        segment = segmentOpener.open(segmentPath(start), StandardOpenOption.WRITE);
+        segmentStart = start;
+        if (validEnd < SEGMENT_HEADER_BYTES) {
+            segment.truncate(0);
+            writeFully(segment, ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(0, SEGMENT_MAGIC));
+        } else {
+            segment.truncate(validEnd);
+            segment.position(validEnd);
+        }
+        appendedPosition = start + segment.position();
+    }
+
+    private List<Long> listSegmentStarts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(SEGMENT_SUFFIX))
+                    .map(fileName -> Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentPath(long start) {
+        return directory.resolve(String.format("%020d%s", start, SEGMENT_SUFFIX));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            segment.force(false);
+            segment.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Binary journal record: payload length, CRC32 of the payload and the payload itself,
+ * which starts with the event type followed by the event fields.
+ * Orders with expiry time are saved as a separate event type, so journals written before orders could expire
+ * are read unchanged.
+ */
+class OrderJournalCodec {
+
+    static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final byte ORDER_SAVED = 1;
+    private static final byte ORDER_CANCELLED = 2;
+    private static final byte ORDER_SAVED_WITH_EXPIRY = 3;
+    private static final int NULL_STRING_LENGTH = -1;
+
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+
+    private OrderJournalCodec() {
+    }
+
+    static ByteBuffer encodeOrderSaved(SilverBarOrder order) {
+        var orderId = utf8(order.getOrderId());
+        var userId = utf8(order.getUserId());
+        var unscaledPrice = order.getThousandGramsPrice().unscaledValue().toByteArray();
+        var expiresAt = order.getExpiresAt();
+        var payloadLength = Byte.BYTES + stringLength(orderId) + stringLength(userId) + Byte.BYTES
+                + Integer.BYTES + Short.BYTES + unscaledPrice.length + Integer.BYTES
+                + (expiresAt == null ? 0 : Long.BYTES + Integer.BYTES);
+
+        var record = startRecord(expiresAt == null ? ORDER_SAVED : ORDER_SAVED_WITH_EXPIRY, payloadLength);
+        putString(record, orderId);
+        putString(record, userId);
+        record.put((byte) order.getOrderType().ordinal());
+        record.putInt(order.getThousandGramsPrice().scale());
+        record.putShort((short) unscaledPrice.length);
+        record.put(unscaledPrice);
+        record.putInt(order.getWeightInGrams());
+        if (expiresAt != null) {
+            record.putLong(expiresAt.getEpochSecond());
+            record.putInt(expiresAt.getNano());
+        }
+        return finishRecord(record);
+    }
+
+    static ByteBuffer encodeOrderCancelled(String orderId) {
+        var orderIdBytes = utf8(orderId);
+        var record = startRecord(ORDER_CANCELLED, Byte.BYTES + stringLength(orderIdBytes));
+        putString(record, orderIdBytes);
+        return finishRecord(record);
+    }
+
+    /**
+     * Decodes the record at buffer position and passes it to the listener.
+     *
+     * @return false, leaving the buffer position untouched, if there is no complete and intact record at buffer
+     * position
+     */
+    static boolean decode(ByteBuffer buffer, OrderJournalListener listener) {
+        if (buffer.remaining() < RECORD_HEADER_BYTES) {
+            return false;
+        }
+        var recordStart = buffer.position();
+        var payloadLength = buffer.getInt(recordStart);
+        if (payloadLength <= 0 || payloadLength > buffer.remaining() - RECORD_HEADER_BYTES) {
+            return false;
+        }
+        var payload = buffer.duplicate();
+        payload.position(recordStart + RECORD_HEADER_BYTES).limit(recordStart + RECORD_HEADER_BYTES + payloadLength);
+        if (buffer.getInt(recordStart + Integer.BYTES) != crc(payload.duplicate())) {
+            return false;
+        }
+        var eventType = payload.get();
+        if (eventType == ORDER_SAVED || eventType == ORDER_SAVED_WITH_EXPIRY) {
+            listener.orderSaved(decodeOrderSaved(payload, eventType == ORDER_SAVED_WITH_EXPIRY));
+        } else if (eventType == ORDER_CANCELLED) {
+            listener.orderCancelled(getString(payload));
+        } else {
+            return false;
+        }
+        buffer.position(recordStart + RECORD_HEADER_BYTES + payloadLength);
+        return true;
+    }
+
+    private static SilverBarOrder decodeOrderSaved(ByteBuffer payload, boolean withExpiry) {
+        var orderId = getString(payload);
+        var userId = getString(payload);
+        var orderType = ORDER_TYPES[payload.get()];
+        var scale = payload.getInt();
+        var unscaledPrice = new byte[payload.getShort()];
+        payload.get(unscaledPrice);
+        var weightInGrams = payload.getInt();
+        return SilverBarOrder.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .orderType(orderType)
+                .thousandGramsPrice(new BigDecimal(new BigInteger(unscaledPrice), scale))
+                .weightInGrams(weightInGrams)
+                .expiresAt(withExpiry ? Instant.ofEpochSecond(payload.getLong(), payload.getInt()) : null)
+                .build();
+    }
+
+    private static ByteBuffer startRecord(byte eventType, int payloadLength) {
+        var record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadLength);
+        record.putInt(payloadLength);
+        record.putInt(0);
+        record.put(eventType);
+        return record;
+    }
+
+    private static ByteBuffer finishRecord(ByteBuffer record) {
+        record.flip();
+        record.putInt(Integer.BYTES, crc(record.duplicate().position(RECORD_HEADER_BYTES)));
+        return record;
+    }
+
+    private static int crc(ByteBuffer payload) {
+        var crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringLength(byte[] utf8) {
+        return Integer.BYTES + (utf8 == null ? 0 : utf8.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] utf8) {
+        if (utf8 == null) {
+            buffer.putInt(NULL_STRING_LENGTH);
+        } else {
+            buffer.putInt(utf8.length);
+            buffer.put(utf8);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if (length == NULL_STRING_LENGTH) {
+            return null;
+        }
+        var utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+/**
+ * Receives journaled events in the order they were appended while the journal is replayed.
+ */
+public interface OrderJournalListener {
+
+    void orderSaved(SilverBarOrder order);
+
+    void orderCancelled(String orderId);
+}
@@ -0,0 +1,142 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of live orders taken at a journal position: header with the position, orders encoded as journal
+ * records, aggregated weight of every price level and CRC32 of the whole file.
+ * Aggregates let the reader verify that orders it restores add up to the levels that were live when writing.
+ */
+class OrderSnapshotFile {
+
+    private static final int SNAPSHOT_MAGIC = 0x53424f53;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int END_OF_ORDERS = 0;
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+
+    private OrderSnapshotFile() {
+    }
+
+    static void write(Path path, long journalPosition, Collection<SilverBarOrder> orders) throws IOException {
+        var temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        var crc = new CRC32();
+        var levels = new EnumMap<OrderType, Map<BigDecimal, Long>>(OrderType.class);
+        try (var output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)), crc))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeLong(journalPosition);
+            for (SilverBarOrder order : orders) {
+                var record = OrderJournalCodec.encodeOrderSaved(order);
+                output.write(record.array(), record.arrayOffset(), record.remaining());
+                addToLevel(levels, order);
+            }
+            output.writeInt(END_OF_ORDERS);
+            writeLevels(output, levels);
+            output.writeLong(crc.getValue());
+        }
+        try (var channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Passes orders of an intact snapshot to the listener.
+     *
+     * @return journal position the snapshot was taken at or empty if the snapshot is corrupted, in which case
+     * nothing is passed to the listener
+     */
+    static OptionalLong read(Path path, OrderJournalListener listener) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + Integer.BYTES + Long.BYTES) {
+                return OptionalLong.empty();
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            var crcPosition = (int) channel.size() - Long.BYTES;
+            var crc = new CRC32();
+            crc.update(buffer.duplicate().limit(crcPosition));
+            if (buffer.getInt(0) != SNAPSHOT_MAGIC || buffer.getLong(crcPosition) != crc.getValue()) {
+                return OptionalLong.empty();
+            }
+            var journalPosition = buffer.getLong(Integer.BYTES);
+            var orders = new ArrayList<SilverBarOrder>();
+            buffer.position(HEADER_BYTES);
+            while (OrderJournalCodec.decode(buffer, collectingListener(orders))) {
+                // decode passes each order to the collecting listener
+            }
+            if (buffer.getInt() != END_OF_ORDERS || !readLevels(buffer).equals(aggregateLevels(orders))) {
+                return OptionalLong.empty();
+            }
+            orders.forEach(listener::orderSaved);
+            return OptionalLong.of(journalPosition);
+        }
+    }
+
+    private static OrderJournalListener collectingListener(List<SilverBarOrder> orders) {
+        return new OrderJournalListener() {
+            @Override
+            public void orderSaved(SilverBarOrder order) {
+                orders.add(order);
+            }
+
+            @Override
+            public void orderCancelled(String orderId) {
+                throw new IllegalStateException("Snapshot cannot contain cancelled orders");
+            }
+        };
+    }
+
+    private static Map<OrderType, Map<BigDecimal, Long>> aggregateLevels(List<SilverBarOrder> orders) {
+        var levels = new EnumMap<OrderType, Map<BigDecimal, Long>>(OrderType.class);
+        orders.forEach(order -> addToLevel(levels, order));
+        return levels;
+    }
+
+    private static void addToLevel(Map<OrderType, Map<BigDecimal, Long>> levels, SilverBarOrder order) {
+        levels.computeIfAbsent(order.getOrderType(), orderType -> new HashMap<>())
+                .merge(order.getThousandGramsPrice().stripTrailingZeros(), (long) order.getWeightInGrams(), Long::sum);
+    }
+
+    private static void writeLevels(DataOutputStream output, Map<OrderType, Map<BigDecimal, Long>> levels) throws IOException {
+        output.writeInt(levels.values().stream().mapToInt(Map::size).sum());
+        for (var levelsOfType : levels.entrySet()) {
+            for (var level : levelsOfType.getValue().entrySet()) {
+                var unscaledPrice = level.getKey().unscaledValue().toByteArray();
+                output.writeByte(levelsOfType.getKey().ordinal());
+                output.writeInt(level.getKey().scale());
+                output.writeShort(unscaledPrice.length);
+                output.write(unscaledPrice);
+                output.writeLong(level.getValue());
+            }
+        }
+    }
+
+    private static Map<OrderType, Map<BigDecimal, Long>> readLevels(ByteBuffer buffer) {
+        var levels = new EnumMap<OrderType, Map<BigDecimal, Long>>(OrderType.class);
+        var levelCount = buffer.getInt();
+        for (int i = 0; i < levelCount; i++) {
+            var orderType = ORDER_TYPES[buffer.get()];
+            var scale = buffer.getInt();
+            var unscaledPrice = new byte[buffer.getShort()];
+            buffer.get(unscaledPrice);
+            levels.computeIfAbsent(orderType, type -> new HashMap<>())
+                    .put(new BigDecimal(new BigInteger(unscaledPrice), scale), buffer.getLong());
+        }
+        return levels;
+    }
+}
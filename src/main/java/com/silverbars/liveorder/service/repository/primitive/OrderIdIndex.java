@@ -0,0 +1,82 @@
+package com.silverbars.liveorder.service.repository.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash index from orderId to storage slot, holding slots in a single int array instead of map entries.
+ * Not thread safe, guarded by the owning repository.
+ */
+class OrderIdIndex {
+
+    static final int NOT_FOUND = -1;
+
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+
+    /**
+     * OrderIds stored by the owning repository, used to resolve hash collisions and to rehash.
+     */
+    interface StoredOrderIds {
+
+        boolean matches(int slot, OrderIdKey orderId);
+
+        int hashOf(int slot);
+    }
+
+    private final StoredOrderIds storedOrderIds;
+    private int[] entries;
+    private int usedEntries;
+
+    OrderIdIndex(int initialCapacity, StoredOrderIds storedOrderIds) {
+        this.storedOrderIds = storedOrderIds;
+        entries = new int[Integer.highestOneBit(Math.max(initialCapacity, 8) * 2 - 1) * 2];
+    }
+
+    int find(OrderIdKey orderId) {
+        var mask = entries.length - 1;
+        for (int position = orderId.hash() & mask; entries[position] != EMPTY; position = (position + 1) & mask) {
+            var slot = entries[position] - 1;
+            if (entries[position] != REMOVED && storedOrderIds.matches(slot, orderId)) {
+                return slot;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    void add(int hash, int slot) {
+        if ((usedEntries + 1) * 2 > entries.length) {
+            rehash();
+        }
+        var mask = entries.length - 1;
+        var position = hash & mask;
+        while (entries[position] != EMPTY && entries[position] != REMOVED) {
+            position = (position + 1) & mask;
+        }
+        if (entries[position] == EMPTY) {
+            usedEntries++;
+        }
+        entries[position] = slot + 1;
+    }
+
+    void remove(int hash, int slot) {
+        var mask = entries.length - 1;
+        for (int position = hash & mask; entries[position] != EMPTY; position = (position + 1) & mask) {
+            if (entries[position] == slot + 1) {
+                entries[position] = REMOVED;
+                return;
+            }
+        }
+    }
+
+    private void rehash() {
+        var oldEntries = entries;
+        var liveEntries = (int) Arrays.stream(oldEntries).filter(entry -> entry > 0).count();
+        entries = new int[liveEntries * 4 > oldEntries.length ? oldEntries.length * 2 : oldEntries.length];
+        usedEntries = 0;
+        for (int entry : oldEntries) {
+            if (entry > 0) {
+                add(storedOrderIds.hashOf(entry - 1), entry - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.silverbars.liveorder.service.repository.primitive;
+
+import com.silverbars.liveorder.service.id.SnowflakeOrderIdGenerator;
+
+import java.util.UUID;
+
+/**
+ * An orderId split into numeric columns. Ids rendered by the service's generators, canonical lowercase UUIDs and
+ * snowflake ids, are held as one or two longs, any other id is kept as text. Parsing is exact: formatting the
+ * numbers back gives the very same string, so ids differing only in letter case stay distinct.
+ */
+final class OrderIdKey {
+
+    static final byte FREE_SLOT = 0;
+    static final byte TEXT_ID = 1;
+    static final byte UUID_ID = 2;
+    static final byte SNOWFLAKE_ID = 3;
+
+    private static final int UUID_CHARS = 36;
+
+    final byte kind;
+    final long high;
+    final long low;
+    final String text;
+
+    private OrderIdKey(byte kind, long high, long low, String text) {
+        this.kind = kind;
+        this.high = high;
+        this.low = low;
+        this.text = text;
+    }
+
+    static OrderIdKey of(String orderId) {
+        if (isCanonicalUuid(orderId)) {
+            var uuid = UUID.fromString(orderId);
+            return new OrderIdKey(UUID_ID, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null);
+        }
+        if (SnowflakeOrderIdGenerator.isSnowflakeId(orderId)) {
+            return new OrderIdKey(SNOWFLAKE_ID, 0, SnowflakeOrderIdGenerator.parse(orderId), null);
+        }
+        return new OrderIdKey(TEXT_ID, 0, 0, orderId);
+    }
+
+    static String toOrderId(byte kind, long high, long low, String text) {
+        switch (kind) {
+            case UUID_ID:
+                return new UUID(high, low).toString();
+            case SNOWFLAKE_ID:
+                return SnowflakeOrderIdGenerator.format(low);
+            default:
+                return text;
+        }
+    }
+
+    boolean matches(byte kind, long high, long low, String text) {
+        return this.kind == kind && (kind == TEXT_ID ? this.text.equals(text) : this.high == high && this.low == low);
+    }
+
+    int hash() {
+        return hash(kind, high, low, text);
+    }
+
+    static int hash(byte kind, long high, long low, String text) {
+        var hash = kind == TEXT_ID ? text.hashCode() : Long.hashCode(high * 0x9E3779B97F4A7C15L ^ low);
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean isCanonicalUuid(String orderId) {
+        if (orderId.length() != UUID_CHARS) {
+            return false;
+        }
+        for (int i = 0; i < UUID_CHARS; i++) {
+            var c = orderId.charAt(i);
+            var valid = i == 8 || i == 13 || i == 18 || i == 23 ? c == '-' : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,375 @@
+package com.silverbars.liveorder.service.repository.primitive;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.SilverBarOrderRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Stores orders column by column in primitive arrays instead of one object graph per order.
+ * Prices are kept as fixed-point longs with their scale, user ids are interned into numbers and slots of cancelled
+ * orders are reused, so are numbers of users without live orders. OrderIds in the formats of the service's
+ * generators, canonical lowercase UUIDs and snowflake ids, are kept as numbers and only other orderIds as strings.
+ * {@link SilverBarOrder} objects are only created as views returned to callers.
+ * Slots of each user are chained in a doubly linked list of slot numbers, so orders of a user are found without
+ * scanning other users' orders.
+ * <p>
+ * Accepts prices whose unscaled value fits in a long and whose scale fits in a byte. Expiry times are kept as
+ * epoch seconds and nanoseconds, the latter negative for orders without expiry.
+ */
+public class PrimitiveSilverBarOrderRepository implements SilverBarOrderRepository {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final int NO_SLOT = -1;
+    private static final int NO_EXPIRY = -1;
+    private static final int WALKED_SLOTS_PER_LOCK = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UserIdPool userIdPool = new UserIdPool();
+    private final OrderIdIndex orderIdIndex;
+
+    private byte[] orderIdKinds;
+    private long[] orderIdHighs;
+    private long[] orderIdLows;
+    private String[] textOrderIds;
+    private int[] userIds;
+    private byte[] orderTypes;
+    private long[] unscaledPrices;
+    private byte[] priceScales;
+    private int[] weightsInGrams;
+    private long[] expirySeconds;
+    private int[] expiryNanos;
+
+    private int[] previousOfUser;
+    private int[] nextOfUser;
+    private int[] firstOfUser = new int[0];
+    private int[] lastOfUser = new int[0];
+
+    private int usedSlots;
+    private int[] freeSlots;
+    private int freeSlotCount;
+
+    public PrimitiveSilverBarOrderRepository() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public PrimitiveSilverBarOrderRepository(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity must be positive");
+        }
+        orderIdIndex = new OrderIdIndex(initialCapacity, new OrderIdIndex.StoredOrderIds() {
+            @Override
+            public boolean matches(int slot, OrderIdKey orderId) {
+                return orderId.matches(orderIdKinds[slot], orderIdHighs[slot], orderIdLows[slot], textOrderIds[slot]);
+            }
+
+            @Override
+            public int hashOf(int slot) {
+                return OrderIdKey.hash(orderIdKinds[slot], orderIdHighs[slot], orderIdLows[slot], textOrderIds[slot]);
+            }
+        });
+        orderIdKinds = new byte[initialCapacity];
+        orderIdHighs = new long[initialCapacity];
+        orderIdLows = new long[initialCapacity];
+        textOrderIds = new String[initialCapacity];
+        userIds = new int[initialCapacity];
+        orderTypes = new byte[initialCapacity];
+        unscaledPrices = new long[initialCapacity];
+        priceScales = new byte[initialCapacity];
+        weightsInGrams = new int[initialCapacity];
+        expirySeconds = new long[initialCapacity];
+        expiryNanos = new int[initialCapacity];
+        previousOfUser = new int[initialCapacity];
+        nextOfUser = new int[initialCapacity];
+        freeSlots = new int[initialCapacity];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the price does not fit in fixed-point representation
+     */
+    @Override
+    public void validateOrder(SilverBarOrder order) {
+        validatePrice(order);
+    }
+
+    @Override
+    public void saveOrder(SilverBarOrder order) {
+        validatePrice(order);
+        lock.writeLock().lock();
+        try {
+            store(order);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the whole batch under a single lock. Nothing is stored if any price does not fit.
+     */
+    @Override
+    public void saveOrders(Collection<SilverBarOrder> orders) {
+        orders.forEach(PrimitiveSilverBarOrderRepository::validatePrice);
+        lock.writeLock().lock();
+        try {
+            orders.forEach(this::store);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void validatePrice(SilverBarOrder order) {
+        var price = order.getThousandGramsPrice();
+        if (price.unscaledValue().bitLength() >= Long.SIZE || price.scale() != (byte) price.scale()) {
+            throw new IllegalArgumentException("thousandGramsPrice " + price + " does not fit in fixed-point representation");
+        }
+    }
+
+    private void store(SilverBarOrder order) {
+        var orderId = OrderIdKey.of(order.getOrderId());
+        var userNumber = userIdPool.intern(order.getUserId());
+        var slot = orderIdIndex.find(orderId);
+        if (slot == OrderIdIndex.NOT_FOUND) {
+            slot = allocateSlot();
+            orderIdKinds[slot] = orderId.kind;
+            orderIdHighs[slot] = orderId.high;
+            orderIdLows[slot] = orderId.low;
+            textOrderIds[slot] = orderId.text;
+            orderIdIndex.add(orderId.hash(), slot);
+        } else {
+            unlinkFromUser(slot);
+            userIdPool.release(userIds[slot]);
+        }
+        var price = order.getThousandGramsPrice();
+        userIds[slot] = userNumber;
+        linkToUser(slot);
+        orderTypes[slot] = (byte) order.getOrderType().ordinal();
+        unscaledPrices[slot] = price.unscaledValue().longValue();
+        priceScales[slot] = (byte) price.scale();
+        weightsInGrams[slot] = order.getWeightInGrams();
+        var expiresAt = order.getExpiresAt();
+        expirySeconds[slot] = expiresAt == null ? 0 : expiresAt.getEpochSecond();
+        expiryNanos[slot] = expiresAt == null ? NO_EXPIRY : expiresAt.getNano();
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+        lock.writeLock().lock();
+        try {
+            return remove(orderId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Boolean> cancelOrders(Collection<String> cancelledOrderIds) {
+        var results = new ArrayList<Boolean>(cancelledOrderIds.size());
+        lock.writeLock().lock();
+        try {
+            for (var orderId : cancelledOrderIds) {
+                results.add(remove(orderId));
+            }
+            return results;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean remove(String orderId) {
+        var key = OrderIdKey.of(orderId);
+        var slot = orderIdIndex.find(key);
+        if (slot == OrderIdIndex.NOT_FOUND) {
+            return false;
+        }
+        orderIdIndex.remove(key.hash(), slot);
+        unlinkFromUser(slot);
+        userIdPool.release(userIds[slot]);
+        orderIdKinds[slot] = OrderIdKey.FREE_SLOT;
+        textOrderIds[slot] = null;
+        freeSlots[freeSlotCount++] = slot;
+        return true;
+    }
+
+    @Override
+    public Optional<SilverBarOrder> findOrder(String orderId) {
+        lock.readLock().lock();
+        try {
+            var slot = orderIdIndex.find(OrderIdKey.of(orderId));
+            return slot == OrderIdIndex.NOT_FOUND ? Optional.empty() : Optional.of(orderView(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsOrder(String orderId) {
+        lock.readLock().lock();
+        try {
+            return orderIdIndex.find(OrderIdKey.of(orderId)) != OrderIdIndex.NOT_FOUND;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return copy of live orders of the user in order of saving, as orders are not kept as objects
+     */
+    @Override
+    public Collection<SilverBarOrder> findUserOrders(String userId) {
+        lock.readLock().lock();
+        try {
+            var userNumber = userIdPool.find(userId);
+            var orders = new ArrayList<SilverBarOrder>();
+            if (userNumber != UserIdPool.NO_USER_ID && userNumber < firstOfUser.length) {
+                for (int slot = firstOfUser[userNumber]; slot != NO_SLOT; slot = nextOfUser[slot]) {
+                    orders.add(orderView(slot));
+                }
+            }
+            return orders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return copy of live orders, as orders are not kept as objects
+     */
+    @Override
+    public Collection<SilverBarOrder> getAllOrders() {
+        lock.readLock().lock();
+        try {
+            var orders = new ArrayList<SilverBarOrder>(usedSlots - freeSlotCount);
+            for (int slot = 0; slot < usedSlots; slot++) {
+                if (orderIdKinds[slot] != OrderIdKey.FREE_SLOT) {
+                    orders.add(orderView(slot));
+                }
+            }
+            return orders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walks slots a chunk at a time, holding the lock only while views of a chunk are created. Slots of live orders
+     * never move, so an order not changed meanwhile is passed exactly once.
+     */
+    @Override
+    public void forEachOrder(Consumer<SilverBarOrder> consumer) {
+        var chunk = new ArrayList<SilverBarOrder>(WALKED_SLOTS_PER_LOCK);
+        for (int chunkStart = 0; ; chunkStart += WALKED_SLOTS_PER_LOCK) {
+            lock.readLock().lock();
+            try {
+                if (chunkStart >= usedSlots) {
+                    return;
+                }
+                for (int slot = chunkStart; slot < Math.min(chunkStart + WALKED_SLOTS_PER_LOCK, usedSlots); slot++) {
+                    if (orderIdKinds[slot] != OrderIdKey.FREE_SLOT) {
+                        chunk.add(orderView(slot));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            chunk.forEach(consumer);
+            chunk.clear();
+        }
+    }
+
+    private SilverBarOrder orderView(int slot) {
+        return SilverBarOrder.builder()
+                .orderId(OrderIdKey.toOrderId(orderIdKinds[slot], orderIdHighs[slot], orderIdLows[slot], textOrderIds[slot]))
+                .userId(userIdPool.userIdOf(userIds[slot]))
+                .orderType(ORDER_TYPES[orderTypes[slot]])
+                .thousandGramsPrice(BigDecimal.valueOf(unscaledPrices[slot], priceScales[slot]))
+                .weightInGrams(weightsInGrams[slot])
+                .expiresAt(expiryNanos[slot] == NO_EXPIRY ? null : Instant.ofEpochSecond(expirySeconds[slot], expiryNanos[slot]))
+                .build();
+    }
+
+    private void linkToUser(int slot) {
+        var userNumber = userIds[slot];
+        if (userNumber == UserIdPool.NO_USER_ID) {
+            return;
+        }
+        if (userNumber >= firstOfUser.length) {
+            growUsers();
+        }
+        var last = lastOfUser[userNumber];
+        previousOfUser[slot] = last;
+        nextOfUser[slot] = NO_SLOT;
+        if (last == NO_SLOT) {
+            firstOfUser[userNumber] = slot;
+        } else {
+            nextOfUser[last] = slot;
+        }
+        lastOfUser[userNumber] = slot;
+    }
+
+    private void unlinkFromUser(int slot) {
+        var userNumber = userIds[slot];
+        if (userNumber == UserIdPool.NO_USER_ID) {
+            return;
+        }
+        var previous = previousOfUser[slot];
+        var next = nextOfUser[slot];
+        if (previous == NO_SLOT) {
+            firstOfUser[userNumber] = next;
+        } else {
+            nextOfUser[previous] = next;
+        }
+        if (next == NO_SLOT) {
+            lastOfUser[userNumber] = previous;
+        } else {
+            previousOfUser[next] = previous;
+        }
+    }
+
+    private void growUsers() {
+        var previousCapacity = firstOfUser.length;
+        var capacity = Math.max(userIdPool.size(), previousCapacity * 2);
+        firstOfUser = Arrays.copyOf(firstOfUser, capacity);
+        lastOfUser = Arrays.copyOf(lastOfUser, capacity);
+        Arrays.fill(firstOfUser, previousCapacity, capacity, NO_SLOT);
+        Arrays.fill(lastOfUser, previousCapacity, capacity, NO_SLOT);
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (usedSlots == orderIdKinds.length) {
+            grow();
+        }
+        return usedSlots++;
+    }
+
+    private void grow() {
+        var capacity = orderIdKinds.length * 2;
+        orderIdKinds = Arrays.copyOf(orderIdKinds, capacity);
+        orderIdHighs = Arrays.copyOf(orderIdHighs, capacity);
+        orderIdLows = Arrays.copyOf(orderIdLows, capacity);
+        textOrderIds = Arrays.copyOf(textOrderIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        orderTypes = Arrays.copyOf(orderTypes, capacity);
+        unscaledPrices = Arrays.copyOf(unscaledPrices, capacity);
+        priceScales = Arrays.copyOf(priceScales, capacity);
+        weightsInGrams = Arrays.copyOf(weightsInGrams, capacity);
+        expirySeconds = Arrays.copyOf(expirySeconds, capacity);
+        expiryNanos = Arrays.copyOf(expiryNanos, capacity);
+        previousOfUser = Arrays.copyOf(previousOfUser, capacity);
+        nextOfUser = Arrays.copyOf(nextOfUser, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
@@ -0,0 +1,79 @@
+package com.silverbars.liveorder.service.repository.primitive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns user ids into compact numbers, so that each distinct user id is held once however many orders it has.
+ * Every intern is counted as a reference and a user id is dropped once all its references are released, its number
+ * being reused for the next new user id. Not thread safe, guarded by the owning repository.
+ */
+class UserIdPool {
+
+    static final int NO_USER_ID = -1;
+
+    private final Map<String, Integer> numbersByUserId = new HashMap<>();
+    private final List<String> userIdsByNumber = new ArrayList<>();
+    private int[] referenceCounts = new int[16];
+    private int[] freeNumbers = new int[16];
+    private int freeNumberCount;
+
+    /**
+     * @return number of the user id, referenced once more
+     */
+    int intern(String userId) {
+        if (userId == null) {
+            return NO_USER_ID;
+        }
+        int number = numbersByUserId.computeIfAbsent(userId, this::allocateNumber);
+        referenceCounts[number]++;
+        return number;
+    }
+
+    void release(int number) {
+        if (number == NO_USER_ID || --referenceCounts[number] > 0) {
+            return;
+        }
+        numbersByUserId.remove(userIdsByNumber.get(number));
+        userIdsByNumber.set(number, null);
+        if (freeNumberCount == freeNumbers.length) {
+            freeNumbers = Arrays.copyOf(freeNumbers, freeNumbers.length * 2);
+        }
+        freeNumbers[freeNumberCount++] = number;
+    }
+
+    private int allocateNumber(String userId) {
+        if (freeNumberCount > 0) {
+            var number = freeNumbers[--freeNumberCount];
+            userIdsByNumber.set(number, userId);
+            return number;
+        }
+        userIdsByNumber.add(userId);
+        if (userIdsByNumber.size() > referenceCounts.length) {
+            referenceCounts = Arrays.copyOf(referenceCounts, referenceCounts.length * 2);
+        }
+        return userIdsByNumber.size() - 1;
+    }
+
+    /**
+     * @return number of an already interned user id, NO_USER_ID otherwise
+     */
+    int find(String userId) {
+        var number = userId == null ? null : numbersByUserId.get(userId);
+        return number == null ? NO_USER_ID : number;
+    }
+
+    /**
+     * @return upper bound of numbers given out so far
+     */
+    int size() {
+        return userIdsByNumber.size();
+    }
+
+    String userIdOf(int number) {
+        return number == NO_USER_ID ? null : userIdsByNumber.get(number);
+    }
+}
@@ -0,0 +1,111 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.silverbars.liveorder.service.TestFixtures.someNewSilverBarOrder;
+import static com.silverbars.liveorder.service.TestFixtures.someUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingSilverBarOrderServiceTest {
+
+    @Mock
+    private SilverBarOrderService delegate;
+
+    private CachingSilverBarOrderService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CachingSilverBarOrderService(delegate);
+    }
+
+    @Test
+    void shouldReturnCachedSummaryWhileOrdersAreUnchanged() {
+        // given
+        var summary = someSummary();
+        when(delegate.getLiveOrderSummary()).thenReturn(summary);
+
+        // when
+        var summary1 = service.getLiveOrderSummary();
+        var summary2 = service.getLiveOrderSummary();
+
+        // then
+        assertThat(summary1).isSameAs(summary);
+        assertThat(summary2).isSameAs(summary);
+        verify(delegate, times(1)).getLiveOrderSummary();
+    }
+
+    @Test
+    void shouldRebuildSummaryAfterOrderIsRegistered() {
+        // given
+        var summary1 = someSummary();
+        var summary2 = someSummary();
+        when(delegate.getLiveOrderSummary()).thenReturn(summary1, summary2);
+        service.getLiveOrderSummary();
+
+        // when
+        service.registerOrder(someNewSilverBarOrder());
+
+        // then
+        assertThat(service.getLiveOrderSummary()).isSameAs(summary2);
+    }
+
+    @Test
+    void shouldRebuildSummariesAfterOrdersAreCancelled() {
+        // given
+        var levelSummary1 = LiveOrderLevelSummary.builder().buyLevels(List.of()).sellLevels(List.of()).build();
+        var levelSummary2 = LiveOrderLevelSummary.builder().buyLevels(List.of()).sellLevels(List.of()).build();
+        when(delegate.getLiveOrderLevelSummary()).thenReturn(levelSummary1, levelSummary2);
+        service.getLiveOrderLevelSummary();
+
+        // when
+        service.cancelRegisteredOrders(List.of(someUUID()));
+
+        // then
+        assertThat(service.getLiveOrderLevelSummary()).isSameAs(levelSummary2);
+    }
+
+    @Test
+    void shouldServeStaleSummaryWithinMaxStaleness() {
+        // given
+        service = new CachingSilverBarOrderService(delegate, Duration.ofHours(1));
+        var summary = someSummary();
+        when(delegate.getLiveOrderSummary()).thenReturn(summary);
+        service.getLiveOrderSummary();
+
+        // when
+        service.cancelRegisteredOrder(someUUID());
+
+        // then
+        assertThat(service.getLiveOrderSummary()).isSameAs(summary);
+        verify(delegate, times(1)).getLiveOrderSummary();
+    }
+
+    @Test
+    void willThrowExceptionForNegativeMaxStaleness() {
+        assertThatThrownBy(
+                // when
+                () -> new CachingSilverBarOrderService(delegate, Duration.ofMillis(-1)))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maxStaleness cannot be negative");
+    }
+
+    private static LiveOrderSummary someSummary() {
+        return LiveOrderSummary.builder().buyOrders(List.of()).sellOrders(List.of()).build();
+    }
+}
@@ -0,0 +1,260 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.id.OrderIdGenerator;
+import com.silverbars.liveorder.service.metrics.RecordingOrderServiceMetrics;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedSilverBarOrderServiceTest {
+
+    private static final int SHARD_COUNT = 4;
+
+    private List<InMemorySilverBarOrderRepository> repositories;
+    private ShardedSilverBarOrderService service;
+
+    @BeforeEach
+    void setUp() {
+        repositories = IntStream.range(0, SHARD_COUNT)
+                .mapToObj(shard -> new InMemorySilverBarOrderRepository())
+                .collect(Collectors.toList());
+        service = new ShardedSilverBarOrderService(repositories);
+    }
+
+    @Test
+    void shouldSpreadOrdersOverShards() {
+        // when
+        for (int i = 0; i < 100; i++) {
+            service.registerOrder(someNewSilverBarOrder());
+        }
+
+        // then
+        assertThat(repositories).allSatisfy(repository -> assertThat(repository.getAllOrders()).isNotEmpty());
+        assertThat(repositories.stream().mapToInt(repository -> repository.getAllOrders().size()).sum()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldCancelOrderInItsShard() {
+        // given
+        var orderIds = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            orderIds.add(service.registerOrder(someNewSilverBarOrder()));
+        }
+
+        // when
+        var cancelled = orderIds.stream()
+                .map(service::cancelRegisteredOrder)
+                .collect(Collectors.toList());
+
+        // then
+        assertThat(cancelled).containsOnly(true);
+        assertThat(service.getLiveOrderLevelSummary().getBuyLevels()).isEmpty();
+        assertThat(service.getLiveOrderLevelSummary().getSellLevels()).isEmpty();
+    }
+
+    @Test
+    void shouldMergeLevelsOfSamePriceFromAllShards() {
+        // given
+        for (int i = 0; i < 20; i++) {
+            service.registerOrder(order(OrderType.BUY, "10", 5));
+        }
+        service.registerOrder(order(OrderType.BUY, "10.00", 1));
+
+        // when
+        var levelSummary = service.getLiveOrderLevelSummary();
+
+        // then
+        assertThat(levelSummary.getBuyLevels()).hasSize(1);
+        assertThat(levelSummary.getBuyLevels().get(0).getWeightInGrams()).isEqualTo(101);
+        assertThat(levelSummary.getBuyLevels().get(0).getOrderCount()).isEqualTo(21);
+        assertThat(service.getLiveOrderSummary().getBuyOrders().get(0).getComponents()).hasSize(21);
+    }
+
+    @Test
+    void shouldSortMergedLevelsByPrice() {
+        // given
+        for (int price = 1; price <= 20; price++) {
+            service.registerOrder(order(OrderType.BUY, String.valueOf(price), 1));
+            service.registerOrder(order(OrderType.SELL, String.valueOf(price), 1));
+        }
+
+        // when
+        var summary = service.getLiveOrderSummary();
+
+        // then
+        assertThat(prices(summary.getBuyOrders())).isSortedAccordingTo(BigDecimal::compareTo).hasSize(20);
+        assertThat(prices(summary.getSellOrders())).isSortedAccordingTo((price1, price2) -> price2.compareTo(price1)).hasSize(20);
+    }
+
+    @Test
+    void shouldLimitMergedSummaryToDepth() {
+        // given
+        for (int price = 1; price <= 20; price++) {
+            service.registerOrder(order(OrderType.BUY, String.valueOf(price), 1));
+        }
+
+        // when
+        var summary = service.getLiveOrderSummary(3);
+
+        // then
+        assertThat(prices(summary.getBuyOrders())).containsExactly(BigDecimal.ONE, BigDecimal.valueOf(2), BigDecimal.valueOf(3));
+    }
+
+    @Test
+    void shouldReturnResultsOfBatchInOrderOfOrders() {
+        // given
+        var invalidOrder = silverBarOrder(null, null, OrderType.BUY, BigDecimal.TEN, someInt());
+        var orders = new ArrayList<SilverBarOrder>();
+        for (int i = 0; i < 10; i++) {
+            orders.add(someNewSilverBarOrder());
+        }
+        orders.add(5, invalidOrder);
+
+        // when
+        var results = service.registerOrders(orders);
+
+        // then
+        assertThat(results).hasSize(11);
+        assertThat(results.get(5).getRejectionReason()).isEqualTo("userId is not present");
+        var registeredOrderIds = results.stream()
+                .filter(OrderRegistrationResult::isRegistered)
+                .map(OrderRegistrationResult::getOrderId)
+                .collect(Collectors.toList());
+        assertThat(registeredOrderIds).hasSize(10);
+        assertThat(service.cancelRegisteredOrders(registeredOrderIds)).containsOnly(true);
+    }
+
+    @Test
+    void shouldReturnCancelResultsInOrderOfOrderIds() {
+        // given
+        var orderId1 = service.registerOrder(someNewSilverBarOrder());
+        var orderId2 = service.registerOrder(someNewSilverBarOrder());
+
+        // when
+        var cancelled = service.cancelRegisteredOrders(List.of(orderId1, someUUID(), orderId2));
+
+        // then
+        assertThat(cancelled).containsExactly(true, false, true);
+    }
+
+    @Test
+    void shouldCancelOrdersOfUserInAllShards() {
+        // given
+        var userId = someUUID();
+        var orderIds = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            orderIds.add(service.registerOrder(silverBarOrder(null, userId, someOrderType(), someBigDecimal(), someInt())));
+        }
+        service.registerOrder(someNewSilverBarOrder());
+
+        // when
+        var cancelledOrderIds = service.cancelUserOrders(userId);
+
+        // then
+        assertThat(cancelledOrderIds).containsExactlyInAnyOrderElementsOf(orderIds);
+        assertThat(service.getUserOrders(userId)).isEmpty();
+    }
+
+    @Test
+    void shouldRecordOperationsOfAllShardsInServiceMetrics() {
+        // given
+        var metrics = new RecordingOrderServiceMetrics();
+        service = new ShardedSilverBarOrderService(repositories, Runnable::run, OrderIdGenerator.RANDOM_UUID, metrics);
+        var orderId = service.registerOrder(order(OrderType.BUY, "10", 100));
+
+        // when
+        service.registerOrders(List.of(order(OrderType.BUY, "10", 100), order(OrderType.SELL, "20", 100), order(OrderType.SELL, "21", 100)));
+        service.cancelRegisteredOrder(orderId);
+        service.getLiveOrderSummary();
+
+        // then
+        var snapshot = metrics.snapshot();
+        assertThat(snapshot.getRegisteredOrders()).isEqualTo(4);
+        assertThat(snapshot.getRegisterLatency().getCount()).isEqualTo(4);
+        assertThat(snapshot.getCancelLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getSummaryLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getLiveOrders()).isEqualTo(3);
+        assertThat(snapshot.getSellLevels()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMergeLevelUpdatesOfShardsOnLevelUpdateExecutor() {
+        // given
+        var levelUpdateTasks = new ArrayDeque<Runnable>();
+        service = new ShardedSilverBarOrderService(repositories, levelUpdateTasks::add, OrderIdGenerator.RANDOM_UUID);
+        var levelUpdates = new ArrayList<LevelUpdate>();
+        service.getLevelUpdates().subscribe(new Flow.Subscriber<>() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(LevelUpdate item) {
+                levelUpdates.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        service.registerOrder(order(OrderType.BUY, "10", 100));
+        service.registerOrder(order(OrderType.BUY, "10", 50));
+        assertThat(levelUpdates).isEmpty();
+
+        // when
+        while (!levelUpdateTasks.isEmpty()) {
+            levelUpdateTasks.poll().run();
+        }
+
+        // then
+        var lastUpdate = levelUpdates.get(levelUpdates.size() - 1);
+        assertThat(lastUpdate.getUpdateType()).isNotEqualTo(LevelUpdateType.REMOVED);
+        assertThat(lastUpdate.getThousandGramsPrice()).isEqualByComparingTo("10");
+        assertThat(lastUpdate.getWeightInGrams()).isEqualTo(150);
+    }
+
+    @Test
+    void shouldNotCreateServiceWithoutShards() {
+        assertThatThrownBy(
+                // when
+                () -> new ShardedSilverBarOrderService(List.of())
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("shardRepositories cannot be empty");
+    }
+
+    private static SilverBarOrder order(OrderType orderType, String price, int weightInGrams) {
+        return silverBarOrder(null, someUUID(), orderType, new BigDecimal(price), weightInGrams);
+    }
+
+    private static List<BigDecimal> prices(List<LiveOrderSummaryRecord> records) {
+        return records.stream()
+                .map(LiveOrderSummaryRecord::getThousandGramsPrice)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,178 @@
+package com.silverbars.liveorder.service;
+
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.silverbars.liveorder.service.TestFixtures.silverBarOrder;
+import static com.silverbars.liveorder.service.TestFixtures.someUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SilverBarOrderServiceImplConcurrencyTest {
+
+    private static final int WRITER_THREADS = 8;
+    private static final int ORDERS_PER_WRITER = 5_000;
+    private static final int PRICE_LEVELS = 20;
+
+    private final ThreadLocal<Deque<String>> ordersSavedByThread = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private InMemorySilverBarOrderRepository repository;
+    private SilverBarOrderServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemorySilverBarOrderRepository() {
+            @Override
+            public void saveOrder(SilverBarOrder order) {
+                super.saveOrder(order);
+                ordersSavedByThread.get().add(order.getOrderId());
+            }
+        };
+        service = new SilverBarOrderServiceImpl(repository);
+    }
+
+    @Test
+    void shouldKeepAggregatedTotalsUnderConcurrentRegisterCancelAndSummary() throws Exception {
+        // given
+        var executor = Executors.newFixedThreadPool(WRITER_THREADS + 1);
+        var writersDone = new AtomicBoolean();
+        var inconsistentSummaries = new ConcurrentLinkedQueue<LiveOrderSummary>();
+
+        // when
+        Future<?> reader = executor.submit(() -> {
+            while (!writersDone.get()) {
+                var summary = service.getLiveOrderSummary();
+                if (!isConsistent(summary)) {
+                    inconsistentSummaries.add(summary);
+                }
+            }
+        });
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITER_THREADS; writer++) {
+            writers.add(executor.submit(this::registerAndCancelOrders));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(1, TimeUnit.MINUTES);
+        }
+        writersDone.set(true);
+        reader.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        // then
+        assertThat(inconsistentSummaries).isEmpty();
+        var summary = service.getLiveOrderSummary();
+        assertThat(isConsistent(summary)).isTrue();
+        assertThat(totalWeight(summary.getBuyOrders())).isEqualTo(totalWeightOfStored(OrderType.BUY));
+        assertThat(totalWeight(summary.getSellOrders())).isEqualTo(totalWeightOfStored(OrderType.SELL));
+        assertThat(summary.getBuyOrders().size() + summary.getSellOrders().size())
+                .isLessThanOrEqualTo(2 * PRICE_LEVELS);
+        assertThat(componentCount(summary)).isEqualTo(repository.getAllOrders().size())
+                .isEqualTo(WRITER_THREADS * ORDERS_PER_WRITER / 2);
+    }
+
+    @Test
+    void shouldNotKeepOrdersCancelledWhileBeingRegistered() throws Exception {
+        // given
+        var savedOrderIds = new LinkedBlockingQueue<String>();
+        var cancellingRepository = new InMemorySilverBarOrderRepository() {
+            @Override
+            public void saveOrder(SilverBarOrder order) {
+                super.saveOrder(order);
+                savedOrderIds.add(order.getOrderId());
+                Thread.yield();
+            }
+        };
+        service = new SilverBarOrderServiceImpl(cancellingRepository);
+        var executor = Executors.newFixedThreadPool(2 * WRITER_THREADS);
+
+        // when
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int writer = 0; writer < WRITER_THREADS; writer++) {
+            tasks.add(executor.submit(this::registerOrders));
+            tasks.add(executor.submit(() -> cancelSavedOrders(savedOrderIds)));
+        }
+        for (Future<?> task : tasks) {
+            task.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // then
+        var summary = service.getLiveOrderSummary();
+        assertThat(cancellingRepository.getAllOrders()).isEmpty();
+        assertThat(summary.getBuyOrders()).isEmpty();
+        assertThat(summary.getSellOrders()).isEmpty();
+        assertThat(service.getLiveOrderLevelSummary().getBuyLevels()).isEmpty();
+        assertThat(service.getLiveOrderLevelSummary().getSellLevels()).isEmpty();
+    }
+
+    private void registerOrders() {
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < ORDERS_PER_WRITER; i++) {
+            var orderType = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+            var price = BigDecimal.valueOf(100 + random.nextInt(PRICE_LEVELS));
+            service.registerOrder(silverBarOrder(null, someUUID(), orderType, price, 1 + random.nextInt(1_000)));
+        }
+    }
+
+    private void cancelSavedOrders(BlockingQueue<String> savedOrderIds) {
+        try {
+            for (int i = 0; i < ORDERS_PER_WRITER; i++) {
+                assertThat(service.cancelRegisteredOrder(savedOrderIds.take())).isTrue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void registerAndCancelOrders() {
+        var random = ThreadLocalRandom.current();
+        var savedOrders = ordersSavedByThread.get();
+        for (int i = 0; i < ORDERS_PER_WRITER; i++) {
+            var orderType = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+            var price = BigDecimal.valueOf(100 + random.nextInt(PRICE_LEVELS)).setScale(random.nextInt(3));
+            service.registerOrder(silverBarOrder(null, someUUID(), orderType, price, 1 + random.nextInt(1_000)));
+            if (i % 2 == 1) {
+                var orderToCancel = savedOrders.pollFirst();
+                assertThat(service.cancelRegisteredOrder(orderToCancel)).isTrue();
+            }
+        }
+    }
+
+    private boolean isConsistent(LiveOrderSummary summary) {
+        return isConsistent(summary.getBuyOrders()) && isConsistent(summary.getSellOrders());
+    }
+
+    private boolean isConsistent(List<LiveOrderSummaryRecord> records) {
+        return records.stream().allMatch(record -> !record.getComponents().isEmpty()
+                && record.getWeightInGrams() == record.getComponents().stream().mapToInt(SilverBarOrder::getWeightInGrams).sum());
+    }
+
+    private long totalWeight(List<LiveOrderSummaryRecord> records) {
+        return records.stream().mapToLong(LiveOrderSummaryRecord::getWeightInGrams).sum();
+    }
+
+    private long totalWeightOfStored(OrderType orderType) {
+        return repository.getAllOrders().stream()
+                .filter(order -> order.getOrderType() == orderType)
+                .mapToLong(SilverBarOrder::getWeightInGrams)
+                .sum();
+    }
+
+    private long componentCount(LiveOrderSummary summary) {
+        return summary.getBuyOrders().stream().mapToLong(record -> record.getComponents().size()).sum()
+                + summary.getSellOrders().stream().mapToLong(record -> record.getComponents().size()).sum();
+    }
+}
@@ -1,29 +1,42 @@
 package com.silverbars.liveorder.service;
 
+import com.silverbars.liveorder.service.book.LiveOrderSummaryBuilder;
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
 import com.silverbars.liveorder.service.domain.LiveOrderSummary;
 import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
 import com.silverbars.liveorder.service.domain.OrderType;
 import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.id.OrderIdGenerator;
+import com.silverbars.liveorder.service.metrics.OrderServiceMetrics;
+import com.silverbars.liveorder.service.metrics.RecordingOrderServiceMetrics;
 import com.silverbars.liveorder.service.repository.SilverBarOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Collections;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import static com.silverbars.liveorder.service.TestFixtures.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,13 +48,18 @@ class SilverBarOrderServiceImplTest {
     @Mock
     private SilverBarOrderRepository repository;
 
-    @InjectMocks
     private SilverBarOrderServiceImpl service;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(repository.containsOrder(any())).thenReturn(true);
+        service = new SilverBarOrderServiceImpl(repository);
+    }
+
     @Test
     void shouldRegisterNewOrder() {
         // when
-        service.registerOrder(someNewSilverBarOrder());
+        var orderId = service.registerOrder(someNewSilverBarOrder());
 
         // then
         var captor = ArgumentCaptor.forClass(SilverBarOrder.class);
@@ -49,7 +67,39 @@ class SilverBarOrderServiceImplTest {
         var savedOrder = captor.getValue();
         assertThat(savedOrder.getOrderId())
                 .isNotNull()
-                .matches(UUID_REGEX);
+                .matches(UUID_REGEX)
+                .isEqualTo(orderId);
+    }
+
+    @Test
+    void shouldKeepFieldsOfRegisteredOrder() {
+        // given
+        var order = someNewSilverBarOrder();
+
+        // when
+        var orderId = service.registerOrder(order);
+
+        // then
+        var captor = ArgumentCaptor.forClass(SilverBarOrder.class);
+        verify(repository).saveOrder(captor.capture());
+        assertThat(captor.getValue()).isEqualTo(silverBarOrder(orderId, order.getUserId(), order.getOrderType(),
+                order.getThousandGramsPrice(), order.getWeightInGrams()));
+    }
+
+    @Test
+    void shouldRegisterNewOrderWithIdOfGivenGenerator() {
+        // given
+        var orderId = someString();
+        service = new SilverBarOrderServiceImpl(repository, Runnable::run, () -> orderId);
+
+        // when
+        var registeredOrderId = service.registerOrder(someNewSilverBarOrder());
+
+        // then
+        assertThat(registeredOrderId).isEqualTo(orderId);
+        var captor = ArgumentCaptor.forClass(SilverBarOrder.class);
+        verify(repository).saveOrder(captor.capture());
+        assertThat(captor.getValue().getOrderId()).isEqualTo(orderId);
     }
 
     @ParameterizedTest
@@ -77,18 +127,45 @@ class SilverBarOrderServiceImplTest {
     void shouldCancelOrder() {
         // given
         var orderId = someUUID();
+        when(repository.cancelOrder(orderId)).thenReturn(true);
 
         // when
-        service.cancelRegisteredOrder(orderId);
+        var cancelled = service.cancelRegisteredOrder(orderId);
 
         // then
+        assertThat(cancelled).isTrue();
         verify(repository).cancelOrder(orderId);
     }
 
+    @Test
+    void shouldReportCancellingUnknownOrder() {
+        // given
+        var orderId = someUUID();
+        when(repository.cancelOrder(orderId)).thenReturn(false);
+
+        // when
+        var cancelled = service.cancelRegisteredOrder(orderId);
+
+        // then
+        assertThat(cancelled).isFalse();
+    }
+
+    @Test
+    void willThrowExceptionIfCancellingMissingOrderId() {
+        assertThatThrownBy(
+                // when
+                () -> service.cancelRegisteredOrder(null))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("orderId is not present");
+        verify(repository, never()).cancelOrder(any());
+    }
+
     @Test
     void shouldReturnLiveOrderSummary() {
         // given
-        when(repository.getAllOrders()).thenReturn(Collections.emptyList());
+        givenStoredOrders();
 
         // when
         LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
@@ -97,12 +174,69 @@ class SilverBarOrderServiceImplTest {
         assertThat(liveOrderSummary).isNotNull();
     }
 
+    @Test
+    void shouldSeedBookWithStoredOrdersAsSingleChange() {
+        // given
+        var price = someBigDecimal();
+        givenStoredOrders(
+                silverBarOrder(someUUID(), someUUID(), OrderType.BUY, price, someInt()),
+                silverBarOrder(someUUID(), someUUID(), OrderType.BUY, price, someInt()),
+                silverBarOrder(someUUID(), someUUID(), OrderType.BUY, price, someInt()),
+                silverBarOrder(someUUID(), someUUID(), OrderType.SELL, price, someInt()));
+        var levelUpdates = new ArrayList<LevelUpdate>();
+
+        // when
+        service.getLevelUpdates().subscribe(new Flow.Subscriber<>() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(LevelUpdate item) {
+                levelUpdates.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // then
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getSequence)
+                .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldSeedBookWithStoredOrdersGroupedInParallel() {
+        // given
+        var storedOrders = new ArrayList<SilverBarOrder>();
+        for (int i = 0; i < 1_000; i++) {
+            var orderType = i % 2 == 0 ? OrderType.BUY : OrderType.SELL;
+            storedOrders.add(silverBarOrder(someUUID(), someUUID(), orderType, BigDecimal.valueOf(100 + i % 7), 1 + i % 13));
+        }
+        when(repository.getAllOrders()).thenReturn(storedOrders);
+        var expectedSummary = new LiveOrderSummaryBuilder(Integer.MAX_VALUE, ForkJoinPool.commonPool()).build(storedOrders);
+
+        // when
+        service = new SilverBarOrderServiceImpl(repository, Runnable::run, OrderIdGenerator.RANDOM_UUID, OrderServiceMetrics.NOOP, 0);
+
+        // then
+        assertThat(service.getLiveOrderSummary()).isEqualTo(expectedSummary);
+    }
+
     @Test
     void shouldReturnLiveOrderSummaryGroupedByOrderType() {
         // given
         SilverBarOrder buyOrder = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, someBigDecimal(), someInt());
         SilverBarOrder sellOrder = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, someBigDecimal(), someInt());
-        when(repository.getAllOrders()).thenReturn(List.of(buyOrder, sellOrder));
+        givenStoredOrders(buyOrder, sellOrder);
 
         // when
         LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
@@ -127,7 +261,7 @@ class SilverBarOrderServiceImplTest {
         SilverBarOrder sellOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePriceSell, someInt());
         SilverBarOrder sellOrder3 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePriceSell.add(BigDecimal.TEN), someInt());
 
-        when(repository.getAllOrders()).thenReturn(List.of(buyOrder1, sellOrder1, buyOrder3, buyOrder2, sellOrder2, sellOrder3));
+        givenStoredOrders(buyOrder1, sellOrder1, buyOrder3, buyOrder2, sellOrder2, sellOrder3);
 
         // when
         LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
@@ -152,7 +286,7 @@ class SilverBarOrderServiceImplTest {
         SilverBarOrder sellOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePriceSell, someInt());
         SilverBarOrder sellOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePriceSell.setScale(3, RoundingMode.UP), someInt());
 
-        when(repository.getAllOrders()).thenReturn(List.of(buyOrder1, sellOrder1, buyOrder2, sellOrder2));
+        givenStoredOrders(buyOrder1, sellOrder1, buyOrder2, sellOrder2);
 
         // when
         LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
@@ -164,6 +298,448 @@ class SilverBarOrderServiceImplTest {
         assertLiveOrderRecordOnPosition(0, liveOrderSummary.getSellOrders(), samePriceSell, sellOrder1.getWeightInGrams() + sellOrder2.getWeightInGrams(), sellOrder1, sellOrder2);
     }
 
+    @Test
+    void shouldReturnLiveOrderSummaryOfFirstLevels() {
+        // given
+        SilverBarOrder buyOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, BigDecimal.ONE, someInt());
+        SilverBarOrder buyOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, BigDecimal.TEN, someInt());
+        givenStoredOrders(buyOrder1, buyOrder2);
+
+        // when
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary(1);
+
+        // then
+        assertThat(liveOrderSummary.getBuyOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getBuyOrders(), buyOrder1.getThousandGramsPrice(), buyOrder1.getWeightInGrams(), buyOrder1);
+        assertThat(liveOrderSummary.getSellOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnLiveOrderSummaryWithinPriceRange() {
+        // given
+        SilverBarOrder sellOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, BigDecimal.ONE, someInt());
+        SilverBarOrder sellOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, BigDecimal.TEN, someInt());
+        givenStoredOrders(sellOrder1, sellOrder2);
+
+        // when
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary(BigDecimal.valueOf(5), BigDecimal.TEN);
+
+        // then
+        assertThat(liveOrderSummary.getSellOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getSellOrders(), sellOrder2.getThousandGramsPrice(), sellOrder2.getWeightInGrams(), sellOrder2);
+        assertThat(liveOrderSummary.getBuyOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnLiveOrderLevelSummaryWithOrdersAvailablePerLevel() {
+        // given
+        BigDecimal samePrice = someBigDecimal();
+        SilverBarOrder buyOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, samePrice, someInt());
+        SilverBarOrder buyOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, samePrice, someInt());
+        givenStoredOrders(buyOrder1, buyOrder2);
+
+        // when
+        LiveOrderLevelSummary levelSummary = service.getLiveOrderLevelSummary();
+
+        // then
+        assertThat(levelSummary.getSellLevels()).isEmpty();
+        assertThat(levelSummary.getBuyLevels()).hasSize(1);
+        assertThat(levelSummary.getBuyLevels().get(0)).satisfies(level -> {
+            assertThat(level.getThousandGramsPrice()).isEqualByComparingTo(samePrice);
+            assertThat(level.getWeightInGrams()).isEqualTo(buyOrder1.getWeightInGrams() + buyOrder2.getWeightInGrams());
+            assertThat(level.getOrderCount()).isEqualTo(2);
+        });
+        assertThat(service.getLevelOrders(OrderType.BUY, samePrice)).containsExactly(buyOrder1, buyOrder2);
+    }
+
+    @Test
+    void willThrowExceptionForNegativeDepth() {
+        assertThatThrownBy(
+                // when
+                () -> service.getLiveOrderSummary(-1))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("depth cannot be negative");
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidPriceRanges")
+    void willThrowExceptionForInvalidPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String validationMessage) {
+        assertThatThrownBy(
+                // when
+                () -> service.getLiveOrderSummary(minPrice, maxPrice))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(validationMessage);
+    }
+
+    private static Stream<Arguments> invalidPriceRanges() {
+        return Stream.of(
+                Arguments.of(null, BigDecimal.TEN, "minPrice is not present"),
+                Arguments.of(BigDecimal.ONE, null, "maxPrice is not present"),
+                Arguments.of(BigDecimal.TEN, BigDecimal.ONE, "minPrice cannot be greater than maxPrice")
+        );
+    }
+
+    @Test
+    void shouldAddRegisteredOrderToLiveOrderSummary() {
+        // given
+        var order = silverBarOrder(null, someUUID(), OrderType.BUY, someBigDecimal(), someInt());
+
+        // when
+        service.registerOrder(order);
+
+        // then
+        var captor = ArgumentCaptor.forClass(SilverBarOrder.class);
+        verify(repository).saveOrder(captor.capture());
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getBuyOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getBuyOrders(), order.getThousandGramsPrice(), order.getWeightInGrams(), captor.getValue());
+        assertThat(liveOrderSummary.getSellOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldNotAddOrderCancelledWhileBeingRegisteredToLiveOrderSummary() {
+        // given
+        when(repository.containsOrder(any())).thenReturn(false);
+
+        // when
+        service.registerOrder(silverBarOrder(null, someUUID(), OrderType.BUY, someBigDecimal(), someInt()));
+        service.registerOrders(List.of(silverBarOrder(null, someUUID(), OrderType.SELL, someBigDecimal(), someInt())));
+
+        // then
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getBuyOrders()).isEmpty();
+        assertThat(liveOrderSummary.getSellOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveCancelledOrderFromLiveOrderSummary() {
+        // given
+        BigDecimal samePrice = someBigDecimal();
+        SilverBarOrder sellOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePrice, someInt());
+        SilverBarOrder sellOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePrice, someInt());
+        SilverBarOrder sellOrder3 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, samePrice.add(BigDecimal.TEN), someInt());
+        givenStoredOrders(sellOrder1, sellOrder2, sellOrder3);
+
+        // when
+        service.cancelRegisteredOrder(sellOrder1.getOrderId());
+        service.cancelRegisteredOrder(sellOrder3.getOrderId());
+
+        // then
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getSellOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getSellOrders(), samePrice, sellOrder2.getWeightInGrams(), sellOrder2);
+    }
+
+    @Test
+    void shouldRegisterValidOrdersOfBatchAndRejectInvalidOnes() {
+        // given
+        var buyOrder = silverBarOrder(null, someUUID(), OrderType.BUY, BigDecimal.TEN, someInt());
+        var invalidOrder = silverBarOrder(null, null, OrderType.BUY, BigDecimal.TEN, someInt());
+        var sellOrder = silverBarOrder(null, someUUID(), OrderType.SELL, BigDecimal.ONE, someInt());
+
+        // when
+        var results = service.registerOrders(List.of(buyOrder, invalidOrder, sellOrder));
+
+        // then
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).isRegistered()).isTrue();
+        assertThat(results.get(0).getOrderId()).matches(UUID_REGEX);
+        assertThat(results.get(1).isRegistered()).isFalse();
+        assertThat(results.get(1).getRejectionReason()).isEqualTo("userId is not present");
+        assertThat(results.get(2).getOrderId()).matches(UUID_REGEX);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<SilverBarOrder>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).saveOrders(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(SilverBarOrder::getOrderId)
+                .containsExactly(results.get(0).getOrderId(), results.get(2).getOrderId());
+        verify(repository, never()).saveOrder(any());
+
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getBuyOrders()).hasSize(1);
+        assertThat(liveOrderSummary.getBuyOrders().get(0).getWeightInGrams()).isEqualTo(buyOrder.getWeightInGrams());
+        assertThat(liveOrderSummary.getSellOrders()).hasSize(1);
+        assertThat(liveOrderSummary.getSellOrders().get(0).getWeightInGrams()).isEqualTo(sellOrder.getWeightInGrams());
+    }
+
+    @Test
+    void shouldRejectOrderOfBatchWhichRepositoryCannotSave() {
+        // given
+        var order = silverBarOrder(null, someUUID(), OrderType.BUY, BigDecimal.TEN, someInt());
+        var unsavableOrder = silverBarOrder(null, someUUID(), OrderType.SELL, BigDecimal.ONE, someInt());
+        lenient().doThrow(new IllegalArgumentException("thousandGramsPrice cannot be saved"))
+                .when(repository).validateOrder(unsavableOrder);
+
+        // when
+        var results = service.registerOrders(List.of(order, unsavableOrder));
+
+        // then
+        assertThat(results.get(0).isRegistered()).isTrue();
+        assertThat(results.get(1).getRejectionReason()).isEqualTo("thousandGramsPrice cannot be saved");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<SilverBarOrder>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).saveOrders(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(SilverBarOrder::getOrderId)
+                .containsExactly(results.get(0).getOrderId());
+    }
+
+    @Test
+    void shouldRejectMissingOrderOfBatch() {
+        // given
+        var orders = new ArrayList<SilverBarOrder>();
+        orders.add(null);
+
+        // when
+        var results = service.registerOrders(orders);
+
+        // then
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getRejectionReason()).isEqualTo("order is not present");
+    }
+
+    @Test
+    void shouldCancelBatchOfOrders() {
+        // given
+        var price = someBigDecimal();
+        var sellOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, price, someInt());
+        var sellOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, price, someInt());
+        var sellOrder3 = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, price, someInt());
+        givenStoredOrders(sellOrder1, sellOrder2, sellOrder3);
+        var unknownOrderId = someUUID();
+        var orderIds = List.of(sellOrder1.getOrderId(), unknownOrderId, sellOrder3.getOrderId());
+        when(repository.cancelOrders(orderIds)).thenReturn(List.of(true, false, true));
+
+        // when
+        var cancelled = service.cancelRegisteredOrders(orderIds);
+
+        // then
+        assertThat(cancelled).containsExactly(true, false, true);
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getSellOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getSellOrders(), price, sellOrder2.getWeightInGrams(), sellOrder2);
+    }
+
+    @Test
+    void willThrowExceptionIfCancellingBatchWithMissingOrderId() {
+        // given
+        var orderIds = new ArrayList<String>();
+        orderIds.add(someUUID());
+        orderIds.add(null);
+
+        assertThatThrownBy(
+                // when
+                () -> service.cancelRegisteredOrders(orderIds))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("orderId is not present");
+    }
+
+    @Test
+    void shouldReturnOrdersOfUser() {
+        // given
+        var userId = someUUID();
+        var order1 = silverBarOrder(someUUID(), userId, OrderType.BUY, someBigDecimal(), someInt());
+        var order2 = silverBarOrder(someUUID(), userId, OrderType.SELL, someBigDecimal(), someInt());
+        when(repository.findUserOrders(userId)).thenReturn(List.of(order1, order2));
+
+        // when
+        var userOrders = service.getUserOrders(userId);
+
+        // then
+        assertThat(userOrders).containsExactly(order1, order2);
+    }
+
+    @Test
+    void shouldCancelAllOrdersOfUser() {
+        // given
+        var userId = someUUID();
+        var price = someBigDecimal();
+        var userOrder1 = silverBarOrder(someUUID(), userId, OrderType.BUY, price, someInt());
+        var userOrder2 = silverBarOrder(someUUID(), userId, OrderType.BUY, price, someInt());
+        var otherUserOrder = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, price, someInt());
+        givenStoredOrders(userOrder1, otherUserOrder, userOrder2);
+        var userOrderIds = List.of(userOrder1.getOrderId(), userOrder2.getOrderId());
+        when(repository.findUserOrders(userId)).thenReturn(List.of(userOrder1, userOrder2));
+        when(repository.cancelOrders(userOrderIds)).thenReturn(List.of(true, true));
+
+        // when
+        var cancelledOrderIds = service.cancelUserOrders(userId);
+
+        // then
+        assertThat(cancelledOrderIds).containsExactlyElementsOf(userOrderIds);
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getBuyOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getBuyOrders(), price, otherUserOrder.getWeightInGrams(), otherUserOrder);
+    }
+
+    @Test
+    void shouldKeepExpiryTimeOfRegisteredOrder() {
+        // given
+        var expiresAt = Instant.now().plusSeconds(60);
+        var order = expiringSilverBarOrder(null, OrderType.BUY, someBigDecimal(), expiresAt);
+
+        // when
+        service.registerOrder(order);
+
+        // then
+        var captor = ArgumentCaptor.forClass(SilverBarOrder.class);
+        verify(repository).saveOrder(captor.capture());
+        assertThat(captor.getValue().getExpiresAt()).isEqualTo(expiresAt);
+    }
+
+    @Test
+    void shouldExpireOrdersRemovingThemFromLiveOrderSummary() {
+        // given
+        var now = Instant.now();
+        var price = someBigDecimal();
+        var expiredOrder = expiringSilverBarOrder(someUUID(), OrderType.SELL, price, now.minusSeconds(1));
+        var expiringOrder = expiringSilverBarOrder(someUUID(), OrderType.SELL, price, now.plusSeconds(60));
+        var liveOrder = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, price, someInt());
+        givenStoredOrders(expiredOrder, expiringOrder, liveOrder);
+        when(repository.cancelOrders(List.of(expiredOrder.getOrderId()))).thenReturn(List.of(true));
+
+        // when
+        var expiredOrderIds = service.expireOrders(now.plusSeconds(1));
+
+        // then
+        assertThat(expiredOrderIds).containsExactly(expiredOrder.getOrderId());
+        LiveOrderSummary liveOrderSummary = service.getLiveOrderSummary();
+        assertThat(liveOrderSummary.getSellOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, liveOrderSummary.getSellOrders(), price,
+                expiringOrder.getWeightInGrams() + liveOrder.getWeightInGrams(), expiringOrder, liveOrder);
+    }
+
+    @Test
+    void shouldNotExpireCancelledOrder() {
+        // given
+        var now = Instant.now();
+        var order = expiringSilverBarOrder(someUUID(), OrderType.BUY, someBigDecimal(), now.plusSeconds(1));
+        givenStoredOrders(order);
+        when(repository.cancelOrder(order.getOrderId())).thenReturn(true);
+        service.cancelRegisteredOrder(order.getOrderId());
+
+        // when
+        var expiredOrderIds = service.expireOrders(now.plusSeconds(2));
+
+        // then
+        assertThat(expiredOrderIds).isEmpty();
+        verify(repository, never()).cancelOrders(any());
+    }
+
+    @Test
+    void shouldNotExpireOrdersCancelledInBatch() {
+        // given
+        var now = Instant.now();
+        var order = expiringSilverBarOrder(someUUID(), OrderType.BUY, someBigDecimal(), now.plusSeconds(1));
+        var orderIds = List.of(order.getOrderId(), someUUID());
+        givenStoredOrders(order);
+        when(repository.cancelOrders(orderIds)).thenReturn(List.of(true, false));
+        service.cancelRegisteredOrders(orderIds);
+
+        // when
+        var expiredOrderIds = service.expireOrders(now.plusSeconds(2));
+
+        // then
+        assertThat(expiredOrderIds).isEmpty();
+        verify(repository).cancelOrders(any());
+    }
+
+    @Test
+    void shouldReturnLiveOrderSummaryOfUser() {
+        // given
+        var userId = someUUID();
+        var buyOrder1 = silverBarOrder(someUUID(), userId, OrderType.BUY, BigDecimal.TEN, 100);
+        var buyOrder2 = silverBarOrder(someUUID(), userId, OrderType.BUY, BigDecimal.ONE, 200);
+        var sellOrder = silverBarOrder(someUUID(), userId, OrderType.SELL, BigDecimal.TEN, 300);
+        when(repository.findUserOrders(userId)).thenReturn(List.of(buyOrder1, sellOrder, buyOrder2));
+
+        // when
+        var userSummary = service.getUserLiveOrderSummary(userId);
+
+        // then
+        assertThat(userSummary.getBuyOrders()).hasSize(2);
+        assertLiveOrderRecordOnPosition(0, userSummary.getBuyOrders(), BigDecimal.ONE, 200, buyOrder2);
+        assertLiveOrderRecordOnPosition(1, userSummary.getBuyOrders(), BigDecimal.TEN, 100, buyOrder1);
+        assertThat(userSummary.getSellOrders()).hasSize(1);
+        assertLiveOrderRecordOnPosition(0, userSummary.getSellOrders(), BigDecimal.TEN, 300, sellOrder);
+    }
+
+    @Test
+    void willThrowExceptionIfUserIdIsMissing() {
+        assertThatThrownBy(
+                // when
+                () -> service.cancelUserOrders(null))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("userId is not present");
+    }
+
+    @Test
+    void shouldRecordMetricsOfOperations() {
+        // given
+        var metrics = new RecordingOrderServiceMetrics();
+        service = new SilverBarOrderServiceImpl(repository, Runnable::run, OrderIdGenerator.RANDOM_UUID, metrics);
+        var orderId = service.registerOrder(silverBarOrder(null, someUUID(), OrderType.BUY, BigDecimal.ONE, someInt()));
+        service.registerOrder(silverBarOrder(null, someUUID(), OrderType.SELL, BigDecimal.TEN, someInt()));
+        assertThatThrownBy(() -> service.registerOrder(silverBarOrder(null, null, OrderType.BUY, BigDecimal.ONE, someInt())));
+        var unknownOrderId = someUUID();
+        when(repository.cancelOrder(orderId)).thenReturn(true);
+        when(repository.cancelOrder(unknownOrderId)).thenReturn(false);
+
+        // when
+        service.cancelRegisteredOrder(orderId);
+        service.cancelRegisteredOrder(unknownOrderId);
+        service.getLiveOrderSummary();
+
+        // then
+        var snapshot = metrics.snapshot();
+        assertThat(snapshot.getRegisteredOrders()).isEqualTo(2);
+        assertThat(snapshot.getRejectedOrders()).isEqualTo(1);
+        assertThat(snapshot.getCancelledOrders()).isEqualTo(1);
+        assertThat(snapshot.getUnknownOrderCancels()).isEqualTo(1);
+        assertThat(snapshot.getLiveOrders()).isEqualTo(1);
+        assertThat(snapshot.getBuyLevels()).isZero();
+        assertThat(snapshot.getSellLevels()).isEqualTo(1);
+        assertThat(snapshot.getRegisterLatency().getCount()).isEqualTo(2);
+        assertThat(snapshot.getCancelLatency().getCount()).isEqualTo(2);
+        assertThat(snapshot.getSummaryLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordLatencyOfBatchesPerOrder() {
+        // given
+        var metrics = new RecordingOrderServiceMetrics();
+        service = new SilverBarOrderServiceImpl(repository, Runnable::run, OrderIdGenerator.RANDOM_UUID, metrics);
+        var orderIds = List.of(someUUID(), someUUID(), someUUID());
+        when(repository.cancelOrders(orderIds)).thenReturn(List.of(true, false, true));
+
+        // when
+        service.registerOrders(List.of(someNewSilverBarOrder(), someNewSilverBarOrder()));
+        service.cancelRegisteredOrders(orderIds);
+
+        // then
+        var snapshot = metrics.snapshot();
+        assertThat(snapshot.getRegisteredOrders()).isEqualTo(2);
+        assertThat(snapshot.getRegisterLatency().getCount()).isEqualTo(2);
+        assertThat(snapshot.getCancelledOrders()).isEqualTo(2);
+        assertThat(snapshot.getUnknownOrderCancels()).isEqualTo(1);
+        assertThat(snapshot.getCancelLatency().getCount()).isEqualTo(3);
+    }
+
+    private void givenStoredOrders(SilverBarOrder... orders) {
+        when(repository.getAllOrders()).thenReturn(List.of(orders));
+        service = new SilverBarOrderServiceImpl(repository, Runnable::run);
+    }
+
     private void assertLiveOrderRecordOnPosition(int position, List<LiveOrderSummaryRecord> orders, BigDecimal price, int grams, SilverBarOrder... originalOrders) {
         assertThat(orders.get(position)).satisfies(liveOrder -> {
             assertThat(liveOrder.getComponents()).hasSize(originalOrders.length).containsExactly(originalOrders);
@@ -5,29 +5,30 @@ import com.silverbars.liveorder.service.domain.SilverBarOrder;
 import org.apache.commons.lang3.RandomStringUtils;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class TestFixtures {
 
-    static int someInt() {
+    public static int someInt() {
         return ThreadLocalRandom.current().nextInt(100_000);
     }
 
-    static String someUUID() {
+    public static String someUUID() {
         return UUID.randomUUID().toString();
     }
 
-    static BigDecimal someBigDecimal() {
+    public static BigDecimal someBigDecimal() {
         return new BigDecimal(Math.random());
     }
 
-    static String someString() {
+    public static String someString() {
         var stringLength = ThreadLocalRandom.current().nextInt(10);
         return RandomStringUtils.random(stringLength);
     }
 
-    static OrderType someOrderType() {
+    public static OrderType someOrderType() {
         var randomElementIndex = ThreadLocalRandom.current().nextInt(OrderType.values().length);
         return OrderType.values()[randomElementIndex];
     }
@@ -44,7 +45,7 @@ public class TestFixtures {
         return silverBarOrder(orderId, someString(), someOrderType(), someBigDecimal(), someInt());
     }
 
-    static SilverBarOrder silverBarOrder(String orderId, String userId, OrderType orderType, BigDecimal thousandGramsPrice, int weightInGrams) {
+    public static SilverBarOrder silverBarOrder(String orderId, String userId, OrderType orderType, BigDecimal thousandGramsPrice, int weightInGrams) {
         return SilverBarOrder.builder()
                 .orderId(orderId)
                 .userId(userId)
@@ -53,4 +54,15 @@ public class TestFixtures {
                 .weightInGrams(weightInGrams)
                 .build();
     }
+
+    public static SilverBarOrder expiringSilverBarOrder(String orderId, OrderType orderType, BigDecimal thousandGramsPrice, Instant expiresAt) {
+        return SilverBarOrder.builder()
+                .orderId(orderId)
+                .userId(someUUID())
+                .orderType(orderType)
+                .thousandGramsPrice(thousandGramsPrice)
+                .weightInGrams(someInt())
+                .expiresAt(expiresAt)
+                .build();
+    }
 }
@@ -0,0 +1,105 @@
+package com.silverbars.liveorder.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VersionedCacheTest {
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldCoalesceConcurrentLoadsOfTheSameVersion() throws Exception {
+        // given
+        var loadStarted = new CountDownLatch(1);
+        var releaseLoad = new CountDownLatch(1);
+        var cache = new VersionedCache<>(() -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            return loads.incrementAndGet();
+        }, version::get, 0);
+        var firstCaller = CompletableFuture.supplyAsync(cache::get);
+        loadStarted.await(5, TimeUnit.SECONDS);
+
+        // when
+        var otherCallers = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < 4; i++) {
+            otherCallers.add(CompletableFuture.supplyAsync(cache::get));
+        }
+        releaseLoad.countDown();
+
+        // then
+        assertThat(firstCaller.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        for (var otherCaller : otherCallers) {
+            assertThat(otherCaller.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldReloadWhenVersionChanges() {
+        // given
+        var cache = new VersionedCache<>(loads::incrementAndGet, version::get, 0);
+        cache.get();
+
+        // when
+        version.incrementAndGet();
+
+        // then
+        assertThat(cache.get()).isEqualTo(2);
+        assertThat(cache.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReloadStaleValueOnlyAfterMaxStaleness() {
+        // given
+        var cache = new VersionedCache<>(loads::incrementAndGet, version::get, 100, nanoTime::get);
+        cache.get();
+        version.incrementAndGet();
+
+        // when
+        nanoTime.set(99);
+        var staleValue = cache.get();
+        nanoTime.set(100);
+        var reloadedValue = cache.get();
+
+        // then
+        assertThat(staleValue).isEqualTo(1);
+        assertThat(reloadedValue).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRetryLoadAfterFailure() {
+        // given
+        var cache = new VersionedCache<>(() -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("load failed");
+            }
+            return loads.get();
+        }, version::get, 0);
+
+        // when
+        assertThatThrownBy(cache::get).isInstanceOf(IllegalStateException.class);
+
+        // then
+        assertThat(cache.get()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.LiveOrderLevel;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LiveOrderBookTest {
+
+    private final List<LevelUpdate> levelUpdates = new ArrayList<>();
+    private LiveOrderBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new LiveOrderBook(levelUpdates::add);
+    }
+
+    @Test
+    void shouldKeepBuyLevelsAscendingAndSellLevelsDescending() {
+        // given
+        var buyOrder1 = addOrder(OrderType.BUY, new BigDecimal("12.5"), 100);
+        var buyOrder2 = addOrder(OrderType.BUY, new BigDecimal("11.0"), 200);
+        var sellOrder1 = addOrder(OrderType.SELL, new BigDecimal("12.5"), 300);
+        var sellOrder2 = addOrder(OrderType.SELL, new BigDecimal("13.0"), 400);
+
+        // when
+        var summary = book.getLiveOrderSummary();
+
+        // then
+        assertThat(summary.getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(buyOrder2), List.of(buyOrder1));
+        assertThat(summary.getSellOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(sellOrder2), List.of(sellOrder1));
+    }
+
+    @Test
+    void shouldAggregateWeightOfSamePriceIgnoringScale() {
+        // given
+        var order1 = addOrder(OrderType.BUY, new BigDecimal("10.0"), 100);
+        var order2 = addOrder(OrderType.BUY, new BigDecimal("10.00"), 250);
+
+        // when
+        var summary = book.getLiveOrderSummary();
+
+        // then
+        assertThat(summary.getBuyOrders()).hasSize(1);
+        assertThat(summary.getBuyOrders().get(0)).satisfies(record -> {
+            assertThat(record.getThousandGramsPrice()).isEqualByComparingTo("10");
+            assertThat(record.getWeightInGrams()).isEqualTo(350);
+            assertThat(record.getComponents()).containsExactly(order1, order2);
+        });
+    }
+
+    @Test
+    void shouldUpdateLevelWeightWhenOrderIsRemoved() {
+        // given
+        var order1 = addOrder(OrderType.SELL, new BigDecimal("10"), 100);
+        var order2 = addOrder(OrderType.SELL, new BigDecimal("10"), 250);
+
+        // when
+        var removedOrder = book.removeOrder(order1.getOrderId());
+
+        // then
+        assertThat(removedOrder).contains(order1);
+        assertThat(book.getLiveOrderSummary().getSellOrders()).hasSize(1);
+        assertThat(book.getLiveOrderSummary().getSellOrders().get(0)).satisfies(record -> {
+            assertThat(record.getWeightInGrams()).isEqualTo(250);
+            assertThat(record.getComponents()).containsExactly(order2);
+        });
+    }
+
+    @Test
+    void shouldRemoveOrderFromLevelWithPriceOfDifferentScale() {
+        // given
+        var order1 = addOrder(OrderType.BUY, new BigDecimal("10.000"), 100);
+        var order2 = addOrder(OrderType.BUY, new BigDecimal("1E+1"), 250);
+        var order3 = addOrder(OrderType.BUY, new BigDecimal("10"), 50);
+
+        // when
+        book.removeOrder(order2.getOrderId());
+
+        // then
+        assertThat(book.getLiveOrderSummary().getBuyOrders()).hasSize(1);
+        assertThat(book.getLiveOrderSummary().getBuyOrders().get(0)).satisfies(record -> {
+            assertThat(record.getWeightInGrams()).isEqualTo(150);
+            assertThat(record.getComponents()).containsExactly(order1, order3);
+        });
+    }
+
+    @Test
+    void shouldRemoveEmptyLevel() {
+        // given
+        var order = addOrder(OrderType.BUY, someBigDecimal(), someInt());
+
+        // when
+        book.removeOrder(order.getOrderId());
+
+        // then
+        assertThat(book.getLiveOrderSummary().getBuyOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreUnknownOrderId() {
+        // when
+        var removedOrder = book.removeOrder(someUUID());
+
+        // then
+        assertThat(removedOrder).isEmpty();
+    }
+
+    @Test
+    void shouldReturnFirstLevelsOfEachSide() {
+        // given
+        addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("11"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("12"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("10"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("11"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("12"), 100);
+
+        // when
+        var summary = book.getLiveOrderSummary(2);
+
+        // then
+        assertThat(summary.getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getThousandGramsPrice)
+                .containsExactly(new BigDecimal("10"), new BigDecimal("11"));
+        assertThat(summary.getSellOrders())
+                .extracting(LiveOrderSummaryRecord::getThousandGramsPrice)
+                .containsExactly(new BigDecimal("12"), new BigDecimal("11"));
+    }
+
+    @Test
+    void shouldReturnLevelsWithinPriceRange() {
+        // given
+        addOrder(OrderType.BUY, new BigDecimal("9.99"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("11.5"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("12.01"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("10.5"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("12"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("13"), 100);
+
+        // when
+        var summary = book.getLiveOrderSummary(new BigDecimal("10.00"), new BigDecimal("12.0"));
+
+        // then
+        assertThat(summary.getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getThousandGramsPrice)
+                .containsExactly(new BigDecimal("10"), new BigDecimal("11.5"));
+        assertThat(summary.getSellOrders())
+                .extracting(LiveOrderSummaryRecord::getThousandGramsPrice)
+                .containsExactly(new BigDecimal("12"), new BigDecimal("10.5"));
+    }
+
+    @Test
+    void shouldReturnLevelAggregatesWithOrderCount() {
+        // given
+        addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("10.0"), 50);
+        var cancelledOrder = addOrder(OrderType.BUY, new BigDecimal("10"), 25);
+        addOrder(OrderType.SELL, new BigDecimal("11"), 70);
+        book.removeOrder(cancelledOrder.getOrderId());
+
+        // when
+        var levelSummary = book.getLiveOrderLevelSummary();
+
+        // then
+        assertThat(levelSummary.getBuyLevels())
+                .extracting(LiveOrderLevel::getThousandGramsPrice, LiveOrderLevel::getWeightInGrams, LiveOrderLevel::getOrderCount)
+                .containsExactly(tuple(new BigDecimal("10"), 150, 2));
+        assertThat(levelSummary.getSellLevels())
+                .extracting(LiveOrderLevel::getThousandGramsPrice, LiveOrderLevel::getWeightInGrams, LiveOrderLevel::getOrderCount)
+                .containsExactly(tuple(new BigDecimal("11"), 70, 1));
+    }
+
+    @Test
+    void shouldReturnOrdersOfSingleLevel() {
+        // given
+        var order1 = addOrder(OrderType.SELL, new BigDecimal("10"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("11"), 100);
+        addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        var order2 = addOrder(OrderType.SELL, new BigDecimal("10.00"), 100);
+
+        // when
+        var levelOrders = book.getLevelOrders(OrderType.SELL, new BigDecimal("10.0"));
+
+        // then
+        assertThat(levelOrders).containsExactly(order1, order2);
+        assertThat(book.getLevelOrders(OrderType.SELL, new BigDecimal("12"))).isEmpty();
+    }
+
+    @Test
+    void shouldReportLevelUpdatesWithGrowingSequence() {
+        // given
+        var order1 = addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        var order2 = addOrder(OrderType.BUY, new BigDecimal("10.0"), 50);
+
+        // when
+        book.removeOrder(order1.getOrderId());
+        book.removeOrder(order2.getOrderId());
+
+        // then
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getSequence, LevelUpdate::getUpdateType, LevelUpdate::getWeightInGrams)
+                .containsExactly(
+                        tuple(1L, LevelUpdateType.ADDED, 100),
+                        tuple(2L, LevelUpdateType.CHANGED, 150),
+                        tuple(3L, LevelUpdateType.CHANGED, 50),
+                        tuple(4L, LevelUpdateType.REMOVED, 0));
+    }
+
+    @Test
+    void shouldReturnLiveLevelsWithSequenceOfTheirLastChange() {
+        // given
+        addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        addOrder(OrderType.SELL, new BigDecimal("12"), 70);
+        addOrder(OrderType.BUY, new BigDecimal("10"), 30);
+
+        // when
+        var levelSnapshot = book.getLevelSnapshot();
+
+        // then
+        assertThat(levelSnapshot)
+                .extracting(LevelUpdate::getSequence, LevelUpdate::getUpdateType, LevelUpdate::getOrderType, LevelUpdate::getWeightInGrams)
+                .containsExactly(
+                        tuple(3L, LevelUpdateType.ADDED, OrderType.BUY, 130),
+                        tuple(2L, LevelUpdateType.ADDED, OrderType.SELL, 70));
+    }
+
+    @Test
+    void shouldAddBatchReportingEachTouchedLevelOnce() {
+        // given
+        var existingOrder = addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        var buyOrder1 = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, new BigDecimal("10.0"), 20);
+        var buyOrder2 = silverBarOrder(someUUID(), someUUID(), OrderType.BUY, new BigDecimal("10"), 30);
+        var sellOrder = silverBarOrder(someUUID(), someUUID(), OrderType.SELL, new BigDecimal("12"), 70);
+        levelUpdates.clear();
+
+        // when
+        book.addOrders(List.of(buyOrder1, sellOrder, buyOrder2));
+
+        // then
+        assertThat(book.getLiveOrderSummary().getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(existingOrder, buyOrder1, buyOrder2));
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getUpdateType, LevelUpdate::getOrderType, LevelUpdate::getWeightInGrams)
+                .containsExactly(
+                        tuple(LevelUpdateType.CHANGED, OrderType.BUY, 150),
+                        tuple(LevelUpdateType.ADDED, OrderType.SELL, 70));
+    }
+
+    @Test
+    void shouldReplaceOrderAddedWithinTheSameBatch() {
+        // given
+        var orderId = someUUID();
+        var order = silverBarOrder(orderId, someUUID(), OrderType.BUY, new BigDecimal("10"), 100);
+        var replacingOrder = silverBarOrder(orderId, someUUID(), OrderType.BUY, new BigDecimal("11"), 50);
+
+        // when
+        book.addOrders(List.of(order, replacingOrder));
+
+        // then
+        assertThat(book.getLiveOrderSummary().getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(replacingOrder));
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getUpdateType, LevelUpdate::getThousandGramsPrice)
+                .containsExactly(tuple(LevelUpdateType.ADDED, new BigDecimal("11")));
+    }
+
+    @Test
+    void shouldRemoveBatchReportingEachTouchedLevelOnce() {
+        // given
+        var buyOrder1 = addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        var buyOrder2 = addOrder(OrderType.BUY, new BigDecimal("10"), 30);
+        var buyOrder3 = addOrder(OrderType.BUY, new BigDecimal("10"), 20);
+        var sellOrder = addOrder(OrderType.SELL, new BigDecimal("12"), 70);
+        levelUpdates.clear();
+
+        // when
+        var removedOrders = book.removeOrders(List.of(buyOrder1.getOrderId(), sellOrder.getOrderId(), someUUID(), buyOrder3.getOrderId()));
+
+        // then
+        assertThat(removedOrders).containsExactly(buyOrder1, sellOrder, buyOrder3);
+        assertThat(book.getLiveOrderSummary().getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(buyOrder2));
+        assertThat(book.getLiveOrderSummary().getSellOrders()).isEmpty();
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getUpdateType, LevelUpdate::getOrderType, LevelUpdate::getWeightInGrams)
+                .containsExactly(
+                        tuple(LevelUpdateType.CHANGED, OrderType.BUY, 30),
+                        tuple(LevelUpdateType.REMOVED, OrderType.SELL, 0));
+    }
+
+    @Test
+    void shouldAddLevelsOfBuiltSummaryReportingEachLevelOnce() {
+        // given
+        var existingOrder = addOrder(OrderType.BUY, new BigDecimal("10"), 100);
+        var orders = List.of(
+                silverBarOrder(someUUID(), someUUID(), OrderType.BUY, new BigDecimal("10.0"), 20),
+                silverBarOrder(someUUID(), someUUID(), OrderType.SELL, new BigDecimal("12"), 70),
+                silverBarOrder(someUUID(), someUUID(), OrderType.BUY, new BigDecimal("10"), 30),
+                silverBarOrder(someUUID(), someUUID(), OrderType.BUY, new BigDecimal("9"), 40));
+        var summary = new LiveOrderSummaryBuilder(0, ForkJoinPool.commonPool()).build(orders);
+        levelUpdates.clear();
+
+        // when
+        book.addLevels(summary);
+
+        // then
+        assertThat(book.getOrderCount()).isEqualTo(5);
+        assertThat(book.getLiveOrderSummary().getBuyOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(orders.get(3)), List.of(existingOrder, orders.get(0), orders.get(2)));
+        assertThat(book.getLiveOrderSummary().getSellOrders())
+                .extracting(LiveOrderSummaryRecord::getComponents)
+                .containsExactly(List.of(orders.get(1)));
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getUpdateType, LevelUpdate::getOrderType, LevelUpdate::getWeightInGrams)
+                .containsExactlyInAnyOrder(
+                        tuple(LevelUpdateType.ADDED, OrderType.BUY, 40),
+                        tuple(LevelUpdateType.CHANGED, OrderType.BUY, 150),
+                        tuple(LevelUpdateType.ADDED, OrderType.SELL, 70));
+    }
+
+    @Test
+    void shouldNotKeepOrdersRemovedWhileBeingAdded() throws Exception {
+        // given
+        var concurrentBook = new LiveOrderBook();
+        var orders = new ArrayList<SilverBarOrder>();
+        for (int i = 0; i < 20_000; i++) {
+            var orderType = i % 2 == 0 ? OrderType.BUY : OrderType.SELL;
+            orders.add(silverBarOrder(someUUID(), someUUID(), orderType, BigDecimal.valueOf(10 + i % 5), 1 + i % 7));
+        }
+        var executor = Executors.newFixedThreadPool(2);
+
+        // when
+        var adder = executor.submit(() -> {
+            for (int i = 0; i < orders.size(); i++) {
+                if (i % 2 == 0) {
+                    concurrentBook.addOrder(orders.get(i));
+                } else {
+                    concurrentBook.addOrders(List.of(orders.get(i)));
+                }
+            }
+        });
+        var remover = executor.submit(() -> {
+            for (int i = 0; i < orders.size(); i++) {
+                var orderId = orders.get(i).getOrderId();
+                if (i % 2 == 0) {
+                    while (concurrentBook.removeOrder(orderId).isEmpty()) {
+                        Thread.onSpinWait();
+                    }
+                } else {
+                    while (concurrentBook.removeOrders(List.of(orderId)).isEmpty()) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        });
+        adder.get(1, TimeUnit.MINUTES);
+        remover.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        // then
+        assertThat(concurrentBook.getOrderCount()).isZero();
+        assertThat(concurrentBook.getLiveOrderLevelSummary().getBuyLevels()).isEmpty();
+        assertThat(concurrentBook.getLiveOrderLevelSummary().getSellLevels()).isEmpty();
+        assertThat(concurrentBook.getLevelCount(OrderType.BUY)).isZero();
+        assertThat(concurrentBook.getLevelCount(OrderType.SELL)).isZero();
+        assertThat(concurrentBook.getLevelSnapshot()).isEmpty();
+    }
+
+    private SilverBarOrder addOrder(OrderType orderType, BigDecimal price, int weightInGrams) {
+        var order = silverBarOrder(someUUID(), someUUID(), orderType, price, weightInGrams);
+        book.addOrder(order);
+        return order;
+    }
+}
@@ -0,0 +1,96 @@
+package com.silverbars.liveorder.service.book;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveOrderSummaryBuilderTest {
+
+    private static final int ORDER_COUNT = 20_000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Test
+    void shouldBuildSameSummaryAsBookSequentially() {
+        // given
+        var orders = someOrders();
+        var builder = new LiveOrderSummaryBuilder(Integer.MAX_VALUE, pool);
+
+        // when
+        var summary = builder.build(orders);
+
+        // then
+        assertThat(summary).isEqualTo(bookOf(orders).getLiveOrderSummary());
+    }
+
+    @Test
+    void shouldBuildSameSummaryAsBookInParallel() {
+        // given
+        var orders = someOrders();
+        var builder = new LiveOrderSummaryBuilder(0, pool);
+
+        // when
+        var summary = builder.build(orders);
+
+        // then
+        assertThat(summary).isEqualTo(bookOf(orders).getLiveOrderSummary());
+    }
+
+    @Test
+    void shouldBuildSummaryOfOrdersWithoutRandomAccessInParallel() {
+        // given
+        var orders = someOrders();
+        var builder = new LiveOrderSummaryBuilder(0, pool);
+
+        // when
+        var summary = builder.build(new LinkedList<>(orders));
+
+        // then
+        assertThat(summary).isEqualTo(bookOf(orders).getLiveOrderSummary());
+    }
+
+    @Test
+    void shouldBuildEmptySummaryOfNoOrders() {
+        // when
+        var summary = new LiveOrderSummaryBuilder(0, pool).build(List.of());
+
+        // then
+        assertThat(summary.getBuyOrders()).isEmpty();
+        assertThat(summary.getSellOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldNotCreateBuilderWithNegativeThreshold() {
+        assertThatThrownBy(
+                // when
+                () -> new LiveOrderSummaryBuilder(-1, pool)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("parallelThreshold cannot be negative");
+    }
+
+    private static List<SilverBarOrder> someOrders() {
+        var orders = new ArrayList<SilverBarOrder>(ORDER_COUNT);
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            var price = BigDecimal.valueOf(someInt() % 500, i % 3);
+            orders.add(silverBarOrder(someUUID(), someUUID(), someOrderType(), price, someInt()));
+        }
+        return orders;
+    }
+
+    private static LiveOrderBook bookOf(List<SilverBarOrder> orders) {
+        var book = new LiveOrderBook();
+        orders.forEach(book::addOrder);
+        return book;
+    }
+}
@@ -0,0 +1,211 @@
+package com.silverbars.liveorder.service.codec;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.LiveOrderLevel;
+import com.silverbars.liveorder.service.domain.LiveOrderLevelSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummary;
+import com.silverbars.liveorder.service.domain.LiveOrderSummaryRecord;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveOrderSummaryCodecTest {
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    @Test
+    void shouldRoundTripSummary() {
+        // given
+        var summary = LiveOrderSummary.builder()
+                .buyOrders(List.of(
+                        record(new BigDecimal("10.5"), order(OrderType.BUY, new BigDecimal("10.5")), order(OrderType.BUY, new BigDecimal("10.50"))),
+                        record(new BigDecimal("11"), order(OrderType.BUY, new BigDecimal("11")),
+                                expiringSilverBarOrder(someUUID(), OrderType.BUY, new BigDecimal("11"), Instant.ofEpochSecond(1_700_000_000L, 5)))))
+                .sellOrders(List.of(
+                        record(new BigDecimal("12.25"), order(OrderType.SELL, new BigDecimal("12.25")))))
+                .build();
+
+        // when
+        LiveOrderSummaryCodec.encode(summary, buffer);
+        var decodedSummary = LiveOrderSummaryCodec.decodeSummary(buffer.flip());
+
+        // then
+        assertThat(decodedSummary).isEqualTo(summary);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void shouldRoundTripLevelSummary() {
+        // given
+        var levelSummary = LiveOrderLevelSummary.builder()
+                .buyLevels(List.of(level("10", 500, 2), level("10.25", 100, 1)))
+                .sellLevels(List.of())
+                .build();
+
+        // when
+        LiveOrderSummaryCodec.encode(levelSummary, buffer);
+        var decodedLevelSummary = LiveOrderSummaryCodec.decodeLevelSummary(buffer.flip());
+
+        // then
+        assertThat(decodedLevelSummary).isEqualTo(levelSummary);
+    }
+
+    @Test
+    void shouldRoundTripLevelUpdateInDirectBuffer() {
+        // given
+        var directBuffer = ByteBuffer.allocateDirect(64);
+        var levelUpdate = LevelUpdate.builder()
+                .sequence(Long.MAX_VALUE)
+                .updateType(LevelUpdateType.REMOVED)
+                .orderType(OrderType.SELL)
+                .thousandGramsPrice(new BigDecimal("-0.001"))
+                .weightInGrams(0)
+                .build();
+
+        // when
+        LiveOrderSummaryCodec.encode(levelUpdate, directBuffer);
+        var decodedLevelUpdate = LiveOrderSummaryCodec.decodeLevelUpdate(directBuffer.flip());
+
+        // then
+        assertThat(decodedLevelUpdate).isEqualTo(levelUpdate);
+    }
+
+    @Test
+    void shouldRoundTripOrderWithMissingFieldsAndLongPrice() {
+        // given
+        var order = silverBarOrder(null, "żółw 😀", null, new BigDecimal(Math.PI), Integer.MIN_VALUE);
+
+        // when
+        LiveOrderSummaryCodec.encode(order, buffer);
+        var decodedOrder = LiveOrderSummaryCodec.decodeOrder(buffer.flip());
+
+        // then
+        assertThat(decodedOrder).isEqualTo(order);
+    }
+
+    @Test
+    void shouldLeaveBufferPositionUntouchedWhenMessageDoesNotFit() {
+        // given
+        var smallBuffer = ByteBuffer.allocate(16);
+        smallBuffer.position(3);
+        var summary = LiveOrderSummary.builder()
+                .buyOrders(List.of(record(BigDecimal.TEN, order(OrderType.BUY, BigDecimal.TEN))))
+                .sellOrders(List.of())
+                .build();
+
+        assertThatThrownBy(
+                // when
+                () -> LiveOrderSummaryCodec.encode(summary, smallBuffer)
+        )
+                // then
+                .isInstanceOf(BufferOverflowException.class);
+        assertThat(smallBuffer.position()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotDecodeOtherMessage() {
+        // given
+        LiveOrderSummaryCodec.encode(order(OrderType.BUY, BigDecimal.ONE), buffer);
+
+        assertThatThrownBy(
+                // when
+                () -> LiveOrderSummaryCodec.decodeSummary(buffer.flip())
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expected message type 1 but was 4");
+    }
+
+    @Test
+    void shouldNotDecodeCountExceedingMessage() {
+        // given
+        buffer.put((byte) 2).put((byte) 0x7F).flip();
+
+        assertThatThrownBy(
+                // when
+                () -> LiveOrderSummaryCodec.decodeLevelSummary(buffer)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed count 127 with 0 bytes remaining");
+    }
+
+    @Test
+    void shouldNotDecodeLevelSummaryCutShortWithinLevel() {
+        // given
+        var levelSummary = LiveOrderLevelSummary.builder()
+                .buyLevels(List.of(level("10", 500, 2)))
+                .sellLevels(List.of(level("10.25", 100, 1)))
+                .build();
+        LiveOrderSummaryCodec.encode(levelSummary, buffer);
+        buffer.flip().limit(buffer.limit() - 1);
+
+        assertThatThrownBy(
+                // when
+                () -> LiveOrderSummaryCodec.decodeLevelSummary(buffer)
+        )
+                // then
+                .isInstanceOf(BufferUnderflowException.class);
+    }
+
+    @Test
+    void shouldNotDecodeSummaryCutShortWithinOrderOfLevel() {
+        // given
+        var summary = LiveOrderSummary.builder()
+                .buyOrders(List.of(record(BigDecimal.TEN, silverBarOrder(someUUID(), someUUID(), OrderType.BUY, BigDecimal.TEN, 1))))
+                .sellOrders(List.of())
+                .build();
+        LiveOrderSummaryCodec.encode(summary, buffer);
+        buffer.flip().limit(buffer.limit() - 12);
+
+        assertThatThrownBy(
+                // when
+                () -> LiveOrderSummaryCodec.decodeSummary(buffer)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed count 36 with 26 bytes remaining");
+    }
+
+    @Test
+    void shouldNotDecodeEmptyBuffer() {
+        assertThatThrownBy(
+                // when
+                () -> LiveOrderSummaryCodec.decodeOrder(buffer.flip())
+        )
+                // then
+                .isInstanceOf(BufferUnderflowException.class);
+    }
+
+    private static SilverBarOrder order(OrderType orderType, BigDecimal price) {
+        return silverBarOrder(someUUID(), someUUID(), orderType, price, someInt());
+    }
+
+    private static LiveOrderSummaryRecord record(BigDecimal price, SilverBarOrder... orders) {
+        return LiveOrderSummaryRecord.builder()
+                .thousandGramsPrice(price)
+                .weightInGrams(someInt())
+                .components(List.of(orders))
+                .build();
+    }
+
+    private static LiveOrderLevel level(String price, int weightInGrams, int orderCount) {
+        return LiveOrderLevel.builder()
+                .thousandGramsPrice(new BigDecimal(price))
+                .weightInGrams(weightInGrams)
+                .orderCount(orderCount)
+                .build();
+    }
+}
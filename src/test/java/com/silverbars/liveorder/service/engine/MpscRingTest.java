@@ -0,0 +1,88 @@
+package com.silverbars.liveorder.service.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpscRingTest {
+
+    @Test
+    void shouldDrainElementsInOrderOfOffering() {
+        // given
+        var ring = new MpscRing<String>(4);
+        ring.offer("a");
+        ring.offer("b");
+        ring.offer("c");
+        var elements = new ArrayList<String>();
+
+        // when
+        var drained = ring.drainTo(elements, 4);
+
+        // then
+        assertThat(drained).isEqualTo(3);
+        assertThat(elements).containsExactly("a", "b", "c");
+        assertThat(ring.hasPublished()).isFalse();
+    }
+
+    @Test
+    void shouldDrainAtMostMaxElements() {
+        // given
+        var ring = new MpscRing<String>(4);
+        ring.offer("a");
+        ring.offer("b");
+        var elements = new ArrayList<String>();
+
+        // when
+        ring.drainTo(elements, 1);
+
+        // then
+        assertThat(elements).containsExactly("a");
+        assertThat(ring.hasPublished()).isTrue();
+    }
+
+    @Test
+    void shouldRejectOfferWhenFull() {
+        // given
+        var ring = new MpscRing<String>(2);
+        ring.offer("a");
+        ring.offer("b");
+
+        // when
+        var offered = ring.offer("c");
+
+        // then
+        assertThat(offered).isFalse();
+    }
+
+    @Test
+    void shouldReuseSlotsOnceDrained() {
+        // given
+        var ring = new MpscRing<String>(2);
+        ring.offer("a");
+        ring.offer("b");
+        ring.drainTo(new ArrayList<>(), 2);
+        var elements = new ArrayList<String>();
+
+        // when
+        ring.offer("c");
+        ring.offer("d");
+        ring.drainTo(elements, 2);
+
+        // then
+        assertThat(elements).containsExactly("c", "d");
+    }
+
+    @Test
+    void shouldNotCreateRingOfCapacityOtherThanPowerOfTwo() {
+        assertThatThrownBy(
+                // when
+                () -> new MpscRing<String>(3)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("capacity must be a positive power of two");
+    }
+}
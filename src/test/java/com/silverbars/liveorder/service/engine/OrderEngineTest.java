@@ -0,0 +1,231 @@
+package com.silverbars.liveorder.service.engine;
+
+import com.silverbars.liveorder.service.SilverBarOrderService;
+import com.silverbars.liveorder.service.domain.OrderRegistrationResult;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEngineTest {
+
+    @Mock
+    private SilverBarOrderService delegate;
+
+    private OrderEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void shouldRegisterOrderThroughDelegate() {
+        // given
+        engine = engine(RingFullPolicy.BLOCK);
+        var orderId = someUUID();
+        when(delegate.registerOrders(anyCollection())).thenReturn(List.of(registered(orderId)));
+
+        // when
+        var registeredOrderId = engine.registerOrder(someNewOrder());
+
+        // then
+        assertThat(registeredOrderId).isEqualTo(orderId);
+    }
+
+    @Test
+    void shouldFailRegistrationWithRejectionReason() {
+        // given
+        engine = engine(RingFullPolicy.BLOCK);
+        var rejectionReason = someUUID();
+        when(delegate.registerOrders(anyCollection())).thenReturn(List.of(rejected(rejectionReason)));
+
+        assertThatThrownBy(
+                // when
+                () -> engine.registerOrder(someNewOrder())
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(rejectionReason);
+    }
+
+    @Test
+    void shouldCancelOrderThroughDelegate() {
+        // given
+        engine = engine(RingFullPolicy.BLOCK);
+        when(delegate.cancelRegisteredOrders(anyCollection())).thenReturn(List.of(true));
+
+        // when
+        var cancelled = engine.cancelRegisteredOrder(someUUID());
+
+        // then
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldApplyRegistrationsWaitingForWriterAsOneBatch() throws Exception {
+        // given
+        engine = new OrderEngine(delegate, 4, new BlockingWaitStrategy(), RingFullPolicy.BLOCK);
+        when(delegate.registerOrders(anyCollection())).thenAnswer(invocation -> registeredAll(invocation.getArgument(0)));
+        var writerReleased = new CountDownLatch(1);
+        holdWriter(writerReleased);
+        var registrations = List.of(
+                engine.submitRegisterOrder(someNewOrder()),
+                engine.submitRegisterOrder(someNewOrder()),
+                engine.submitRegisterOrder(someNewOrder()));
+
+        // when
+        writerReleased.countDown();
+        CompletableFuture.allOf(registrations.toArray(CompletableFuture[]::new)).get();
+
+        // then
+        verify(delegate, times(1)).registerOrders(anyList());
+        assertThat(registrations).allMatch(registration -> registration.join() != null);
+    }
+
+    @Test
+    void shouldRejectCommandWhenRingIsFull() {
+        // given
+        engine = engine(RingFullPolicy.REJECT);
+        when(delegate.cancelRegisteredOrders(anyCollection())).thenReturn(List.of(false, false));
+        var writerReleased = new CountDownLatch(1);
+        holdWriter(writerReleased);
+        engine.submitCancelRegisteredOrder(someUUID());
+        engine.submitCancelRegisteredOrder(someUUID());
+
+        // when
+        var cancellation = engine.submitCancelRegisteredOrder(someUUID());
+
+        // then
+        assertThat(cancellation).isCompletedExceptionally();
+        assertThatThrownBy(cancellation::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        writerReleased.countDown();
+    }
+
+    @Test
+    void shouldRejectCommandAfterClose() {
+        // given
+        engine = engine(RingFullPolicy.BLOCK);
+        engine.close();
+
+        // when
+        var registration = engine.submitRegisterOrder(someNewOrder());
+
+        // then
+        assertThatThrownBy(registration::join)
+                .hasCauseInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("Order engine is closed");
+    }
+
+    @Test
+    void shouldApplyCommandSubmittedByDependentStageOnWriter() throws Exception {
+        // given
+        engine = engine(RingFullPolicy.REJECT);
+        var orderId = someUUID();
+        when(delegate.registerOrders(anyCollection())).thenReturn(List.of(registered(orderId)));
+        when(delegate.cancelRegisteredOrders(anyCollection())).thenReturn(List.of(true));
+
+        // when
+        var cancelled = engine.submitRegisterOrder(someNewOrder())
+                .thenCompose(engine::submitCancelRegisteredOrder)
+                .get();
+
+        // then
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldApplyBlockingCallMadeOnWriterRightAway() throws Exception {
+        // given
+        engine = engine(RingFullPolicy.BLOCK);
+        var orderId = someUUID();
+        var order = someNewOrder();
+        when(delegate.registerOrder(order)).thenReturn(orderId);
+        when(delegate.cancelRegisteredOrder(orderId)).thenReturn(true);
+
+        // when
+        var cancelled = engine.submit(() -> engine.cancelRegisteredOrder(engine.registerOrder(order)))
+                .get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void shouldNotCancelOrderWithoutId() {
+        // given
+        engine = engine(RingFullPolicy.BLOCK);
+
+        assertThatThrownBy(
+                // when
+                () -> engine.cancelRegisteredOrder(null)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("orderId is not present");
+    }
+
+    private OrderEngine engine(RingFullPolicy ringFullPolicy) {
+        return new OrderEngine(delegate, 2, new BlockingWaitStrategy(), ringFullPolicy);
+    }
+
+    /**
+     * Keeps the writer busy until released, with the ring empty once this returns.
+     */
+    private void holdWriter(CountDownLatch writerReleased) {
+        var writerHeld = new CountDownLatch(1);
+        engine.submit(() -> {
+            writerHeld.countDown();
+            return await(writerReleased);
+        });
+        await(writerHeld);
+    }
+
+    private static SilverBarOrder someNewOrder() {
+        return silverBarOrder(null, someUUID(), someOrderType(), someBigDecimal(), someInt());
+    }
+
+    private static OrderRegistrationResult registered(String orderId) {
+        return OrderRegistrationResult.builder().orderId(orderId).build();
+    }
+
+    private static OrderRegistrationResult rejected(String rejectionReason) {
+        return OrderRegistrationResult.builder().rejectionReason(rejectionReason).build();
+    }
+
+    private static List<OrderRegistrationResult> registeredAll(Collection<SilverBarOrder> orders) {
+        return orders.stream()
+                .map(order -> registered(someUUID()))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.silverbars.liveorder.service.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderExpiryTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final OrderExpiry orderExpiry = new OrderExpiry(Duration.ofMillis(10), START);
+
+    @Test
+    void shouldNotExpireOrderBeforeItsExpiryTime() {
+        // given
+        var expiresAt = START.plusMillis(1_000).plusNanos(1);
+        orderExpiry.schedule("order", expiresAt);
+
+        // when
+        var expiredOrderIds = orderExpiry.expire(expiresAt.minusNanos(1));
+
+        // then
+        assertThat(expiredOrderIds).isEmpty();
+        assertThat(orderExpiry.expire(expiresAt.plusMillis(10))).containsExactly("order");
+    }
+
+    @Test
+    void shouldExpireOrderAtExpiryTimeOnTickBoundary() {
+        // given
+        orderExpiry.schedule("order", START.plusMillis(1_000));
+
+        // when
+        var expiredOrderIds = orderExpiry.expire(START.plusMillis(1_000));
+
+        // then
+        assertThat(expiredOrderIds).containsExactly("order");
+        assertThat(orderExpiry.size()).isZero();
+    }
+
+    @Test
+    void shouldExpireOrderOnlyOnce() {
+        // given
+        orderExpiry.schedule("order", START.plusSeconds(1));
+        orderExpiry.expire(START.plusSeconds(2));
+
+        // when
+        var expiredOrderIds = orderExpiry.expire(START.plusSeconds(3));
+
+        // then
+        assertThat(expiredOrderIds).isEmpty();
+    }
+
+    @Test
+    void shouldNotExpireCancelledOrder() {
+        // given
+        orderExpiry.schedule("order", START.plusSeconds(1));
+
+        // when
+        orderExpiry.cancel("order");
+
+        // then
+        assertThat(orderExpiry.expire(START.plusSeconds(2))).isEmpty();
+    }
+
+    @Test
+    void shouldNotCreateExpiryWithTickShorterThanMillisecond() {
+        assertThatThrownBy(
+                // when
+                () -> new OrderExpiry(Duration.ofNanos(999_999), START)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("tick must be at least a millisecond");
+    }
+}
@@ -0,0 +1,116 @@
+package com.silverbars.liveorder.service.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private final TimerWheel<String> wheel = new TimerWheel<>(1_000);
+
+    @Test
+    void shouldReturnKeysDueUpToGivenTick() {
+        // given
+        wheel.schedule("a", 1_005);
+        wheel.schedule("b", 1_003);
+        wheel.schedule("c", 1_010);
+
+        // when
+        var dueKeys = wheel.advance(1_005);
+
+        // then
+        assertThat(dueKeys).containsExactly("b", "a");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnKeyDueBeforeStartAtFirstAdvance() {
+        // given
+        wheel.schedule("a", 10);
+
+        // when
+        var dueKeys = wheel.advance(1_000);
+
+        // then
+        assertThat(dueKeys).containsExactly("a");
+    }
+
+    @Test
+    void shouldNotReturnCancelledKey() {
+        // given
+        wheel.schedule("a", 1_005);
+        wheel.schedule("b", 1_005);
+
+        // when
+        var cancelled = wheel.cancel("a");
+
+        // then
+        assertThat(cancelled).isTrue();
+        assertThat(wheel.cancel("unknown")).isFalse();
+        assertThat(wheel.advance(2_000)).containsExactly("b");
+    }
+
+    @Test
+    void shouldReplaceTimerOfRescheduledKey() {
+        // given
+        wheel.schedule("a", 1_005);
+
+        // when
+        wheel.schedule("a", 5_000);
+
+        // then
+        assertThat(wheel.advance(4_999)).isEmpty();
+        assertThat(wheel.advance(5_000)).containsExactly("a");
+    }
+
+    @Test
+    void shouldCascadeTimersOfHigherLevelsAndBeyondWheelSpan() {
+        // given
+        var farTick = 1_000 + (1L << 40);
+        wheel.schedule("level1", 1_000 + 100);
+        wheel.schedule("level3", 1_000 + 300_000);
+        wheel.schedule("beyond", farTick);
+
+        // when
+        var dueKeys = new ArrayList<String>();
+        dueKeys.addAll(wheel.advance(1_000 + 99));
+        dueKeys.addAll(wheel.advance(1_000 + 100));
+        dueKeys.addAll(wheel.advance(1_000 + 299_999));
+        dueKeys.addAll(wheel.advance(1_000 + 300_000));
+        dueKeys.addAll(wheel.advance(farTick - 1));
+
+        // then
+        assertThat(dueKeys).containsExactly("level1", "level3");
+        assertThat(wheel.advance(farTick)).containsExactly("beyond");
+    }
+
+    @Test
+    void shouldReturnKeysExactlyWhenDue() {
+        // given
+        var random = new Random(42);
+        var dueTicks = new HashMap<String, Long>();
+        for (int i = 0; i < 10_000; i++) {
+            var dueTick = 1_000 + (long) (random.nextDouble() * (1L << (6 + random.nextInt(30))));
+            dueTicks.put("key" + i, dueTick);
+            wheel.schedule("key" + i, dueTick);
+        }
+
+        // when
+        var tick = 1_000L;
+        while (wheel.size() > 0) {
+            tick += 1 + random.nextInt(1 << random.nextInt(30));
+            for (var key : wheel.advance(tick)) {
+
+                // then
+                assertThat(dueTicks.remove(key)).isLessThanOrEqualTo(tick);
+            }
+            var currentTick = tick;
+            assertThat(dueTicks.values().stream().noneMatch(dueTick -> dueTick <= currentTick)).isTrue();
+        }
+        assertThat(dueTicks).isEmpty();
+    }
+}
@@ -0,0 +1,177 @@
+package com.silverbars.liveorder.service.feed;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LevelUpdatePublisherTest {
+
+    private static final int MAX_PENDING_LEVELS = 2;
+
+    private List<LevelUpdate> levelSnapshot = new ArrayList<>();
+    private final LevelUpdatePublisher publisher = new LevelUpdatePublisher(() -> levelSnapshot, Runnable::run, MAX_PENDING_LEVELS);
+
+    @Test
+    void shouldDeliverLevelSnapshotBeforeUpdates() {
+        // given
+        var snapshotLevel = levelUpdate(1, LevelUpdateType.ADDED, OrderType.BUY, "10", 100);
+        levelSnapshot = List.of(snapshotLevel);
+        var subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+
+        // when
+        var update = levelUpdate(2, LevelUpdateType.ADDED, OrderType.SELL, "11", 50);
+        publisher.publish(update);
+
+        // then
+        assertThat(subscriber.levelUpdates).containsExactly(snapshotLevel, update);
+    }
+
+    @Test
+    void shouldNotDeliverSnapshotLevelAfterNewerUpdateRacingWithSubscription() {
+        // given
+        var snapshotLevel = levelUpdate(1, LevelUpdateType.ADDED, OrderType.BUY, "10", 100);
+        var removal = levelUpdate(2, LevelUpdateType.REMOVED, OrderType.BUY, "10", 0);
+        var racingPublisher = new AtomicReference<LevelUpdatePublisher>();
+        racingPublisher.set(new LevelUpdatePublisher(() -> {
+            racingPublisher.get().publish(removal);
+            return List.of(snapshotLevel);
+        }, Runnable::run, MAX_PENDING_LEVELS));
+        var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        // when
+        racingPublisher.get().subscribe(subscriber);
+
+        // then
+        assertThat(subscriber.levelUpdates).containsExactly(removal);
+    }
+
+    @Test
+    void shouldConflatePendingUpdatesOfSameLevel() {
+        // given
+        var subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        publisher.publish(levelUpdate(1, LevelUpdateType.ADDED, OrderType.BUY, "10", 100));
+        publisher.publish(levelUpdate(2, LevelUpdateType.ADDED, OrderType.SELL, "10", 70));
+        publisher.publish(levelUpdate(3, LevelUpdateType.CHANGED, OrderType.BUY, "10.00", 150));
+        publisher.publish(levelUpdate(4, LevelUpdateType.REMOVED, OrderType.SELL, "10", 0));
+
+        // when
+        subscriber.request(10);
+
+        // then
+        assertThat(subscriber.levelUpdates).containsExactly(
+                levelUpdate(3, LevelUpdateType.ADDED, OrderType.BUY, "10.00", 150),
+                levelUpdate(4, LevelUpdateType.REMOVED, OrderType.SELL, "10", 0));
+    }
+
+    @Test
+    void shouldDeliverOnlyRequestedUpdates() {
+        // given
+        var subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        var update1 = levelUpdate(1, LevelUpdateType.ADDED, OrderType.BUY, "10", 100);
+        var update2 = levelUpdate(2, LevelUpdateType.ADDED, OrderType.BUY, "11", 100);
+        publisher.publish(update1);
+        publisher.publish(update2);
+
+        // when
+        subscriber.request(1);
+
+        // then
+        assertThat(subscriber.levelUpdates).containsExactly(update1);
+    }
+
+    @Test
+    void shouldFailSubscriberFallingBehindByTooManyLevels() {
+        // given
+        var subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        // when
+        publisher.publish(levelUpdate(1, LevelUpdateType.ADDED, OrderType.BUY, "10", 100));
+        publisher.publish(levelUpdate(2, LevelUpdateType.ADDED, OrderType.BUY, "11", 100));
+        publisher.publish(levelUpdate(3, LevelUpdateType.ADDED, OrderType.BUY, "12", 100));
+
+        // then
+        assertThat(subscriber.levelUpdates).isEmpty();
+        assertThat(subscriber.error).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldStopDeliveringAfterCancel() {
+        // given
+        var subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+
+        // when
+        subscriber.subscription.cancel();
+        publisher.publish(levelUpdate(1, LevelUpdateType.ADDED, OrderType.BUY, "10", 100));
+
+        // then
+        assertThat(subscriber.levelUpdates).isEmpty();
+    }
+
+    private static LevelUpdate levelUpdate(long sequence, LevelUpdateType updateType, OrderType orderType, String price, int weightInGrams) {
+        return LevelUpdate.builder()
+                .sequence(sequence)
+                .updateType(updateType)
+                .orderType(orderType)
+                .thousandGramsPrice(new BigDecimal(price))
+                .weightInGrams(weightInGrams)
+                .build();
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<LevelUpdate> {
+
+        private final List<LevelUpdate> levelUpdates = new ArrayList<>();
+        private final long initialRequest;
+        private Flow.Subscription subscription;
+        private Throwable error;
+
+        RecordingSubscriber() {
+            this(0);
+        }
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(LevelUpdate item) {
+            levelUpdates.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.silverbars.liveorder.service.feed;
+
+import com.silverbars.liveorder.service.domain.LevelUpdate;
+import com.silverbars.liveorder.service.domain.LevelUpdateType;
+import com.silverbars.liveorder.service.domain.OrderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MergingLevelUpdatePublisherTest {
+
+    private final MergingLevelUpdatePublisher publisher = new MergingLevelUpdatePublisher(2, Runnable::run, 100);
+    private final List<LevelUpdate> levelUpdates = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+    private final List<Flow.Subscriber<LevelUpdate>> sources = List.of(publisher.sourceSubscriber(0), publisher.sourceSubscriber(1));
+
+    @BeforeEach
+    void setUp() {
+        subscribe();
+    }
+
+    @Test
+    void shouldSumWeightOfLevelOverSources() {
+        // given
+        sources.get(0).onNext(levelUpdate(1, LevelUpdateType.ADDED, "10", 100));
+
+        // when
+        sources.get(1).onNext(levelUpdate(1, LevelUpdateType.ADDED, "10.00", 50));
+
+        // then
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getUpdateType, LevelUpdate::getWeightInGrams)
+                .containsExactly(tuple(LevelUpdateType.ADDED, 100), tuple(LevelUpdateType.CHANGED, 150));
+    }
+
+    @Test
+    void shouldRemoveLevelOnceRemovedFromAllSources() {
+        // given
+        sources.get(0).onNext(levelUpdate(1, LevelUpdateType.ADDED, "10", 100));
+        sources.get(1).onNext(levelUpdate(1, LevelUpdateType.ADDED, "10", 50));
+
+        // when
+        sources.get(0).onNext(levelUpdate(2, LevelUpdateType.REMOVED, "10", 0));
+        sources.get(1).onNext(levelUpdate(2, LevelUpdateType.REMOVED, "10", 0));
+
+        // then
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getUpdateType, LevelUpdate::getWeightInGrams)
+                .containsExactly(
+                        tuple(LevelUpdateType.ADDED, 100),
+                        tuple(LevelUpdateType.CHANGED, 150),
+                        tuple(LevelUpdateType.CHANGED, 50),
+                        tuple(LevelUpdateType.REMOVED, 0));
+    }
+
+    @Test
+    void shouldIgnoreOutdatedUpdateOfSource() {
+        // given
+        sources.get(0).onNext(levelUpdate(2, LevelUpdateType.ADDED, "10", 100));
+
+        // when
+        sources.get(0).onNext(levelUpdate(1, LevelUpdateType.CHANGED, "10", 70));
+
+        // then
+        assertThat(levelUpdates)
+                .extracting(LevelUpdate::getWeightInGrams)
+                .containsExactly(100);
+    }
+
+    @Test
+    void shouldIgnoreRemovalOfUnknownLevel() {
+        // when
+        sources.get(1).onNext(levelUpdate(1, LevelUpdateType.REMOVED, "10", 0));
+
+        // then
+        assertThat(levelUpdates).isEmpty();
+    }
+
+    @Test
+    void shouldFailSubscribersOnceSourceFails() {
+        // given
+        var failure = new IllegalStateException("source fell behind");
+
+        // when
+        sources.get(1).onError(failure);
+        sources.get(0).onNext(levelUpdate(1, LevelUpdateType.ADDED, "10", 100));
+        subscribe();
+
+        // then
+        assertThat(levelUpdates).isEmpty();
+        assertThat(errors).containsExactly(failure, failure);
+    }
+
+    private void subscribe() {
+        publisher.subscribe(new Flow.Subscriber<>() {
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(LevelUpdate item) {
+                levelUpdates.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                errors.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    private static LevelUpdate levelUpdate(long sequence, LevelUpdateType updateType, String price, int weightInGrams) {
+        return LevelUpdate.builder()
+                .sequence(sequence)
+                .updateType(updateType)
+                .orderType(OrderType.BUY)
+                .thousandGramsPrice(new BigDecimal(price))
+                .weightInGrams(weightInGrams)
+                .build();
+    }
+}
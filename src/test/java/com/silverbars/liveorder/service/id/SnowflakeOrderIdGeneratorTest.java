@@ -0,0 +1,139 @@
+package com.silverbars.liveorder.service.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeOrderIdGeneratorTest {
+
+    private static final long NOW = SnowflakeOrderIdGenerator.EPOCH_MILLIS + 1_000_000;
+
+    @Test
+    void shouldGenerateCompactIdsInGrowingOrder() {
+        // given
+        var clock = new AtomicLong(NOW);
+        var generator = new SnowflakeOrderIdGenerator(7, clock::get);
+        var orderIds = new ArrayList<String>();
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            orderIds.add(generator.nextOrderId());
+            if (i % 100 == 0) {
+                clock.addAndGet(3);
+            }
+        }
+
+        // then
+        assertThat(orderIds)
+                .allMatch(orderId -> orderId.matches("[0-9A-HJKMNP-TV-Z]{13}"))
+                .isSorted()
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldEncodeTimestampAndNodeId() {
+        // given
+        var generator = new SnowflakeOrderIdGenerator(SnowflakeOrderIdGenerator.MAX_NODE_ID, () -> NOW);
+
+        // when
+        var id = SnowflakeOrderIdGenerator.parse(generator.nextOrderId());
+
+        // then
+        var nodeShift = SnowflakeOrderIdGenerator.PARTITION_BITS + SnowflakeOrderIdGenerator.SEQUENCE_BITS;
+        assertThat(id >>> (nodeShift + SnowflakeOrderIdGenerator.NODE_ID_BITS)).isEqualTo(NOW - SnowflakeOrderIdGenerator.EPOCH_MILLIS);
+        assertThat(id >>> nodeShift & SnowflakeOrderIdGenerator.MAX_NODE_ID).isEqualTo(SnowflakeOrderIdGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    void shouldKeepGrowingWhenSequenceIsExhaustedOrClockGoesBack() {
+        // given
+        var clock = new AtomicLong(NOW);
+        var generator = new SnowflakeOrderIdGenerator(1, clock::get);
+        var ids = new ArrayList<Long>();
+
+        // when
+        for (int i = 0; i < 5_000; i++) {
+            ids.add(generator.nextId());
+        }
+        clock.set(NOW - 60_000);
+        for (int i = 0; i < 10; i++) {
+            ids.add(generator.nextId());
+        }
+
+        // then
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldGenerateUniqueIdsConcurrently() {
+        // given
+        var generator = new SnowflakeOrderIdGenerator(3);
+        Set<String> orderIds = ConcurrentHashMap.newKeySet();
+
+        // when
+        IntStream.range(0, 200_000).parallel().forEach(i -> orderIds.add(generator.nextOrderId()));
+
+        // then
+        assertThat(orderIds).hasSize(200_000);
+    }
+
+    @Test
+    void shouldNotCollideWithIdsOfOtherNodes() {
+        // given
+        var generator1 = new SnowflakeOrderIdGenerator(1, () -> NOW);
+        var generator2 = new SnowflakeOrderIdGenerator(2, () -> NOW);
+
+        // when
+        var orderIds = List.of(generator1.nextOrderId(), generator2.nextOrderId());
+
+        // then
+        assertThat(orderIds).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldRecogniseOnlyIdsFormattedBackUnchanged() {
+        // given
+        var orderId = new SnowflakeOrderIdGenerator(3).nextOrderId();
+
+        // when
+        var id = SnowflakeOrderIdGenerator.parse(orderId);
+
+        // then
+        assertThat(SnowflakeOrderIdGenerator.format(id)).isEqualTo(orderId);
+        assertThat(SnowflakeOrderIdGenerator.isSnowflakeId(orderId)).isTrue();
+        assertThat(SnowflakeOrderIdGenerator.isSnowflakeId(SnowflakeOrderIdGenerator.format(-1))).isTrue();
+        assertThat(SnowflakeOrderIdGenerator.isSnowflakeId("G000000000000")).isFalse();
+        assertThat(SnowflakeOrderIdGenerator.isSnowflakeId(orderId.toLowerCase())).isFalse();
+        assertThat(SnowflakeOrderIdGenerator.isSnowflakeId(orderId.substring(1))).isFalse();
+    }
+
+    @Test
+    void willThrowExceptionParsingNonSnowflakeId() {
+        assertThatThrownBy(
+                // when
+                () -> SnowflakeOrderIdGenerator.parse("not-a-snowflake"))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("orderId not-a-snowflake is not a snowflake id");
+    }
+
+    @Test
+    void willThrowExceptionForNodeIdOutOfRange() {
+        assertThatThrownBy(
+                // when
+                () -> new SnowflakeOrderIdGenerator(SnowflakeOrderIdGenerator.MAX_NODE_ID + 1))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("nodeId must be between 0 and 1023");
+    }
+}
@@ -0,0 +1,112 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.SilverBarOrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.silverbars.liveorder.service.TestFixtures.someSilverBarOrder;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LoadRunnerTest {
+
+    @Mock
+    private SilverBarOrderService service;
+
+    @Test
+    void shouldCancelOrdersRegisteredByWorkload() throws InterruptedException {
+        // given
+        var orderNumber = new AtomicInteger();
+        when(service.registerOrder(any())).thenAnswer(invocation -> "order-" + orderNumber.incrementAndGet());
+        var operations = List.of(
+                register(0),
+                register(1_000),
+                cancel(2_000, 1),
+                cancel(3_000, 0));
+
+        // when
+        var report = new LoadRunner(service, 2).run(operations);
+
+        // then
+        verify(service).cancelRegisteredOrder("order-1");
+        verify(service).cancelRegisteredOrder("order-2");
+        assertThat(report.getOperationCount()).isEqualTo(4);
+        assertThat(report.getFailedOperations()).isZero();
+        assertThat(report.getServiceTimes().get(OperationType.CANCEL).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRunAllOperationsOfGeneratedWorkloadAndReportLatencies() throws InterruptedException {
+        // given
+        var operations = WorkloadGenerator.generate(WorkloadGeneratorTest.spec(3, PriceDistribution.UNIFORM)
+                .operationCount(2_000)
+                .ratePerSecond(100_000)
+                .build());
+        var summaryPolls = operations.stream().filter(operation -> operation.getType() == OperationType.SUMMARY_POLL).count();
+        when(service.registerOrder(any())).thenAnswer(invocation -> someSilverBarOrder().getOrderId());
+
+        // when
+        var report = new LoadRunner(service, 4).run(operations);
+
+        // then
+        verify(service, times((int) summaryPolls)).getLiveOrderSummary();
+        assertThat(report.getOperationCount()).isEqualTo(2_000);
+        assertThat(report.getFailedOperations()).isZero();
+        assertThat(report.getThroughputPerSecond()).isPositive();
+        assertThat(report.getResponseTimes().get(OperationType.REGISTER).getP99Nanos())
+                .isGreaterThanOrEqualTo(report.getServiceTimes().get(OperationType.REGISTER).getP50Nanos());
+        assertThat(report.format()).contains("REGISTER", "CANCEL", "SUMMARY_POLL");
+    }
+
+    @Test
+    void shouldCountFailedOperations() throws InterruptedException {
+        // given
+        when(service.registerOrder(any())).thenThrow(new IllegalArgumentException("userId is not present"));
+        var operations = List.of(register(0), cancel(1_000, 0));
+
+        // when
+        var report = new LoadRunner(service, 1).run(operations);
+
+        // then
+        assertThat(report.getOperationCount()).isEqualTo(2);
+        assertThat(report.getFailedOperations()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotCreateRunnerWithoutClientThreads() {
+        assertThatThrownBy(
+                // when
+                () -> new LoadRunner(service, 0)
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("clientThreads must be positive");
+    }
+
+    private static WorkloadOperation register(long scheduledNanos) {
+        return WorkloadOperation.builder()
+                .scheduledNanos(scheduledNanos)
+                .type(OperationType.REGISTER)
+                .order(someSilverBarOrder())
+                .targetOperation(WorkloadOperation.NO_TARGET)
+                .build();
+    }
+
+    private static WorkloadOperation cancel(long scheduledNanos, int targetOperation) {
+        return WorkloadOperation.builder()
+                .scheduledNanos(scheduledNanos)
+                .type(OperationType.CANCEL)
+                .targetOperation(targetOperation)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.silverbars.liveorder.service.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkloadFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadRecordedOperations() throws IOException {
+        // given
+        var operations = WorkloadGenerator.generate(WorkloadGeneratorTest.spec(7, PriceDistribution.TOP_HEAVY).build());
+        var file = directory.resolve("workload");
+
+        // when
+        WorkloadFile.write(file, operations);
+
+        // then
+        assertThat(WorkloadFile.read(file)).isEqualTo(operations);
+    }
+
+    @Test
+    void shouldRewriteReadOperationsByteForByte() throws IOException {
+        // given
+        var file = directory.resolve("workload");
+        var rewrittenFile = directory.resolve("rewritten");
+        WorkloadFile.write(file, WorkloadGenerator.generate(WorkloadGeneratorTest.spec(7, PriceDistribution.NORMAL).build()));
+
+        // when
+        WorkloadFile.write(rewrittenFile, WorkloadFile.read(file));
+
+        // then
+        assertThat(rewrittenFile).hasBinaryContent(Files.readAllBytes(file));
+    }
+
+    @Test
+    void shouldNotReadCorruptedFile() throws IOException {
+        // given
+        var file = directory.resolve("workload");
+        WorkloadFile.write(file, WorkloadGenerator.generate(WorkloadGeneratorTest.spec(7, PriceDistribution.UNIFORM).build()));
+        var bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(
+                // when
+                () -> WorkloadFile.read(file)
+        )
+                // then
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.silverbars.liveorder.service.load;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkloadGeneratorTest {
+
+    @Test
+    void shouldGenerateSameOperationsForSameSeed() {
+        // when
+        var operations = WorkloadGenerator.generate(spec(42, PriceDistribution.NORMAL).build());
+
+        // then
+        assertThat(operations).isEqualTo(WorkloadGenerator.generate(spec(42, PriceDistribution.NORMAL).build()));
+        assertThat(operations).isNotEqualTo(WorkloadGenerator.generate(spec(43, PriceDistribution.NORMAL).build()));
+    }
+
+    @Test
+    void shouldScheduleOperationsAtGivenRate() {
+        // when
+        var operations = WorkloadGenerator.generate(spec(1, PriceDistribution.UNIFORM).build());
+
+        // then
+        assertThat(operations).extracting(WorkloadOperation::getScheduledNanos).isSorted();
+        var lastScheduledNanos = operations.get(operations.size() - 1).getScheduledNanos();
+        assertThat(lastScheduledNanos).isBetween(900_000_000L, 1_100_000_000L);
+    }
+
+    @Test
+    void shouldCancelEachRegisteredOrderAtMostOnceAfterItsRegister() {
+        // when
+        var operations = WorkloadGenerator.generate(spec(1, PriceDistribution.UNIFORM).build());
+
+        // then
+        var cancelledOperations = new HashSet<Integer>();
+        for (int index = 0; index < operations.size(); index++) {
+            var operation = operations.get(index);
+            if (operation.getType() == OperationType.CANCEL) {
+                assertThat(operation.getTargetOperation()).isLessThan(index);
+                assertThat(operations.get(operation.getTargetOperation()).getType()).isEqualTo(OperationType.REGISTER);
+                assertThat(cancelledOperations.add(operation.getTargetOperation())).isTrue();
+            }
+        }
+        assertThat(cancelledOperations).isNotEmpty();
+    }
+
+    @Test
+    void shouldMixOperationsInProportionToWeights() {
+        // when
+        var operations = WorkloadGenerator.generate(spec(1, PriceDistribution.UNIFORM).build());
+
+        // then
+        assertThat(operations.stream().filter(operation -> operation.getType() == OperationType.SUMMARY_POLL).count())
+                .isBetween(900L, 1_100L);
+        assertThat(operations.stream().filter(operation -> operation.getType() == OperationType.REGISTER).count())
+                .isBetween(5_000L, 6_000L);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PriceDistribution.class)
+    void shouldPriceOrdersWithinBookDepthOnTheirSideOfMidPrice(PriceDistribution priceDistribution) {
+        // when
+        var operations = WorkloadGenerator.generate(spec(1, priceDistribution).build());
+
+        // then
+        operations.stream()
+                .filter(operation -> operation.getType() == OperationType.REGISTER)
+                .map(WorkloadOperation::getOrder)
+                .forEach(order -> {
+                    var ticksFromMid = order.getThousandGramsPrice().subtract(new BigDecimal("100")).divide(new BigDecimal("0.5"));
+                    if (order.getOrderType() == OrderType.BUY) {
+                        assertThat(ticksFromMid).isBetween(BigDecimal.valueOf(-10), BigDecimal.valueOf(-1));
+                    } else {
+                        assertThat(ticksFromMid).isBetween(BigDecimal.ONE, BigDecimal.TEN);
+                    }
+                });
+    }
+
+    @Test
+    void shouldNotGenerateWorkloadWithoutOperationWeights() {
+        assertThatThrownBy(
+                // when
+                () -> WorkloadGenerator.generate(spec(1, PriceDistribution.UNIFORM).registerWeight(0).cancelWeight(0).summaryPollWeight(0).build())
+        )
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("operation weights must add up to a positive number");
+    }
+
+    static WorkloadSpec.WorkloadSpecBuilder spec(long seed, PriceDistribution priceDistribution) {
+        return WorkloadSpec.builder()
+                .seed(seed)
+                .operationCount(10_000)
+                .ratePerSecond(10_000)
+                .registerWeight(55)
+                .cancelWeight(35)
+                .summaryPollWeight(10)
+                .priceDistribution(priceDistribution)
+                .midPrice(new BigDecimal("100"))
+                .tickSize(new BigDecimal("0.5"))
+                .bookDepth(10)
+                .userCount(100)
+                .maxWeightInGrams(1_000);
+    }
+}
@@ -0,0 +1,98 @@
+package com.silverbars.liveorder.service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void shouldReportEmptySnapshot() {
+        // when
+        var snapshot = histogram.snapshot();
+
+        // then
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getP99Nanos()).isZero();
+    }
+
+    @Test
+    void shouldReportSmallValuesExactly() {
+        // given
+        IntStream.rangeClosed(1, 50).forEach(histogram::record);
+
+        // when
+        var snapshot = histogram.snapshot();
+
+        // then
+        assertThat(snapshot.getCount()).isEqualTo(50);
+        assertThat(snapshot.getMinNanos()).isEqualTo(1);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(50);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(25.5);
+        assertThat(snapshot.getP50Nanos()).isEqualTo(25);
+        assertThat(snapshot.getP90Nanos()).isEqualTo(45);
+    }
+
+    @Test
+    void shouldRecordValueManyTimesAtOnce() {
+        // given
+        histogram.record(10, 3);
+        histogram.record(40);
+
+        // when
+        var snapshot = histogram.snapshot();
+
+        // then
+        assertThat(snapshot.getCount()).isEqualTo(4);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(17.5);
+        assertThat(snapshot.getP50Nanos()).isEqualTo(10);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(40);
+    }
+
+    @Test
+    void shouldReportPercentilesWithinRelativeError() {
+        // given
+        for (long value = 1_000; value <= 1_000_000; value += 1_000) {
+            histogram.record(value);
+        }
+
+        // when
+        var snapshot = histogram.snapshot();
+
+        // then
+        assertThat((double) snapshot.getP50Nanos()).isCloseTo(500_000, within(500_000 * 0.035));
+        assertThat((double) snapshot.getP99Nanos()).isCloseTo(990_000, within(990_000 * 0.035));
+        assertThat((double) snapshot.getP999Nanos()).isCloseTo(999_000, within(999_000 * 0.035));
+        assertThat(snapshot.getMaxNanos()).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void shouldPlaceEveryValueInBucketCoveringIt() {
+        for (long value = 0; value < 1L << 40; value = value * 3 / 2 + 1) {
+            // when
+            var bucket = LatencyHistogram.bucketOf(value);
+
+            // then
+            assertThat(LatencyHistogram.highestValueOf(bucket)).isGreaterThanOrEqualTo(value);
+            assertThat(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value).isTrue();
+        }
+    }
+
+    @Test
+    void shouldCountValuesAboveTrackedRangeInLastBucket() {
+        // given
+        histogram.record(Long.MAX_VALUE / 2);
+
+        // when
+        var snapshot = histogram.snapshot();
+
+        // then
+        assertThat(snapshot.getCount()).isEqualTo(1);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(Long.MAX_VALUE / 2);
+    }
+}
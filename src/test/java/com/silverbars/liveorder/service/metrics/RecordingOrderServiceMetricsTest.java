@@ -0,0 +1,73 @@
+package com.silverbars.liveorder.service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordingOrderServiceMetricsTest {
+
+    private final RecordingOrderServiceMetrics metrics = new RecordingOrderServiceMetrics();
+
+    @Test
+    void shouldCountOperationsAndReadGauges() {
+        // given
+        metrics.bindGauges(() -> 5, () -> 2, () -> 3);
+
+        // when
+        metrics.orderRegistered(metrics.startTime());
+        metrics.ordersRegistered(metrics.startTime(), 4);
+        metrics.orderRejected();
+        metrics.orderCancelled(metrics.startTime(), true);
+        metrics.orderCancelled(metrics.startTime(), false);
+        metrics.ordersCancelled(metrics.startTime(), 2, 1);
+        metrics.summaryServed(metrics.startTime());
+
+        // then
+        var snapshot = metrics.snapshot();
+        assertThat(snapshot.getRegisteredOrders()).isEqualTo(5);
+        assertThat(snapshot.getRejectedOrders()).isEqualTo(1);
+        assertThat(snapshot.getCancelledOrders()).isEqualTo(3);
+        assertThat(snapshot.getUnknownOrderCancels()).isEqualTo(2);
+        assertThat(snapshot.getLiveOrders()).isEqualTo(5);
+        assertThat(snapshot.getBuyLevels()).isEqualTo(2);
+        assertThat(snapshot.getSellLevels()).isEqualTo(3);
+        assertThat(snapshot.getRegisterLatency().getCount()).isEqualTo(5);
+        assertThat(snapshot.getCancelLatency().getCount()).isEqualTo(5);
+        assertThat(snapshot.getSummaryLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRecordLatencyOfEmptyBatch() {
+        // when
+        metrics.ordersRegistered(metrics.startTime(), 0);
+        metrics.ordersCancelled(metrics.startTime(), 0, 0);
+
+        // then
+        var snapshot = metrics.snapshot();
+        assertThat(snapshot.getRegisterLatency().getCount()).isZero();
+        assertThat(snapshot.getCancelLatency().getCount()).isZero();
+    }
+
+    @Test
+    void shouldExposeMetricsThroughJmx() throws Exception {
+        // given
+        metrics.orderRegistered(metrics.startTime());
+        var name = JmxOrderServiceMetrics.register(metrics, JmxOrderServiceMetrics.DEFAULT_OBJECT_NAME + ",name=test");
+        var server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            // when
+            var registeredOrders = server.getAttribute(name, "RegisteredOrders");
+            var registerLatency = (CompositeData) server.getAttribute(name, "RegisterLatency");
+
+            // then
+            assertThat(registeredOrders).isEqualTo(1L);
+            assertThat(registerLatency.get("count")).isEqualTo(1L);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -4,7 +4,7 @@ import com.silverbars.liveorder.service.domain.SilverBarOrder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import static com.silverbars.liveorder.service.TestFixtures.someSilverBarOrder;
+import static com.silverbars.liveorder.service.TestFixtures.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class InMemorySilverBarOrderRepositoryTest {
@@ -56,14 +56,117 @@ class InMemorySilverBarOrderRepositoryTest {
         var order3 = saveOrder();
 
         // when
-        repository.cancelOrder(order2.getOrderId());
+        var cancelled = repository.cancelOrder(order2.getOrderId());
 
         // then
+        assertThat(cancelled).isTrue();
         assertThat(repository.getAllOrders())
                 .hasSize(2)
                 .containsExactlyInAnyOrder(order1, order3);
     }
 
+    @Test
+    void shouldReportCancellingUnknownOrder() {
+        // given
+        var order = saveOrder();
+
+        // when
+        var cancelled = repository.cancelOrder(someUUID());
+
+        // then
+        assertThat(cancelled).isFalse();
+        assertThat(repository.getAllOrders()).containsExactly(order);
+    }
+
+    @Test
+    void shouldFindOrderById() {
+        // given
+        saveOrder();
+        var order = saveOrder();
+
+        // when
+        var foundOrder = repository.findOrder(order.getOrderId());
+
+        // then
+        assertThat(foundOrder).contains(order);
+    }
+
+    @Test
+    void shouldNotFindCancelledOrder() {
+        // given
+        var order = saveOrder();
+        repository.cancelOrder(order.getOrderId());
+
+        // when
+        var foundOrder = repository.findOrder(order.getOrderId());
+
+        // then
+        assertThat(foundOrder).isEmpty();
+    }
+
+    @Test
+    void shouldContainOnlyLiveOrders() {
+        // given
+        var liveOrder = saveOrder();
+        var cancelledOrder = saveOrder();
+        repository.cancelOrder(cancelledOrder.getOrderId());
+
+        // then
+        assertThat(repository.containsOrder(liveOrder.getOrderId())).isTrue();
+        assertThat(repository.containsOrder(cancelledOrder.getOrderId())).isFalse();
+        assertThat(repository.containsOrder(someUUID())).isFalse();
+    }
+
+    @Test
+    void shouldFindOrdersOfUser() {
+        // given
+        var userId = someUUID();
+        var order1 = saveOrder(userId);
+        saveOrder(someUUID());
+        var order2 = saveOrder(userId);
+
+        // when
+        var userOrders = repository.findUserOrders(userId);
+
+        // then
+        assertThat(userOrders).containsExactlyInAnyOrder(order1, order2);
+    }
+
+    @Test
+    void shouldNotFindCancelledOrderOfUser() {
+        // given
+        var userId = someUUID();
+        var order1 = saveOrder(userId);
+        var order2 = saveOrder(userId);
+        repository.cancelOrder(order1.getOrderId());
+
+        // when
+        var userOrders = repository.findUserOrders(userId);
+
+        // then
+        assertThat(userOrders).containsExactly(order2);
+    }
+
+    @Test
+    void shouldMoveReplacedOrderToItsNewUser() {
+        // given
+        var order = saveOrder(someUUID());
+        var replacingOrder = silverBarOrder(order.getOrderId(), someUUID(), someOrderType(), someBigDecimal(), someInt());
+
+        // when
+        repository.saveOrder(replacingOrder);
+
+        // then
+        assertThat(repository.findUserOrders(order.getUserId())).isEmpty();
+        assertThat(repository.findUserOrders(replacingOrder.getUserId())).containsExactly(replacingOrder);
+    }
+
+    private SilverBarOrder saveOrder(String userId) {
+        var order = silverBarOrder(someUUID(), userId, someOrderType(), someBigDecimal(), someInt());
+        repository.saveOrder(order);
+        return order;
+    }
+
     private SilverBarOrder saveOrder() {
         var order = someSilverBarOrder();
         repository.saveOrder(order);
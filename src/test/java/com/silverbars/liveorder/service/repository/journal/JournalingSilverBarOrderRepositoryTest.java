@@ -0,0 +1,373 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.TestFixtures;
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.repository.InMemorySilverBarOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.silverbars.liveorder.service.TestFixtures.expiringSilverBarOrder;
+import static com.silverbars.liveorder.service.TestFixtures.silverBarOrder;
+import static com.silverbars.liveorder.service.TestFixtures.someSilverBarOrder;
+import static com.silverbars.liveorder.service.TestFixtures.someUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalingSilverBarOrderRepositoryTest {
+
+    private static final long SEGMENT_SIZE_BYTES = 64 * 1024;
+    private static final int LARGE_ORDER_COUNT = 200_000;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void shouldRecoverOrdersAfterRestart() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        var order3 = someSilverBarOrder();
+        try (var repository = openRepository()) {
+            repository.saveOrder(order1);
+            repository.saveOrder(order2);
+            repository.saveOrder(order3);
+            repository.cancelOrder(order2.getOrderId());
+        }
+
+        // when
+        try (var repository = openRepository()) {
+
+            // then
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(order1, order3);
+        }
+    }
+
+    @Test
+    void shouldRecoverExpiryTimeOfOrdersAfterRestart() throws IOException {
+        // given
+        var expiringOrder = expiringSilverBarOrder(someUUID(), OrderType.SELL, new BigDecimal("10.5"), Instant.now().plusSeconds(60));
+        var order = someSilverBarOrder();
+        try (var repository = openRepository()) {
+            repository.saveOrders(List.of(expiringOrder, order));
+        }
+
+        // when
+        try (var repository = openRepository()) {
+
+            // then
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(expiringOrder, order);
+        }
+    }
+
+    @Test
+    void shouldRecoverBatchesLargerThanSegmentAfterRestart() throws IOException {
+        // given
+        var orders = Stream.generate(TestFixtures::someSilverBarOrder).limit(5_000).collect(Collectors.toList());
+        var cancelledOrderIds = List.of(orders.get(0).getOrderId(), someUUID(), orders.get(4_999).getOrderId());
+        List<Boolean> cancelled;
+        try (var repository = openRepository()) {
+            repository.saveOrders(orders);
+            cancelled = repository.cancelOrders(cancelledOrderIds);
+        }
+
+        // when
+        try (var repository = openRepository()) {
+
+            // then
+            assertThat(cancelled).containsExactly(true, false, true);
+            assertThat(listFiles(".journal")).hasSizeGreaterThan(1);
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrderElementsOf(orders.subList(1, 4_999));
+        }
+    }
+
+    @Test
+    void shouldReportCancellingUnknownOrder() throws IOException {
+        try (var repository = openRepository()) {
+            // when
+            var cancelled = repository.cancelOrder(someUUID());
+
+            // then
+            assertThat(cancelled).isFalse();
+        }
+    }
+
+    @Test
+    void shouldRecoverOrdersFromSnapshotAndJournalTail() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        var order3 = someSilverBarOrder();
+        try (var repository = openRepository()) {
+            repository.saveOrder(order1);
+            repository.saveOrder(order2);
+            repository.takeSnapshot();
+            repository.cancelOrder(order1.getOrderId());
+            repository.saveOrder(order3);
+        }
+
+        // when
+        try (var repository = openRepository()) {
+
+            // then
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(order2, order3);
+        }
+    }
+
+    @Test
+    void shouldFallBackToPreviousSnapshotIfLatestIsCorrupted() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        try (var repository = openRepository()) {
+            repository.saveOrder(order1);
+            repository.takeSnapshot();
+            repository.saveOrder(order2);
+            repository.takeSnapshot();
+        }
+        var latestSnapshot = listFiles(".snapshot").get(1);
+        Files.write(latestSnapshot, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        try (var repository = openRepository()) {
+
+            // then
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(order1, order2);
+        }
+    }
+
+    @Test
+    void shouldRecoverLargeOrderSetFromSnapshotReplayingOnlyJournalTail() throws IOException {
+        // given
+        var liveOrders = new ArrayList<SilverBarOrder>();
+        try (var repository = openRepository()) {
+            saveConcurrently(repository, LARGE_ORDER_COUNT, liveOrders);
+            repository.takeSnapshot();
+            saveConcurrently(repository, LARGE_ORDER_COUNT / 100, liveOrders);
+            repository.takeSnapshot();
+            saveConcurrently(repository, LARGE_ORDER_COUNT / 100, liveOrders);
+        }
+        var journalBytes = listFiles(".journal").stream().mapToLong(this::size).sum();
+
+        // when
+        var recoveryStart = System.nanoTime();
+        try (var repository = openRepository()) {
+            var recoveryTime = Duration.ofNanos(System.nanoTime() - recoveryStart);
+
+            // then
+            assertThat(repository.getAllOrders()).hasSize(liveOrders.size()).containsAll(liveOrders);
+            assertThat(journalBytes).isLessThan(LARGE_ORDER_COUNT * 10L);
+            assertThat(recoveryTime).isLessThan(Duration.ofSeconds(10));
+        }
+    }
+
+    @Test
+    void shouldNotSnapshotOrderWhoseJournalWriteFailed() throws Exception {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        var writesUntilFailure = new AtomicInteger();
+        try (var repository = openRepository(writesUntilFailure)) {
+            repository.saveOrder(order1);
+            writesUntilFailure.set(1);
+
+            // when
+            assertThatThrownBy(() -> repository.saveOrder(order2)).isInstanceOf(UncheckedIOException.class);
+            repository.takeSnapshot();
+        }
+
+        // then
+        assertThat(listFiles(".snapshot")).hasSize(1);
+        try (var recoveredRepository = openRepository()) {
+            assertThat(recoveredRepository.getAllOrders()).containsExactly(order1);
+        }
+    }
+
+    @Test
+    void shouldKeepWritingWhileSnapshotOfLargeOrderSetIsCopied() throws Exception {
+        // given
+        var copyStarted = new CountDownLatch(1);
+        var writesDone = new CountDownLatch(1);
+        var delegate = new InMemorySilverBarOrderRepository() {
+            @Override
+            public void forEachOrder(Consumer<SilverBarOrder> consumer) {
+                copyStarted.countDown();
+                awaitQuietly(writesDone);
+                super.forEachOrder(consumer);
+            }
+        };
+        var liveOrders = new ArrayList<SilverBarOrder>();
+        try (var repository = new JournalingSilverBarOrderRepository(delegate, journalDirectory, SEGMENT_SIZE_BYTES)) {
+            saveConcurrently(repository, LARGE_ORDER_COUNT, liveOrders);
+            var snapshot = CompletableFuture.runAsync(repository::takeSnapshot);
+            copyStarted.await(1, TimeUnit.MINUTES);
+
+            // when
+            var writeStart = System.nanoTime();
+            var cancelledOrder = liveOrders.remove(0);
+            repository.cancelOrder(cancelledOrder.getOrderId());
+            saveConcurrently(repository, 100, liveOrders);
+            var writeTime = Duration.ofNanos(System.nanoTime() - writeStart);
+            writesDone.countDown();
+            snapshot.get(1, TimeUnit.MINUTES);
+
+            // then
+            assertThat(writeTime).isLessThan(Duration.ofSeconds(1));
+            assertThat(listFiles(".snapshot")).hasSize(1);
+        }
+        try (var recoveredRepository = openRepository()) {
+            assertThat(recoveredRepository.getAllOrders()).hasSize(liveOrders.size()).containsAll(liveOrders);
+        }
+    }
+
+    @Test
+    void shouldNotRecoverAnyOrderOfBatchWhoseJournalWriteFailedMidway() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var failedBatch = List.of(someSilverBarOrder(), someSilverBarOrder(), someSilverBarOrder());
+        var order2 = someSilverBarOrder();
+        var writesUntilFailure = new AtomicInteger();
+        try (var repository = openRepository(writesUntilFailure)) {
+            repository.saveOrder(order1);
+            writesUntilFailure.set(2);
+
+            // when
+            assertThatThrownBy(() -> repository.saveOrders(failedBatch)).isInstanceOf(UncheckedIOException.class);
+            repository.saveOrder(order2);
+
+            // then
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(order1, order2);
+        }
+        try (var recoveredRepository = openRepository()) {
+            assertThat(recoveredRepository.getAllOrders()).containsExactlyInAnyOrder(order1, order2);
+        }
+    }
+
+    @Test
+    void shouldRecoverEveryOrderOfCancelBatchWhoseJournalWriteFailedMidway() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        var writesUntilFailure = new AtomicInteger();
+        try (var repository = openRepository(writesUntilFailure)) {
+            repository.saveOrders(List.of(order1, order2));
+            writesUntilFailure.set(2);
+
+            // when
+            assertThatThrownBy(() -> repository.cancelOrders(List.of(order1.getOrderId(), order2.getOrderId())))
+                    .isInstanceOf(UncheckedIOException.class);
+
+            // then
+            assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(order1, order2);
+        }
+        try (var recoveredRepository = openRepository()) {
+            assertThat(recoveredRepository.getAllOrders()).containsExactlyInAnyOrder(order1, order2);
+        }
+    }
+
+    @Test
+    void shouldJournalConcurrentChangesOfSameOrderInOrderOfApplying() throws Exception {
+        // given
+        var firstVersion = someSilverBarOrder();
+        var secondVersion = silverBarOrder(firstVersion.getOrderId(), firstVersion.getUserId(), firstVersion.getOrderType(),
+                firstVersion.getThousandGramsPrice(), firstVersion.getWeightInGrams() + 1);
+        var repositoryHolder = new AtomicReference<JournalingSilverBarOrderRepository>();
+        var concurrentSave = new AtomicReference<CompletableFuture<Void>>();
+        var delegate = new InMemorySilverBarOrderRepository() {
+            @Override
+            public void saveOrder(SilverBarOrder order) {
+                super.saveOrder(order);
+                if (order == firstVersion) {
+                    concurrentSave.set(CompletableFuture.runAsync(() -> repositoryHolder.get().saveOrder(secondVersion)));
+                    awaitQuietly(concurrentSave.get());
+                }
+            }
+        };
+        List<SilverBarOrder> liveOrders;
+        try (var repository = new JournalingSilverBarOrderRepository(delegate, journalDirectory, SEGMENT_SIZE_BYTES)) {
+            repositoryHolder.set(repository);
+
+            // when
+            repository.saveOrder(firstVersion);
+            concurrentSave.get().get(1, TimeUnit.MINUTES);
+            liveOrders = List.copyOf(repository.getAllOrders());
+        }
+
+        // then
+        assertThat(liveOrders).containsExactly(secondVersion);
+        try (var recoveredRepository = openRepository()) {
+            assertThat(recoveredRepository.getAllOrders()).containsExactlyElementsOf(liveOrders);
+        }
+    }
+
+    private static void awaitQuietly(CompletableFuture<Void> future) {
+        try {
+            future.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the concurrent call waits for the change in progress
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void saveConcurrently(JournalingSilverBarOrderRepository repository, int orderCount, List<SilverBarOrder> savedOrders) {
+        var orders = Stream.generate(TestFixtures::someSilverBarOrder).limit(orderCount).collect(Collectors.toList());
+        orders.parallelStream().forEach(repository::saveOrder);
+        savedOrders.addAll(orders);
+    }
+
+    private List<Path> listFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JournalingSilverBarOrderRepository openRepository() {
+        return new JournalingSilverBarOrderRepository(new InMemorySilverBarOrderRepository(), journalDirectory, SEGMENT_SIZE_BYTES);
+    }
+
+    private JournalingSilverBarOrderRepository openRepository(AtomicInteger writesUntilFailure) {
+        return new JournalingSilverBarOrderRepository(new InMemorySilverBarOrderRepository(), journalDirectory, SEGMENT_SIZE_BYTES,
+                FailingFileChannel.opener(writesUntilFailure));
+    }
+}
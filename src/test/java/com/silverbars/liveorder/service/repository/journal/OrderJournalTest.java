@@ -0,0 +1,150 @@
+package com.silverbars.liveorder.service.repository.journal;
+
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderJournalTest {
+
+    private static final long SEGMENT_SIZE_BYTES = 1024;
+
+    @TempDir
+    Path journalDirectory;
+
+    private final List<Object> replayedEvents = new ArrayList<>();
+
+    @Test
+    void shouldReplayAppendedEventsInOrder() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = silverBarOrder(someUUID(), null, someOrderType(), new BigDecimal("-1.250"), someInt());
+        try (var journal = openJournal()) {
+            journal.appendOrderSaved(order1);
+            journal.appendOrderSaved(order2);
+            journal.appendOrderCancelled(order1.getOrderId());
+        }
+
+        // when
+        openJournal().close();
+
+        // then
+        assertThat(replayedEvents).containsExactly(order1, order2, order1.getOrderId());
+    }
+
+    @Test
+    void shouldRollSegments() throws IOException {
+        // given
+        var orders = new ArrayList<SilverBarOrder>();
+        try (var journal = openJournal()) {
+            for (int i = 0; i < 100; i++) {
+                var order = someSilverBarOrder();
+                journal.appendOrderSaved(order);
+                orders.add(order);
+            }
+        }
+
+        // when
+        openJournal().close();
+
+        // then
+        assertThat(Files.list(journalDirectory).count()).isGreaterThan(1);
+        assertThat(replayedEvents).containsExactlyElementsOf(orders);
+    }
+
+    @Test
+    void shouldTruncateTornRecordAndContinueAppending() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        try (var journal = openJournal()) {
+            journal.appendOrderSaved(order1);
+        }
+        var segment = Files.list(journalDirectory).findFirst().orElseThrow();
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        try (var journal = openJournal()) {
+            journal.appendOrderSaved(order2);
+        }
+        replayedEvents.clear();
+        openJournal().close();
+
+        // then
+        assertThat(replayedEvents).containsExactly(order1, order2);
+    }
+
+    @Test
+    void shouldDiscardBatchTornByFailedWriteAndKeepLaterAppends() throws IOException {
+        // given
+        var order1 = someSilverBarOrder();
+        var order2 = someSilverBarOrder();
+        var order3 = someSilverBarOrder();
+        var order4 = someSilverBarOrder();
+        var writesUntilFailure = new AtomicInteger();
+        try (var journal = openJournal(writesUntilFailure)) {
+            journal.appendOrderSaved(order1);
+            writesUntilFailure.set(2);
+
+            // when
+            assertThatThrownBy(() -> journal.appendOrdersSaved(List.of(order2, order3))).isInstanceOf(UncheckedIOException.class);
+            journal.appendOrderSaved(order4);
+        }
+        openJournal().close();
+
+        // then
+        assertThat(replayedEvents).containsExactly(order1, order4);
+    }
+
+    @Test
+    void shouldKeepBatchWithinSingleSegment() throws IOException {
+        // given
+        var order = someSilverBarOrder();
+        var batch = new ArrayList<SilverBarOrder>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(someSilverBarOrder());
+        }
+        try (var journal = openJournal()) {
+            journal.appendOrderSaved(order);
+
+            // when
+            journal.appendOrdersSaved(batch);
+        }
+
+        // then
+        assertThat(Files.list(journalDirectory).count()).isEqualTo(2);
+        openJournal().close();
+        assertThat(replayedEvents).hasSize(51).startsWith(order).endsWith(batch.get(49));
+    }
+
+    private OrderJournal openJournal() {
+        return openJournal(new AtomicInteger());
+    }
+
+    private OrderJournal openJournal(AtomicInteger writesUntilFailure) {
+        return OrderJournal.open(journalDirectory, SEGMENT_SIZE_BYTES, 0, new OrderJournalListener() {
+            @Override
+            public void orderSaved(SilverBarOrder order) {
+                replayedEvents.add(order);
+            }
+
+            @Override
+            public void orderCancelled(String orderId) {
+                replayedEvents.add(orderId);
+            }
+        }, FailingFileChannel.opener(writesUntilFailure));
+    }
+}
@@ -0,0 +1,306 @@
+package com.silverbars.liveorder.service.repository.primitive;
+
+import com.silverbars.liveorder.service.domain.OrderType;
+import com.silverbars.liveorder.service.domain.SilverBarOrder;
+import com.silverbars.liveorder.service.id.SnowflakeOrderIdGenerator;
+import com.silverbars.liveorder.service.repository.SilverBarOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.silverbars.liveorder.service.TestFixtures.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrimitiveSilverBarOrderRepositoryTest {
+
+    private SilverBarOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PrimitiveSilverBarOrderRepository(2);
+    }
+
+    @Test
+    void shouldSaveOrder() {
+        // given
+        var order = someFixedPointOrder();
+
+        // when
+        repository.saveOrder(order);
+
+        // then
+        assertThat(repository.getAllOrders())
+                .hasSize(1)
+                .contains(order);
+    }
+
+    @Test
+    void shouldPassEveryLiveOrderOnceWhileLettingWritersIn() {
+        // given
+        var liveOrders = new ArrayList<SilverBarOrder>();
+        for (int i = 0; i < 3_000; i++) {
+            var order = someFixedPointOrder();
+            repository.saveOrder(order);
+            if (i % 3 == 0) {
+                repository.cancelOrder(order.getOrderId());
+            } else {
+                liveOrders.add(order);
+            }
+        }
+        var walkedOrders = new ArrayList<SilverBarOrder>();
+
+        // when
+        repository.forEachOrder(order -> {
+            if (walkedOrders.isEmpty()) {
+                repository.saveOrder(someFixedPointOrder());
+            }
+            walkedOrders.add(order);
+        });
+
+        // then
+        assertThat(walkedOrders)
+                .doesNotHaveDuplicates()
+                .containsAll(liveOrders)
+                .hasSizeLessThanOrEqualTo(liveOrders.size() + 1);
+    }
+
+    @Test
+    void shouldKeepPriceScaleAndMissingUserId() {
+        // given
+        var order = silverBarOrder(someUUID(), null, OrderType.SELL, new BigDecimal("-10.500"), someInt());
+
+        // when
+        repository.saveOrder(order);
+
+        // then
+        assertThat(repository.findOrder(order.getOrderId())).contains(order);
+    }
+
+    @Test
+    void shouldKeepExpiryTime() {
+        // given
+        var order = expiringSilverBarOrder(someUUID(), OrderType.BUY, BigDecimal.ONE, Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+
+        // when
+        repository.saveOrder(order);
+
+        // then
+        assertThat(repository.findOrder(order.getOrderId())).contains(order);
+    }
+
+    @Test
+    void shouldSaveManyOrdersReusingSlotsOfCancelledOrders() {
+        // given
+        var liveOrders = new ArrayList<SilverBarOrder>();
+        for (int i = 0; i < 1_000; i++) {
+            var order = someFixedPointOrder();
+            repository.saveOrder(order);
+            if (i % 3 == 0) {
+                repository.cancelOrder(order.getOrderId());
+            } else {
+                liveOrders.add(order);
+            }
+        }
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            var order = someFixedPointOrder();
+            repository.saveOrder(order);
+            liveOrders.add(order);
+        }
+
+        // then
+        assertThat(repository.getAllOrders()).containsExactlyInAnyOrderElementsOf(liveOrders);
+        liveOrders.forEach(order -> assertThat(repository.findOrder(order.getOrderId())).contains(order));
+    }
+
+    @Test
+    void shouldKeepOrderIdsOfAnyFormat() {
+        // given
+        var uuidOrderId = someUUID();
+        var orders = List.of(
+                someFixedPointOrder(uuidOrderId),
+                someFixedPointOrder(uuidOrderId.toUpperCase()),
+                someFixedPointOrder(new SnowflakeOrderIdGenerator(1).nextOrderId()),
+                someFixedPointOrder("ZZZZZZZZZZZZZ"),
+                someFixedPointOrder(someString()));
+
+        // when
+        orders.forEach(repository::saveOrder);
+
+        // then
+        assertThat(repository.getAllOrders()).containsExactlyInAnyOrderElementsOf(orders);
+        orders.forEach(order -> assertThat(repository.findOrder(order.getOrderId())).contains(order));
+        assertThat(repository.cancelOrder(uuidOrderId.toUpperCase())).isTrue();
+        assertThat(repository.findOrder(uuidOrderId)).contains(orders.get(0));
+    }
+
+    @Test
+    void shouldCancelOrder() {
+        // given
+        var order1 = saveOrder();
+        var order2 = saveOrder();
+
+        // when
+        var cancelled = repository.cancelOrder(order1.getOrderId());
+
+        // then
+        assertThat(cancelled).isTrue();
+        assertThat(repository.getAllOrders()).containsExactly(order2);
+        assertThat(repository.findOrder(order1.getOrderId())).isEmpty();
+        assertThat(repository.containsOrder(order1.getOrderId())).isFalse();
+        assertThat(repository.containsOrder(order2.getOrderId())).isTrue();
+    }
+
+    @Test
+    void shouldReportCancellingUnknownOrder() {
+        // given
+        saveOrder();
+
+        // when
+        var cancelled = repository.cancelOrder(someUUID());
+
+        // then
+        assertThat(cancelled).isFalse();
+    }
+
+    @Test
+    void shouldSaveAndCancelBatchesOfOrders() {
+        // given
+        var order1 = someFixedPointOrder();
+        var order2 = someFixedPointOrder();
+        var order3 = someFixedPointOrder();
+        repository.saveOrders(List.of(order1, order2, order3));
+
+        // when
+        var cancelled = repository.cancelOrders(List.of(order2.getOrderId(), someUUID(), order2.getOrderId()));
+
+        // then
+        assertThat(cancelled).containsExactly(true, false, false);
+        assertThat(repository.getAllOrders()).containsExactlyInAnyOrder(order1, order3);
+    }
+
+    @Test
+    void shouldSaveNothingOfBatchWithPriceNotFittingInFixedPoint() {
+        // given
+        var order = someFixedPointOrder();
+        var invalidOrder = silverBarOrder(someUUID(), someString(), someOrderType(), new BigDecimal("123456789012345678901234567890"), someInt());
+
+        // when
+        assertThatThrownBy(() -> repository.saveOrders(List.of(order, invalidOrder)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // then
+        assertThat(repository.getAllOrders()).isEmpty();
+    }
+
+    @Test
+    void shouldFindOrdersOfUserInOrderOfSaving() {
+        // given
+        var userId = someUUID();
+        var order1 = saveOrder(userId);
+        var otherUserOrder = saveOrder(someUUID());
+        var order2 = saveOrder(userId);
+        var order3 = saveOrder(userId);
+        repository.cancelOrder(order2.getOrderId());
+        repository.cancelOrder(otherUserOrder.getOrderId());
+        var order4 = saveOrder(userId);
+
+        // when
+        var userOrders = repository.findUserOrders(userId);
+
+        // then
+        assertThat(userOrders).containsExactly(order1, order3, order4);
+        assertThat(repository.findUserOrders(otherUserOrder.getUserId())).isEmpty();
+        assertThat(repository.findUserOrders(someUUID())).isEmpty();
+    }
+
+    @Test
+    void shouldMoveReplacedOrderToItsNewUser() {
+        // given
+        var order = saveOrder(someUUID());
+        var replacingOrder = silverBarOrder(order.getOrderId(), someUUID(), someOrderType(), BigDecimal.ONE, someInt());
+
+        // when
+        repository.saveOrder(replacingOrder);
+
+        // then
+        assertThat(repository.findUserOrders(order.getUserId())).isEmpty();
+        assertThat(repository.findUserOrders(replacingOrder.getUserId())).containsExactly(replacingOrder);
+    }
+
+    @Test
+    void willThrowExceptionIfPriceDoesNotFitInFixedPoint() {
+        // given
+        var order = silverBarOrder(someUUID(), someString(), someOrderType(), new BigDecimal("123456789012345678901234567890"), someInt());
+
+        assertThatThrownBy(
+                // when
+                () -> repository.saveOrder(order))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not fit in fixed-point representation");
+    }
+
+    @Test
+    void willThrowExceptionValidatingPriceNotFittingInFixedPoint() {
+        // given
+        var order = silverBarOrder(null, someString(), someOrderType(), new BigDecimal("1E-200"), someInt());
+
+        assertThatThrownBy(
+                // when
+                () -> repository.validateOrder(order))
+
+                // then
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not fit in fixed-point representation");
+    }
+
+    @Test
+    void shouldFindOrdersOfUsersSavedAfterOthersLeft() {
+        // given
+        for (int i = 0; i < 100; i++) {
+            var order = saveOrder(someUUID());
+            repository.cancelOrder(order.getOrderId());
+        }
+        var replacedOrder = saveOrder(someUUID());
+        repository.saveOrder(silverBarOrder(replacedOrder.getOrderId(), someUUID(), someOrderType(), BigDecimal.ONE, someInt()));
+        var userId = someUUID();
+
+        // when
+        var order1 = saveOrder(userId);
+        var otherUserOrder = saveOrder(someUUID());
+        var order2 = saveOrder(userId);
+
+        // then
+        assertThat(repository.findUserOrders(replacedOrder.getUserId())).isEmpty();
+        assertThat(repository.findUserOrders(userId)).containsExactly(order1, order2);
+        assertThat(repository.findUserOrders(otherUserOrder.getUserId())).containsExactly(otherUserOrder);
+    }
+
+    private SilverBarOrder saveOrder() {
+        var order = someFixedPointOrder();
+        repository.saveOrder(order);
+        return order;
+    }
+
+    private SilverBarOrder saveOrder(String userId) {
+        var order = silverBarOrder(someUUID(), userId, someOrderType(), BigDecimal.valueOf(someInt(), 2), someInt());
+        repository.saveOrder(order);
+        return order;
+    }
+
+    private static SilverBarOrder someFixedPointOrder() {
+        return someFixedPointOrder(someUUID());
+    }
+
+    private static SilverBarOrder someFixedPointOrder(String orderId) {
+        return silverBarOrder(orderId, someString(), someOrderType(), BigDecimal.valueOf(someInt(), 2), someInt());
+    }
+}